@@ -0,0 +1,145 @@
+/** Picks the transformation algorithm likely to find the smallest circuit for a function.
+ *	The features are read in one pass over the rows: the complexity, the sum over the rows of the
+ *	Hamming distance between the input and output sides as in tableComplexity, a histogram of
+ *	those distances, the number of fixed points, and the distance split between rows whose output
+ *	side is above their input side and rows whose output side is below it. The pass costs one read
+ *	of each row, where a synthesis applies about n/2 gates a row to the whole table.
+ *
+ *	Over the benchmark corpus the bidirectional algorithm finds the smallest circuit, or one as
+ *	small, for most functions. When nearly all the distance is on rows whose output side is above
+ *	their input side, as for counters, the output algorithm finds a circuit as small as the
+ *	bidirectional one without comparing both sides of every row, and the input algorithm likewise
+ *	when nearly all of it is below; such functions are picked for the one sided algorithm and
+ *	every other function for the bidirectional one.
+ *
+ *	The functions the bidirectional algorithm loses on are ones with a shortcut: graycode, which is
+ *	linear, loses to the input algorithm by n - 1 gates against n(n - 1)/2, and functions that
+ *	split into parts lose when a part favours one side. The histogram and the fixed points cannot
+ *	tell these apart, since a function and its inverse have the same ones while the inverse swaps
+ *	which of the one sided algorithms wins. A function with a shortcut needs far less work than
+ *	walking its table, though, so one of up to TRIAL_LINES lines has its shortcut taken with each
+ *	algorithm and the one giving the fewest gates is picked. The histogram and fixed points are
+ *	kept for the benchmark, which reports them for the functions the pick misses.
+ *
+ * @author ian (ianH92)
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+public class AlgorithmSelector {
+	// The share of the distance, in tenths, on one side above which that side's algorithm is picked
+	private static final int ONE_SIDED_TENTHS = 9;
+	// Functions with a shortcut and at most this many lines have the shortcut tried with each algorithm
+	private static final int TRIAL_LINES = 16;
+
+	private final long complexity;
+	private final long[] histogram;
+	private final long fixedPoints;
+	private final long outputDistance;
+	private final long inputDistance;
+
+	/** Reads the features of a function in one pass over its rows
+	 * @param function The reversible function.
+	 */
+	public AlgorithmSelector(FunctionSource function) {
+		int lines = function.lines();
+		this.histogram = new long[lines + 1];
+		long above = 0;
+		long below = 0;
+		int rows = function.rows();
+		for(int x = 0; x < rows; x++) {
+			int y = function.output(x);
+			int distance = Integer.bitCount(x ^ y);
+			this.histogram[Math.min(distance, lines)]++;
+			if(y > x) {
+				above += distance;
+			} else if(y < x) {
+				below += distance;
+			}
+		}
+		this.complexity = above + below;
+		this.fixedPoints = this.histogram[0];
+		this.outputDistance = above;
+		this.inputDistance = below;
+	}
+
+	/** Returns the algorithm picked for a function
+	 *	A function of up to TRIAL_LINES lines with a shortcut gets the algorithm whose shortcut
+	 *	gives the fewest gates, and any other function the algorithm picked from its features.
+	 *
+	 * @param function The reversible function.
+	 * @return One of OUTPUT_ALGORITHM, INPUT_ALGORITHM or BIDIRECTIONAL_ALGORITHM.
+	 */
+	public static int select(FunctionSource function) {
+		int picked = new AlgorithmSelector(function).algorithm();
+		if(function.lines() > TRIAL_LINES || (LinearSynthesis.synthesize(function) == null &&
+			SubfunctionDecomposition.parts(function).length == 1)) {
+			return picked;
+		}
+		try {
+			int fewest = TransformationAlgorithms.shortcut(function, picked).size();
+			for(int algorithm = 0; algorithm <= TransformationAlgorithms.BIDIRECTIONAL_ALGORITHM; algorithm++) {
+				if(algorithm != picked) {
+					int gates = TransformationAlgorithms.shortcut(function, algorithm).size();
+					if(gates < fewest) {
+						fewest = gates;
+						picked = algorithm;
+					}
+				}
+			}
+		} catch(UserInputException e) {
+			// The function is not reversible, which the synthesis reports
+		}
+		return picked;
+	}
+
+	/** Returns the algorithm to run for a flag, picking one if the flag is AUTO_ALGORITHM
+	 * @param function The reversible function.
+	 * @param algorithm One of the algorithm flags.
+	 */
+	public static int resolve(FunctionSource function, int algorithm) {
+		return (algorithm == TransformationAlgorithms.AUTO_ALGORITHM) ? select(function) : algorithm;
+	}
+
+	/** Returns the algorithm picked from the features
+	 * @return One of OUTPUT_ALGORITHM, INPUT_ALGORITHM or BIDIRECTIONAL_ALGORITHM.
+	 */
+	public int algorithm() {
+		if(this.complexity == 0 || 10 * this.outputDistance >= ONE_SIDED_TENTHS * this.complexity) {
+			return TransformationAlgorithms.OUTPUT_ALGORITHM;
+		}
+		if(10 * this.inputDistance >= ONE_SIDED_TENTHS * this.complexity) {
+			return TransformationAlgorithms.INPUT_ALGORITHM;
+		}
+		return TransformationAlgorithms.BIDIRECTIONAL_ALGORITHM;
+	}
+
+	/** Returns the sum over the rows of the Hamming distance between the input and output sides
+	 */
+	public long complexity() {
+		return this.complexity;
+	}
+
+	/** Returns the number of rows at each Hamming distance, from 0 to the number of lines
+	 */
+	public long[] histogram() {
+		return this.histogram.clone();
+	}
+
+	/** Returns the number of rows whose output side is their input side
+	 */
+	public long fixedPoints() {
+		return this.fixedPoints;
+	}
+
+	/** Returns the distance on rows whose output side is above their input side
+	 */
+	public long outputDistance() {
+		return this.outputDistance;
+	}
+
+	/** Returns the distance on rows whose output side is below their input side
+	 */
+	public long inputDistance() {
+		return this.inputDistance;
+	}
+}
@@ -0,0 +1,439 @@
+import java.util.Arrays;
+import java.util.BitSet;
+
+/** Synthesizes many small reversible functions at once, stepping through them in lockstep.
+ *	For functions of a few lines the work of the transformation algorithms is tiny, and calling
+ *	TransformationAlgorithms for each one is dominated by creating tables, gate lists and arrays of
+ *	candidate control lines. A batch instead keeps a whole group of functions in shared arrays of
+ *	words, one word per line for each side of each function, with bit x of the word of line j
+ *	holding bit j of row x; a function of up to 6 lines has at most 64 rows, so a word holds a whole
+ *	column of its table. A gate is then a handful of word operations per line rather than a pass
+ *	over the rows. The batch runs row 0 of every function, then row 1 of every function, and so on,
+ *	with the gates of each function going into fixed slots of two shared gate buffers. The control
+ *	lines of each gate are the smallest subset of the lines that can be controls which is at least
+ *	the row, found by walking the subsets as bestControlLine does. The scratch arrays are reused for
+ *	every group of a batch.
+ *
+ *	The circuits are the ones TransformationAlgorithms.synthesize finds for each function: affine
+ *	functions and functions that split into independent parts are handed to TransformationAlgorithms
+ *	for its shortcuts. The gates of every circuit are returned packed in a single pair of arrays,
+ *	with the circuit of function f from offset(f) up to offset(f + 1).
+ *
+ * @author ian (ianH92)
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+public class BatchSynthesis {
+	/** The largest number of lines of the functions of a batch */
+	public static final int MAX_LINES = 6;
+	// The number of gate slots in the scratch buffers of a group
+	private static final int GROUP_GATES = 1 << 18;
+
+	private final int lines;
+	private final int count;
+	private final int[] offsets;
+	private int[] controlLines;
+	private int[] targets;
+	private int size = 0;
+	private BitSet failed = null;
+
+	private BatchSynthesis(int lines, int count) {
+		this.lines = lines;
+		this.count = count;
+		this.offsets = new int[count + 1];
+		this.controlLines = new int[Math.max(count, 16)];
+		this.targets = new int[Math.max(count, 16)];
+	}
+
+	/** Synthesizes a batch of functions with the same number of lines
+	 * @param lines The number of inputs of every function, at most MAX_LINES
+	 * @param outputs The output side of every row of every function, function after function, so
+	 *	row x of function f is outputs[(f << lines) + x]
+	 * @param algorithm OUTPUT_ALGORITHM, INPUT_ALGORITHM or BIDIRECTIONAL_ALGORITHM.
+	 * @return The circuits of the functions; functions that are not reversible have no gates and
+	 *	are marked as failed
+	 */
+	public static BatchSynthesis synthesize(int lines, int[] outputs, int algorithm) throws UserInputException {
+		if(lines < 1 || lines > MAX_LINES) {
+			throw new UserInputException("Error: Batches are limited to functions of 1 to " + MAX_LINES + " lines.");
+		}
+		if(algorithm != TransformationAlgorithms.OUTPUT_ALGORITHM && algorithm != TransformationAlgorithms.INPUT_ALGORITHM &&
+			algorithm != TransformationAlgorithms.BIDIRECTIONAL_ALGORITHM) {
+			throw new UserInputException("Error: Batches can only use the output, input or bidirectional algorithm.");
+		}
+		int rows = 1 << lines;
+		if(outputs.length % rows != 0) {
+			throw new UserInputException("Error: Batch does not hold a whole number of functions.");
+		}
+
+		int count = outputs.length / rows;
+		BatchSynthesis batch = new BatchSynthesis(lines, count);
+		// Every row adds at most one gate per line, so each function gets that many slots of each side
+		int slots = rows * lines;
+		int groupSize = Math.max(1, Math.min(count, GROUP_GATES / slots));
+		Group group = new Group(lines, groupSize, slots);
+		for(int first = 0; first < count; first += groupSize) {
+			group.run(batch, outputs, first, Math.min(groupSize, count - first), algorithm);
+		}
+		return batch;
+	}
+
+	/** Times batches against TransformationAlgorithms on the same random functions
+	 *	Each run synthesizes every function once as a batch and once with a table and
+	 *	TransformationAlgorithms.synthesize, and the fastest run of each is kept. The functions are
+	 *	FunctionSource.random with seeds 1 to count, so every run of the program times the same ones.
+	 *
+	 * @param args The number of lines, the number of functions, the algorithm name and the number of
+	 *	runs, by default 4, 100000, output and 5
+	 */
+	public static void main(String[] args) throws UserInputException {
+		int lines = (args.length > 0) ? Integer.parseInt(args[0]) : 4;
+		int count = (args.length > 1) ? Integer.parseInt(args[1]) : 100000;
+		int algorithm = (args.length > 2) ? TransformationAlgorithms.algorithmNamed(args[2]) :
+											TransformationAlgorithms.OUTPUT_ALGORITHM;
+		int runs = (args.length > 3) ? Integer.parseInt(args[3]) : 5;
+
+		int rows = 1 << lines;
+		int[] outputs = new int[count * rows];
+		for(int f = 0; f < count; f++) {
+			FunctionSource function = FunctionSource.random(lines, f + 1);
+			for(int x = 0; x < rows; x++) {
+				outputs[(f * rows) + x] = function.output(x);
+			}
+		}
+
+		long batchNanos = Long.MAX_VALUE;
+		long loopNanos = Long.MAX_VALUE;
+		for(int run = 0; run < runs; run++) {
+			long start = System.nanoTime();
+			synthesize(lines, outputs, algorithm);
+			batchNanos = Math.min(batchNanos, System.nanoTime() - start);
+
+			start = System.nanoTime();
+			for(int f = 0; f < count; f++) {
+				PermutationTable table = new HeapPermutationTable(lines);
+				table.load(Arrays.copyOfRange(outputs, f * rows, (f + 1) * rows));
+				TransformationAlgorithms.synthesize(table, algorithm);
+			}
+			loopNanos = Math.min(loopNanos, System.nanoTime() - start);
+		}
+		System.out.printf("%d functions of %d lines, %s algorithm, best of %d runs: batch %.1f ms, " +
+							"loop %.1f ms, %.2fx%n", count, lines, TransformationAlgorithms.algorithmName(algorithm),
+							runs, batchNanos / 1e6, loopNanos / 1e6, (double) loopNanos / batchNanos);
+	}
+
+	/** Returns the number of functions in the batch
+	 */
+	public int count() {
+		return this.count;
+	}
+
+	/** Returns the number of lines of every function of the batch
+	 */
+	public int lines() {
+		return this.lines;
+	}
+
+	/** Returns the position of the first gate of a circuit in the packed gates
+	 * @param f The function; count() gives the end of the last circuit
+	 */
+	public int offset(int f) {
+		return this.offsets[f];
+	}
+
+	/** Returns the number of gates in the circuit of a function
+	 */
+	public int gateCount(int f) {
+		return this.offsets[f + 1] - this.offsets[f];
+	}
+
+	/** Returns whether a function could not be synthesized because it is not reversible
+	 */
+	public boolean failed(int f) {
+		return this.failed != null && this.failed.get(f);
+	}
+
+	/** Returns the control lines of every gate of every circuit, packed one circuit after another
+	 */
+	public int[] controlLines() {
+		return this.controlLines;
+	}
+
+	/** Returns the target of every gate of every circuit, packed one circuit after another
+	 */
+	public int[] targets() {
+		return this.targets;
+	}
+
+	/** Returns the circuit of a function as a list of its own
+	 */
+	public GateList gates(int f) {
+		GateList gates = new GateList(this.lines, Math.max(gateCount(f), 1));
+		for(int i = this.offsets[f]; i < this.offsets[f + 1]; i++) {
+			gates.add(this.controlLines[i], this.targets[i]);
+		}
+		return gates;
+	}
+
+	/** Appends a gate to the circuit of the function being assembled
+	 */
+	private void add(int controlLines, int target) {
+		if(this.size == this.targets.length) {
+			this.controlLines = Arrays.copyOf(this.controlLines, 2 * this.size);
+			this.targets = Arrays.copyOf(this.targets, 2 * this.size);
+		}
+		this.controlLines[this.size] = controlLines;
+		this.targets[this.size] = target;
+		this.size++;
+	}
+
+	/** Ends the circuit of a function
+	 * @param f The function
+	 * @param failed True if the function is not reversible
+	 */
+	private void finish(int f, boolean failed) {
+		if(failed) {
+			if(this.failed == null) {
+				this.failed = new BitSet(this.count);
+			}
+			this.failed.set(f);
+		}
+		this.offsets[f + 1] = this.size;
+	}
+
+	/** The scratch arrays shared by the functions of a group, reused for every group of a batch
+	 */
+	private static class Group {
+		// The rows whose index has bit j set, for each line j
+		private static final long[] ROW_BITS = {0xAAAAAAAAAAAAAAAAL, 0xCCCCCCCCCCCCCCCCL, 0xF0F0F0F0F0F0F0F0L,
+												0xFF00FF00FF00FF00L, 0xFFFF0000FFFF0000L, 0xFFFFFFFF00000000L};
+
+		final int lines;
+		final int rows;
+		final long allRows;
+		final int slots;
+		// Bit x of word j of a function is bit j of the forward or inverse value of row x
+		final long[] forward;
+		final long[] inverse;
+		// The gates found on each side, in slots of each function, as control lines and target
+		final int[] inputGates;
+		final int[] outputGates;
+		final int[] inputCount;
+		final int[] outputCount;
+		// Functions finished before the transformation, directly, by another path or as failures
+		final boolean[] done;
+		final boolean[] failed;
+
+		Group(int lines, int size, int slots) {
+			this.lines = lines;
+			this.rows = 1 << lines;
+			this.allRows = (this.rows == 64) ? -1L : ((1L << this.rows) - 1);
+			this.slots = slots;
+			this.forward = new long[size * lines];
+			this.inverse = new long[size * lines];
+			this.inputGates = new int[2 * size * slots];
+			this.outputGates = new int[2 * size * slots];
+			this.inputCount = new int[size];
+			this.outputCount = new int[size];
+			this.done = new boolean[size];
+			this.failed = new boolean[size];
+		}
+
+		/** Synthesizes a group of functions of the batch and appends their circuits to it
+		 * @param first The first function of the group
+		 * @param size The number of functions in the group
+		 */
+		void run(BatchSynthesis batch, int[] outputs, int first, int size, int algorithm) throws UserInputException {
+			int rows = this.rows;
+			GateList[] direct = new GateList[size];
+			Arrays.fill(this.inputCount, 0);
+			Arrays.fill(this.outputCount, 0);
+			for(int g = 0; g < size; g++) {
+				int source = (first + g) * rows;
+				this.failed[g] = !load(outputs, source, g);
+				this.done[g] = this.failed[g];
+				if(this.failed[g]) {
+					continue;
+				}
+				// The same shortcuts TransformationAlgorithms takes, each a quick check of the function
+				FunctionSource function = FunctionSource.of(this.lines, row -> outputs[source + row]);
+				if(LinearSynthesis.synthesize(function) != null || SubfunctionDecomposition.parts(function).length > 1) {
+					PermutationTable table = new HeapPermutationTable(this.lines);
+					table.load(Arrays.copyOfRange(outputs, source, source + rows));
+					direct[g] = TransformationAlgorithms.synthesize(table, algorithm);
+				}
+				this.done[g] = (direct[g] != null);
+			}
+
+			for(int i = 0; i < rows; i++) {
+				for(int g = 0; g < size; g++) {
+					if(!this.done[g] && !step(g, i, algorithm)) {
+						this.done[g] = true;
+						this.failed[g] = true;
+					}
+				}
+			}
+
+			for(int g = 0; g < size; g++) {
+				if(direct[g] != null) {
+					for(int k = 0; k < direct[g].size(); k++) {
+						batch.add(direct[g].controlLines(k), direct[g].target(k));
+					}
+				} else if(!this.failed[g]) {
+					// The circuit is the input gates in order followed by the output gates last first
+					int base = 2 * g * this.slots;
+					for(int k = 0; k < this.inputCount[g]; k++) {
+						batch.add(this.inputGates[base + (2 * k)], this.inputGates[base + (2 * k) + 1]);
+					}
+					for(int k = this.outputCount[g] - 1; k >= 0; k--) {
+						batch.add(this.outputGates[base + (2 * k)], this.outputGates[base + (2 * k) + 1]);
+					}
+				}
+				batch.finish(first + g, this.failed[g]);
+			}
+		}
+
+		/** Packs a function into the words of the group
+		 * @return False if the function is not reversible
+		 */
+		private boolean load(int[] outputs, int source, int g) {
+			int base = g * this.lines;
+			Arrays.fill(this.forward, base, base + this.lines, 0);
+			Arrays.fill(this.inverse, base, base + this.lines, 0);
+			long seen = 0;
+			for(int x = 0; x < this.rows; x++) {
+				int y = outputs[source + x];
+				if(y < 0 || y >= this.rows || (seen & (1L << y)) != 0) {
+					return false;
+				}
+				seen |= (1L << y);
+				for(int j = 0; j < this.lines; j++) {
+					this.forward[base + j] |= (long) ((y >>> j) & 1) << x;
+					this.inverse[base + j] |= (long) ((x >>> j) & 1) << y;
+				}
+			}
+			return true;
+		}
+
+		/** Reads the value of a row from the words of one side of a function
+		 */
+		private int value(long[] side, int base, int row) {
+			int value = 0;
+			for(int j = 0; j < this.lines; j++) {
+				value |= (int) ((side[base + j] >>> row) & 1) << j;
+			}
+			return value;
+		}
+
+		/** Maps row i of a function of the group to the identity
+		 * @param g The function in the group
+		 * @return False if no control lines could be found, which only happens if it is not reversible
+		 */
+		private boolean step(int g, int i, int algorithm) {
+			int base = g * this.lines;
+			boolean output;
+			if(algorithm == TransformationAlgorithms.OUTPUT_ALGORITHM) {
+				output = true;
+			} else if(algorithm == TransformationAlgorithms.INPUT_ALGORITHM) {
+				output = false;
+			} else {
+				output = Integer.bitCount(i ^ value(this.forward, base, i)) <= Integer.bitCount(i ^ value(this.inverse, base, i));
+			}
+			long[] side = output ? this.forward : this.inverse;
+			long[] other = output ? this.inverse : this.forward;
+
+			int value = value(side, base, i);
+			if(value == i) {
+				return true;
+			}
+			if(i == 0 && output) {
+				// Flip every 1 bit of the first row to 0 with a single gate without controls
+				transform(side, other, base, 0, value);
+				record(g, output, 0, value);
+				return true;
+			}
+
+			// The 0 bits that must become 1, then the 1 bits that must become 0
+			int p = (i ^ value) & i;
+			int q = (i ^ value) & value;
+			for(int pass = 0; pass < 2; pass++) {
+				for(int bits = (pass == 0) ? p : q; bits != 0; bits &= (bits - 1)) {
+					int target = Integer.lowestOneBit(bits);
+					int control = bestControlLines(target, value(side, base, i), i);
+					if(control < 0) {
+						return false;
+					}
+					transform(side, other, base, control, target);
+					record(g, output, control, target);
+				}
+			}
+			return true;
+		}
+
+		/** Keeps a gate found for a function of the group
+		 */
+		private void record(int g, boolean output, int controlLines, int target) {
+			int[] gates = output ? this.outputGates : this.inputGates;
+			int[] counts = output ? this.outputCount : this.inputCount;
+			int slot = (2 * g * this.slots) + (2 * counts[g]);
+			gates[slot] = controlLines;
+			gates[slot + 1] = target;
+			counts[g]++;
+		}
+
+		/** Applies a gate to one side of a function and keeps the other side its inverse
+		 *	On the side transformed, the rows whose values have every control line set are the AND of
+		 *	the words of the control lines, and the gate flips the words of its target in those rows.
+		 *	On the other side the gate swaps the entries of each pair of rows it exchanges, which is a
+		 *	delta swap of every word for each line of the target.
+		 */
+		private void transform(long[] side, long[] other, int base, int controlLines, int target) {
+			long matching = this.allRows;
+			long controlledRows = this.allRows;
+			for(int bits = controlLines; bits != 0; bits &= (bits - 1)) {
+				int j = Integer.numberOfTrailingZeros(bits);
+				matching &= side[base + j];
+				controlledRows &= ROW_BITS[j];
+			}
+			for(int bits = target; bits != 0; bits &= (bits - 1)) {
+				int k = Integer.numberOfTrailingZeros(bits);
+				side[base + k] ^= matching;
+
+				// Swap rows y and y + 2^k for each controlled row y with bit k clear
+				int shift = 1 << k;
+				long pairs = controlledRows & ~ROW_BITS[k];
+				for(int j = 0; j < this.lines; j++) {
+					long word = other[base + j];
+					long delta = ((word >>> shift) ^ word) & pairs;
+					other[base + j] = word ^ delta ^ (delta << shift);
+				}
+			}
+		}
+	}
+
+	/** Chooses the control lines of a gate that moves a value towards a row
+	 *	The candidates are the subsets of the 1 bits of the value without the target that are at
+	 *	least the row, and the choice is the smallest of them, as in bestControlLine; subsets are
+	 *	visited in decreasing order by (s - 1) & mask.
+	 *
+	 * @param target The line to flip
+	 * @param from The value being moved
+	 * @param to The row
+	 * @return The control lines, or -1 if there is no candidate
+	 */
+	static int bestControlLines(int target, int from, int to) {
+		int mask = from & ~target;
+		if(mask < to) {
+			return -1;
+		}
+		int best = mask;
+		for(int s = mask; s != 0; ) {
+			s = (s - 1) & mask;
+			if(s < to) {
+				break;
+			}
+			best = s;
+		}
+		return best;
+	}
+}
@@ -0,0 +1,444 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/** Runs the transformation algorithms with periodic checkpoints so a long synthesis can be resumed.
+ *	Every row of the algorithms depends only on the state of the table and the row reached, so a
+ *	checkpoint holds the next row, the output side of every row of the transformed table and the
+ *	gates found so far. Resuming from a checkpoint produces exactly the circuit an uninterrupted
+ *	run would have.
+ *
+ *	A checkpoint streams the table and the gates through a small buffer into a temporary file, so it
+ *	needs no copy of them in memory and has no limit on their size; the file is forced to the disk
+ *	and renamed over the checkpoint file, so the checkpoint on disk is always whole. Writing it
+ *	takes the synthesis about as long as reading the table once and writing it out. When the disk
+ *	has no room for a checkpoint or writing it fails, the reason is reported, the checkpoint on disk
+ *	is kept as it is and the synthesis carries on. Resuming streams the file back into the table and
+ *	the gate lists in the same way. The file ends with a CRC32 of its contents, and the checkpoint
+ *	file is deleted once the circuit is complete.
+ *
+ *	File layout, little-endian: int MAGIC, int VERSION, int algorithm, int lines, int next row,
+ *	int input gate count, int output gate count, the forward array as ints, the control lines and
+ *	target of every input gate and then every output gate as two ints, and a long CRC32.
+ *
+ * @author ian (ianH92)
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+public class CheckpointedSynthesis {
+	private static final int MAGIC = 0x54535043;
+	private static final int VERSION = 1;
+	private static final int HEADER_INTS = 7;
+	private static final int BUFFER_BYTES = 1 << 20;
+
+	private final File checkpointFile;
+	private final long intervalNanos;
+	private MemoryPlanner.Plan plan = null;
+
+	/** Creates a synthesis that keeps its checkpoints in a file
+	 * @param checkpointFile The file the checkpoints are written to
+	 * @param intervalMillis The time between checkpoints
+	 */
+	public CheckpointedSynthesis(File checkpointFile, long intervalMillis) {
+		this.checkpointFile = checkpointFile;
+		this.intervalNanos = intervalMillis * 1000000L;
+	}
+
+	/** Sets the layout of the gates of the next synthesis
+	 *	Without a plan, one is made for the heap and temp directory when the synthesis starts.
+	 *
+	 * @param plan A plan from a MemoryPlanner for the function and algorithm, made with checkpoints
+	 */
+	public void setPlan(MemoryPlanner.Plan plan) {
+		this.plan = plan;
+	}
+
+	/** Synthesizes the circuit for a table from the start, taking checkpoints as it goes
+	 * @param table The truth table of the reversible function.
+	 * @param algorithm One of OUTPUT_ALGORITHM, INPUT_ALGORITHM, BIDIRECTIONAL_ALGORITHM or AUTO_ALGORITHM.
+	 * @return The gates of the circuit that realizes the Boolean function.
+	 */
+	public GateList synthesize(PermutationTable table, int algorithm) throws UserInputException, IOException {
+		algorithm = AlgorithmSelector.resolve(FunctionSource.of(table.lines(), table::forward), algorithm);
+		if(algorithm == TransformationAlgorithms.CYCLE_ALGORITHM) {
+			// The cycle algorithm does not work row by row and is quick enough to need no checkpoints
+			return TransformationAlgorithms.synthesize(table, algorithm);
+		}
+		if(algorithm < TransformationAlgorithms.OUTPUT_ALGORITHM || algorithm > TransformationAlgorithms.BIDIRECTIONAL_ALGORITHM) {
+			throw new UserInputException("Error: Unknown algorithm " + algorithm + ".");
+		}
+		GateList shortcut = TransformationAlgorithms.shortcut(table, algorithm);
+		if(shortcut != null) {
+			return shortcut;
+		}
+		return run(table, algorithm, 0, createGates(table.lines(), algorithm, 16),
+					createGates(table.lines(), algorithm, 16));
+	}
+
+	/** Continues the synthesis saved in the checkpoint file
+	 *	The file is streamed into the table and the gate lists, checking its checksum as it is read.
+	 *
+	 * @param table An empty table with the number of lines given by linesOf for the checkpoint.
+	 * @return The gates of the circuit that realizes the Boolean function.
+	 */
+	public GateList resume(PermutationTable table) throws UserInputException, IOException {
+		int algorithm;
+		int next;
+		GateList inputGates = null;
+		GateList outputGates = null;
+		try(FileChannel channel = FileChannel.open(this.checkpointFile.toPath(), StandardOpenOption.READ)) {
+			CRC32 crc = new CRC32();
+			ByteBuffer bytes = ByteBuffer.allocate(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			if(channel.size() < 4 * HEADER_INTS) {
+				throw new UserInputException("File is not a synthesis checkpoint.");
+			}
+			read(channel, bytes, crc, 4 * HEADER_INTS);
+			if(bytes.getInt(0) != MAGIC || bytes.getInt(4) != VERSION) {
+				throw new UserInputException("File is not a synthesis checkpoint.");
+			}
+			algorithm = bytes.getInt(8);
+			int lines = bytes.getInt(12);
+			next = bytes.getInt(16);
+			int inputCount = bytes.getInt(20);
+			int outputCount = bytes.getInt(24);
+			if(lines < 1 || lines > 30 || next < 0 || next > (1 << lines) || inputCount < 0 || outputCount < 0 ||
+				channel.size() != checkpointBytes(lines, inputCount, outputCount)) {
+				throw new UserInputException("Checkpoint file is damaged.");
+			}
+			if(lines != table.lines()) {
+				throw new UserInputException("Checkpoint is for a function of " + lines + " inputs.");
+			}
+
+			int rows = (1 << lines);
+			for(int x = 0; x < rows; x += BUFFER_BYTES / 4) {
+				read(channel, bytes, crc, 4 * Math.min(rows - x, BUFFER_BYTES / 4));
+				table.loadRows(x, bytes.asIntBuffer());
+			}
+			inputGates = createGates(lines, algorithm, inputCount);
+			readGates(channel, bytes, crc, inputGates, inputCount);
+			outputGates = createGates(lines, algorithm, outputCount);
+			readGates(channel, bytes, crc, outputGates, outputCount);
+			read(channel, bytes, null, 8);
+			if(bytes.getLong(0) != crc.getValue()) {
+				throw new UserInputException("Checkpoint file is damaged.");
+			}
+			table.finishLoading();
+		} catch(UserInputException | IOException e) {
+			for(GateList gates : new GateList[] {inputGates, outputGates}) {
+				if(gates != null) {
+					gates.close();
+				}
+			}
+			throw e;
+		}
+		return run(table, algorithm, next, inputGates, outputGates);
+	}
+
+	/** Returns the number of inputs of the function saved in a checkpoint file
+	 * @param checkpointFile The checkpoint file
+	 */
+	public static int linesOf(File checkpointFile) throws UserInputException, IOException {
+		return readHeader(checkpointFile).getInt(12);
+	}
+
+	/** Returns the algorithm flag of the synthesis saved in a checkpoint file
+	 * @param checkpointFile The checkpoint file
+	 */
+	public static int algorithmOf(File checkpointFile) throws UserInputException, IOException {
+		return readHeader(checkpointFile).getInt(8);
+	}
+
+	/** Reads the header of a checkpoint file, checking that it is a checkpoint
+	 */
+	private static ByteBuffer readHeader(File checkpointFile) throws UserInputException, IOException {
+		try(FileChannel channel = FileChannel.open(checkpointFile.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(4 * HEADER_INTS).order(ByteOrder.LITTLE_ENDIAN);
+			if(channel.size() < 4 * HEADER_INTS) {
+				throw new UserInputException("File is not a synthesis checkpoint.");
+			}
+			read(channel, header, null, 4 * HEADER_INTS);
+			if(header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+				throw new UserInputException("File is not a synthesis checkpoint.");
+			}
+			return header;
+		}
+	}
+
+	/** Runs an algorithm from a row to the end of the table, taking checkpoints as it goes
+	 */
+	private GateList run(PermutationTable table, int algorithm, int start, GateList inputGates,
+	GateList outputGates) throws UserInputException, IOException {
+		int rows = table.rows();
+		long nextCheckpoint = System.nanoTime() + this.intervalNanos;
+		try {
+			for(int i = start; i < rows; i++) {
+				if(System.nanoTime() >= nextCheckpoint) {
+					checkpoint(table, algorithm, i, inputGates, outputGates);
+					nextCheckpoint = System.nanoTime() + this.intervalNanos;
+				}
+				TransformationAlgorithms.synthesizeRow(table, algorithm, inputGates, outputGates, i);
+			}
+			Files.deleteIfExists(this.checkpointFile.toPath());
+			inputGates.appendReversed(outputGates);
+		} catch(ArrayIndexOutOfBoundsException e) {
+			throw new UserInputException("Error: Entered function is not reversible.");
+		} catch(IllegalStateException e) {
+			// The circuit outgrew its list
+			throw new UserInputException(e.getMessage());
+		} catch(UncheckedIOException e) {
+			// A spilled list could not grow its file
+			throw new UserInputException(e.getMessage() + ": " + e.getCause().getMessage());
+		}
+		outputGates.close();
+		return inputGates;
+	}
+
+	/** Streams the state of the synthesis to a temporary file and renames it over the checkpoint file
+	 *	A checkpoint the disk has no room for, or whose write fails, is reported and not written, and
+	 *	the checkpoint on disk is kept.
+	 *
+	 * @param next The next row to be processed
+	 */
+	private void checkpoint(PermutationTable table, int algorithm, int next, GateList inputGates,
+	GateList outputGates) {
+		long length = checkpointBytes(table.lines(), inputGates.size(), outputGates.size());
+		File directory = this.checkpointFile.getAbsoluteFile().getParentFile();
+		long free = directory.getUsableSpace();
+		if(directory.isDirectory() && free < length) {
+			System.err.println("No checkpoint written at row " + next + ": it needs " + ((length >> 20) + 1) +
+								" MB and " + directory + " has " + (free >> 20) + " MB free");
+			return;
+		}
+
+		File temporary = new File(this.checkpointFile.getPath() + ".tmp");
+		CRC32 crc = new CRC32();
+		ByteBuffer bytes = ByteBuffer.allocate(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		try {
+			try(FileChannel channel = FileChannel.open(temporary.toPath(), StandardOpenOption.CREATE,
+							StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+				bytes.putInt(MAGIC).putInt(VERSION).putInt(algorithm).putInt(table.lines()).putInt(next)
+					.putInt(inputGates.size()).putInt(outputGates.size());
+				int rows = table.rows();
+				for(int x = 0; x < rows; x++) {
+					if(!bytes.hasRemaining()) {
+						flush(channel, bytes, crc);
+					}
+					bytes.putInt(table.forward(x));
+				}
+				for(GateList gates : new GateList[] {inputGates, outputGates}) {
+					for(int i = 0; i < gates.size(); i++) {
+						if(bytes.remaining() < 8) {
+							flush(channel, bytes, crc);
+						}
+						bytes.putInt(gates.controlLines(i)).putInt(gates.target(i));
+					}
+				}
+				flush(channel, bytes, crc);
+				bytes.putLong(crc.getValue());
+				bytes.flip();
+				while(bytes.hasRemaining()) {
+					channel.write(bytes);
+				}
+				channel.force(true);
+			}
+			Files.move(temporary.toPath(), this.checkpointFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+		} catch(IOException e) {
+			System.err.println("No checkpoint written at row " + next + ": " + e);
+			temporary.delete();
+		}
+	}
+
+	/** Returns the length in bytes of a checkpoint
+	 * @param lines The number of inputs to the Boolean function
+	 * @param inputCount The number of input gates
+	 * @param outputCount The number of output gates
+	 */
+	private static long checkpointBytes(int lines, int inputCount, int outputCount) {
+		return (4L * (HEADER_INTS + (1L << lines) + (2L * inputCount) + (2L * outputCount))) + 8;
+	}
+
+	/** Writes a buffer to a channel, adding its contents to a checksum
+	 */
+	private static void flush(FileChannel channel, ByteBuffer bytes, CRC32 crc) throws IOException {
+		bytes.flip();
+		crc.update(bytes.array(), 0, bytes.limit());
+		while(bytes.hasRemaining()) {
+			channel.write(bytes);
+		}
+		bytes.clear();
+	}
+
+	/** Reads a number of bytes from a channel into a buffer, adding them to a checksum
+	 * @param crc The checksum, or null to leave the bytes out of any checksum
+	 * @param length The number of bytes, at most the capacity of the buffer
+	 */
+	private static void read(FileChannel channel, ByteBuffer bytes, CRC32 crc, int length)
+	throws UserInputException, IOException {
+		bytes.clear();
+		bytes.limit(length);
+		while(bytes.hasRemaining()) {
+			if(channel.read(bytes) < 0) {
+				throw new UserInputException("Checkpoint file is damaged.");
+			}
+		}
+		bytes.flip();
+		if(crc != null) {
+			crc.update(bytes.array(), 0, length);
+		}
+	}
+
+	/** Reads gates from a channel into a list, adding them to a checksum
+	 * @param count The number of gates to read
+	 */
+	private static void readGates(FileChannel channel, ByteBuffer bytes, CRC32 crc, GateList gates, int count)
+	throws UserInputException, IOException {
+		for(int i = 0; i < count; i += BUFFER_BYTES / 8) {
+			int run = Math.min(count - i, BUFFER_BYTES / 8);
+			read(channel, bytes, crc, 8 * run);
+			for(int j = 0; j < run; j++) {
+				gates.add(bytes.getInt(), bytes.getInt());
+			}
+		}
+	}
+
+	/** Runs a synthesis with checkpoints from the command line
+	 *	Usage: java CheckpointedSynthesis [-algorithm output|input|bidirectional|cycle|auto] [-interval seconds]
+	 *	[-parallel rows] [-offheap megabytes] [-resume] specificationFile checkpointFile circuitFile. With -resume an
+	 *	existing checkpoint file is continued from instead of starting again; the specification is
+	 *	only read when there is no checkpoint. -parallel sets the number of rows from which gates are
+	 *	applied to the table in parallel. A generator such as hwb:26 or random:24:7 may be named in
+	 *	place of the specification file, so the function is computed straight into the table.
+	 *
+	 *	A generated function that needs no table, because it takes a shortcut or the algorithm is the
+	 *	cycle algorithm, is synthesized first. Otherwise, before anything is read, a MemoryPlanner
+	 *	chooses whether the table and gates are kept on the heap or in files in the temp directory,
+	 *	or rejects a function whose table is too large for the memory available. -offheap sets the
+	 *	megabytes of files that may be used, by default the free space of the temp directory.
+	 *
+	 * @param args The options and file names
+	 */
+	public static void main(String[] args) throws IOException {
+		int algorithm = TransformationAlgorithms.OUTPUT_ALGORITHM;
+		long intervalMillis = 60000;
+		boolean resume = false;
+		long offHeapBytes = -1;
+
+		int i = 0;
+		try {
+			for(; i < args.length && args[i].startsWith("-"); i++) {
+				switch(args[i]) {
+					case "-algorithm":
+						algorithm = TransformationAlgorithms.algorithmNamed(args[++i]);
+						break;
+					case "-interval":
+						intervalMillis = (long) (1000 * Double.parseDouble(args[++i]));
+						break;
+					case "-parallel":
+						PermutationTable.setParallelThreshold(Integer.parseInt(args[++i]));
+						break;
+					case "-offheap":
+						offHeapBytes = Long.parseLong(args[++i]) << 20;
+						break;
+					case "-resume":
+						resume = true;
+						break;
+					default:
+						throw new IllegalArgumentException("Unknown option " + args[i]);
+				}
+			}
+			if(args.length - i != 3) {
+				throw new IllegalArgumentException("Expected a specification file or generator, a checkpoint file and a circuit file");
+			}
+		} catch(UserInputException | RuntimeException e) {
+			System.err.println(e.getMessage());
+			System.err.println("Usage: java CheckpointedSynthesis [-algorithm output|input|bidirectional|cycle|auto] " +
+								"[-interval seconds] [-parallel rows] [-offheap megabytes] [-resume] (specificationFile | family:lines) " +
+								"checkpointFile circuitFile");
+			System.exit(2);
+		}
+
+		File checkpointFile = new File(args[i + 1]);
+		String circuitFile = args[i + 2];
+		CheckpointedSynthesis synthesis = new CheckpointedSynthesis(checkpointFile, intervalMillis);
+		MemoryPlanner planner = MemoryPlanner.available(null);
+		if(offHeapBytes >= 0) {
+			planner = new MemoryPlanner(planner.heapBudget(), offHeapBytes, null);
+		}
+		PermutationTable table = null;
+		try {
+			CircuitWriter.formatOf(circuitFile);
+			GateList gates;
+			if(resume && checkpointFile.exists()) {
+				// The checkpoint is streamed into the table, so nothing but the table is held for it
+				MemoryPlanner.Plan plan = planner.plan(linesOf(checkpointFile), algorithmOf(checkpointFile), false, true);
+				System.err.println("Planned " + plan);
+				synthesis.setPlan(plan);
+				table = plan.createTable();
+				gates = synthesis.resume(table);
+			} else {
+				// Affine functions, functions made of parts and the cycle algorithm need no table, so a
+				// generated function is tried without one before any memory is planned
+				FunctionSource source = FunctionSource.named(args[i]);
+				boolean specification = (source == null);
+				gates = specification ? null : synthesizeWithoutTable(source, algorithm);
+				if(gates == null) {
+					MemoryPlanner.Plan plan = planner.plan(specification ? SpecificationReader.linesOf(args[i]) : source.lines(),
+															algorithm, specification, true);
+					System.err.println("Planned " + plan);
+					synthesis.setPlan(plan);
+					if(specification) {
+						source = FunctionSource.of(SpecificationReader.read(args[i]));
+						gates = synthesizeWithoutTable(source, algorithm);
+					}
+					if(gates == null) {
+						table = plan.createTable();
+						table.load(source);
+						gates = synthesis.synthesize(table, algorithm);
+					}
+				}
+			}
+			CircuitWriter.write(circuitFile, gates);
+			System.err.println("Wrote " + gates.size() + " gates to " + circuitFile);
+			gates.close();
+		} catch(UserInputException e) {
+			System.err.println(e.getMessage());
+			System.exit(1);
+		} finally {
+			if(table != null) {
+				table.close();
+			}
+		}
+	}
+
+	/** Synthesizes a function without a table if it has a shortcut or the algorithm is the cycle algorithm
+	 * @param source The reversible function.
+	 * @param algorithm One of the algorithm flags.
+	 * @return The gates of the circuit, or null if the algorithm needs a table
+	 */
+	private static GateList synthesizeWithoutTable(FunctionSource source, int algorithm) throws UserInputException {
+		return TransformationAlgorithms.synthesizeWithoutTable(source, AlgorithmSelector.resolve(source, algorithm));
+	}
+
+	/** Creates a list for the gates of a function, laid out as planned
+	 *	Functions too large for their table to be kept on the heap can have tens of millions of gates,
+	 *	which the plan spills to a file.
+	 *
+	 * @param lines The number of inputs to the Boolean function
+	 * @param algorithm One of the algorithm flags.
+	 * @param capacity The number of gates to make room for on the heap
+	 */
+	private GateList createGates(int lines, int algorithm, int capacity) throws UserInputException, IOException {
+		if(this.plan == null) {
+			this.plan = MemoryPlanner.available(null).plan(lines, algorithm, false, true);
+		}
+		return this.plan.createGates(capacity);
+	}
+}
@@ -0,0 +1,262 @@
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+/** Reads circuits written in the RevLib .real and .tfc formats.
+ *	The reader accepts circuits made of multiple-control Toffoli gates, which includes everything
+ *	written by CircuitWriter. The stream is read in blocks, each line of the file is copied into a
+ *	reused byte array, and the gates are matched against the variable names byte by byte, so reading
+ *	a gate creates no objects. The first variable listed is taken as the most significant line of
+ *	the circuit, matching the order CircuitWriter uses.
+ *
+ * @author ian (ianH92)
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+public class CircuitReader {
+	private final InputStream in;
+	private final byte[] block = new byte[1 << 16];
+	private int blockPosition = 0;
+	private int blockLength = 0;
+	private byte[] line = new byte[256];
+	private int length = 0;
+	private int lineNumber = 0;
+
+	private byte[][] names = null;
+	private GateList gates = null;
+
+	/** Creates a reader over a stream
+	 *	The reader reads the stream in blocks of its own, so the stream does not need to be buffered.
+	 * @param in The stream to read from
+	 */
+	public CircuitReader(InputStream in) {
+		this.in = in;
+	}
+
+	/** Reads a circuit file
+	 * @param fileName The name of the file including its extension
+	 * @return The gates of the circuit
+	 */
+	public static GateList read(String fileName) throws UserInputException {
+		try(InputStream in = new FileInputStream(fileName)) {
+			return new CircuitReader(in).read();
+		} catch(FileNotFoundException e) {
+			throw new UserInputException("File name entered was not found in directory.");
+		} catch(IOException e) {
+			throw new UserInputException("File could not be read: " + e.getMessage());
+		}
+	}
+
+	/** Reads a circuit from the stream
+	 * @return The gates of the circuit
+	 */
+	public GateList read() throws UserInputException, IOException {
+		boolean begun = false;
+
+		while(nextLine()) {
+			int start = skipSpaces(0);
+			if(start == this.length || this.line[start] == '#') {
+				continue;
+			}
+			int end = tokenEnd(start);
+
+			if(!begun) {
+				if(matches(start, end, ".variables") || matches(start, end, ".v")) {
+					readVariables(end);
+				} else if(matches(start, end, ".begin") || matches(start, end, "BEGIN")) {
+					if(this.names == null) {
+						throw error("the circuit has no variables");
+					}
+					this.gates = new GateList(this.names.length);
+					begun = true;
+				} else if(this.line[start] != '.') {
+					throw error("unexpected text before the start of the circuit");
+				}
+				// Other header lines such as .numvars, .inputs and .garbage do not affect the gates
+			} else if(matches(start, end, ".end") || matches(start, end, "END")) {
+				return this.gates;
+			} else {
+				readGate(start, end);
+			}
+		}
+		throw error("the circuit does not end with .end or END");
+	}
+
+	/** Reads the variable names listed after the first token of the current line
+	 * @param position The position just after the first token
+	 */
+	private void readVariables(int position) throws UserInputException {
+		ArrayList<byte[]> found = new ArrayList<>();
+		int start = skipSeparators(position);
+		while(start < this.length) {
+			int end = nameEnd(start);
+			byte[] name = new byte[end - start];
+			System.arraycopy(this.line, start, name, 0, name.length);
+			found.add(name);
+			start = skipSeparators(end);
+		}
+		if(found.isEmpty() || found.size() > 30) {
+			throw error("a circuit must have between 1 and 30 variables");
+		}
+		this.names = found.toArray(new byte[found.size()][]);
+	}
+
+	/** Reads a Toffoli gate from the current line and adds it to the circuit
+	 * @param start The position of the gate type
+	 * @param end The position just after the gate type
+	 */
+	private void readGate(int start, int end) throws UserInputException {
+		if(this.line[start] != 't' && this.line[start] != 'T') {
+			throw error("only Toffoli gates are supported");
+		}
+
+		int size = 0;
+		for(int i = start + 1; i < end; i++) {
+			byte c = this.line[i];
+			if(c < '0' || c > '9') {
+				throw error("the size of the gate is not a number");
+			}
+			size = (size * 10) + (c - '0');
+		}
+
+		int controlLines = 0;
+		int target = 0;
+		int count = 0;
+		int position = skipSeparators(end);
+		while(position < this.length) {
+			int nameEnd = nameEnd(position);
+			int bit = lookup(position, nameEnd);
+			if(count > 0) {
+				controlLines |= target;
+			}
+			target = (1 << bit);
+			count++;
+			position = skipSeparators(nameEnd);
+		}
+
+		if(count == 0 || (end > start + 1 && count != size)) {
+			throw error("the gate does not have the number of lines its size gives");
+		}
+		if((controlLines & target) != 0 || Integer.bitCount(controlLines) != count - 1) {
+			throw error("a line is used more than once in the gate");
+		}
+		this.gates.add(controlLines, target);
+	}
+
+	/** Finds the line of the variable named by a range of the current line
+	 * @return The line, where the last variable listed is line 0
+	 */
+	private int lookup(int start, int end) throws UserInputException {
+		int nameLength = end - start;
+		if(this.line[start] == '-' || this.line[end - 1] == '\'') {
+			throw error("negative controls are not supported");
+		}
+		for(int k = 0; k < this.names.length; k++) {
+			byte[] name = this.names[k];
+			if(name.length != nameLength) {
+				continue;
+			}
+			int i = 0;
+			while(i < nameLength && name[i] == this.line[start + i]) {
+				i++;
+			}
+			if(i == nameLength) {
+				return this.names.length - 1 - k;
+			}
+		}
+		throw error("unknown variable " + new String(this.line, start, nameLength, StandardCharsets.US_ASCII));
+	}
+
+	/** Reads the next line of the stream into the line buffer
+	 * @return False if the end of the stream was reached before any characters
+	 */
+	private boolean nextLine() throws IOException {
+		this.length = 0;
+		boolean any = false;
+		while(true) {
+			if(this.blockPosition == this.blockLength) {
+				this.blockLength = this.in.read(this.block, 0, this.block.length);
+				this.blockPosition = 0;
+				if(this.blockLength <= 0) {
+					this.blockLength = 0;
+					break;
+				}
+			}
+			any = true;
+			byte c = this.block[this.blockPosition++];
+			if(c == '\n') {
+				break;
+			}
+			if(c != '\r') {
+				if(this.length == this.line.length) {
+					this.line = java.util.Arrays.copyOf(this.line, 2 * this.line.length);
+				}
+				this.line[this.length++] = c;
+			}
+		}
+		if(any) {
+			this.lineNumber++;
+		}
+		return any;
+	}
+
+	private int skipSpaces(int position) {
+		while(position < this.length && (this.line[position] == ' ' || this.line[position] == '\t')) {
+			position++;
+		}
+		return position;
+	}
+
+	private int skipSeparators(int position) {
+		while(position < this.length && isSeparator(this.line[position])) {
+			position++;
+		}
+		// A comment ends the line
+		if(position < this.length && this.line[position] == '#') {
+			return this.length;
+		}
+		return position;
+	}
+
+	private int tokenEnd(int position) {
+		while(position < this.length && this.line[position] != ' ' && this.line[position] != '\t') {
+			position++;
+		}
+		return position;
+	}
+
+	private int nameEnd(int position) {
+		while(position < this.length && !isSeparator(this.line[position]) && this.line[position] != '#') {
+			position++;
+		}
+		return position;
+	}
+
+	private static boolean isSeparator(byte c) {
+		return c == ' ' || c == '\t' || c == ',';
+	}
+
+	/** Checks whether a range of the current line holds the keyword given
+	 */
+	private boolean matches(int start, int end, String keyword) {
+		if(end - start != keyword.length()) {
+			return false;
+		}
+		for(int i = 0; i < keyword.length(); i++) {
+			if(this.line[start + i] != keyword.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/** Creates the exception for a problem on the current line
+	 * @param problem A description of the problem
+	 */
+	private UserInputException error(String problem) {
+		return new UserInputException("Circuit file is not valid at line " + this.lineNumber + ": " + problem + ".");
+	}
+}
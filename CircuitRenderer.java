@@ -0,0 +1,361 @@
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/** Draws circuits to SVG and PNG files without a display, for circuits synthesized in batches.
+ *	The drawings follow the conventions of the circuit view: each gate has its own column, a target
+ *	is a ring with a cross, a control is a dot, and the symbols of a gate are joined by a vertical
+ *	line unless the gate only has targets at its ends. Lines are labelled a to z as in the program.
+ *
+ *	SVG is streamed straight to the file one gate at a time, with the symbols defined once and
+ *	placed by reference. PNG is drawn as strips of a fixed number of gates, one file per strip,
+ *	reusing a single image, so both need the same memory however long the circuit is. The symbols
+ *	are drawn once and copied into each strip, and the strips are encoded as 8-bit grey PNG with the
+ *	fastest deflate level, which for line drawings is several times faster than ImageIO and barely
+ *	larger. Gates are read by position from the GateList, so circuits spilled to a file are drawn
+ *	without being brought back onto the heap.
+ *
+ * @author ian (ianH92)
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+public class CircuitRenderer {
+	// The layout of the circuit, the same as the circuit view at a zoom of 1.0
+	private static final int GATE_SEPARATION = 50;
+	private static final int VERTICAL_PADDING = 30;
+	private static final int HORIZONTAL_PADDING = 50;
+	private static final int LINE_SEPARATION = 30;
+	// The width and height of the square each PNG symbol is drawn on
+	private static final int SYMBOL_SIZE = 24;
+
+	private static final String[] LABELS = {"a", "b", "c", "d", "e", "f", "g", "h", "i", "j", "k", "l", "m",
+											"n", "o", "p", "q", "r", "s", "t", "u", "v", "w", "x", "y", "z"};
+
+	/** Writes a circuit as an SVG image
+	 * @param gates The gates of the circuit
+	 * @param out The writer the image is written to; it is not closed
+	 */
+	public static void writeSvg(GateList gates, Writer out) throws IOException {
+		int lines = gates.lines();
+		int count = gates.size();
+		int lineLength = (count + 1) * GATE_SEPARATION;
+		int width = lineLength + (2 * HORIZONTAL_PADDING);
+		int height = (lines * LINE_SEPARATION) + 50;
+
+		out.write("<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\" " +
+					"width=\"" + width + "\" height=\"" + height + "\" font-family=\"sans-serif\" font-size=\"12\">\n");
+		out.write("<defs><g id=\"t\"><circle r=\"9\" fill=\"white\" stroke=\"black\" stroke-width=\"2\"/>" +
+					"<path d=\"M-8 0H8M0 -8V8\" stroke=\"black\"/></g>" +
+					"<circle id=\"c\" r=\"5\" fill=\"black\"/></defs>\n");
+		out.write("<rect width=\"100%\" height=\"100%\" fill=\"white\"/>\n");
+		for(int j = 0; j < lines; j++) {
+			int y = VERTICAL_PADDING + (j * LINE_SEPARATION);
+			String label = LABELS[j % LABELS.length];
+			out.write("<path d=\"M" + HORIZONTAL_PADDING + " " + y + "h" + lineLength + "\" stroke=\"black\"/>" +
+						"<text x=\"" + (HORIZONTAL_PADDING - 15) + "\" y=\"" + y + "\">" + label + "</text>" +
+						"<text x=\"" + (HORIZONTAL_PADDING + lineLength + 15) + "\" y=\"" + y + "\">" + label +
+						"\u2070</text>\n");
+		}
+
+		StringBuilder gate = new StringBuilder(256);
+		for(int i = 0; i < count; i++) {
+			int x = HORIZONTAL_PADDING + ((i + 1) * GATE_SEPARATION);
+			int controlLines = gates.controlLines(i);
+			int target = gates.target(i);
+			gate.setLength(0);
+			if(joined(controlLines, target)) {
+				gate.append("<path d=\"M").append(x).append(' ').append(lineY(first(controlLines | target)))
+					.append('V').append(lineY(last(controlLines | target))).append("\" stroke=\"black\"/>");
+			}
+			for(int bits = controlLines | target; bits != 0; bits &= (bits - 1)) {
+				int j = Integer.numberOfTrailingZeros(bits);
+				gate.append("<use xlink:href=\"#").append(((target & (1 << j)) != 0) ? 't' : 'c')
+					.append("\" x=\"").append(x).append("\" y=\"").append(lineY(j)).append("\"/>");
+			}
+			gate.append('\n');
+			out.append(gate);
+		}
+		out.write("</svg>\n");
+	}
+
+	/** Writes a circuit as an SVG file
+	 * @param gates The gates of the circuit
+	 * @param file The file to write
+	 */
+	public static void writeSvg(GateList gates, File file) throws IOException {
+		try(Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file),
+																	StandardCharsets.UTF_8), 1 << 16)) {
+			writeSvg(gates, out);
+		}
+	}
+
+	/** Writes a circuit as PNG strips of a fixed number of gates
+	 *	Strip k holds gates k * stripGates onwards and is written to prefix-k.png. Every strip is the
+	 *	same size, so one image is drawn over for each strip.
+	 *
+	 * @param gates The gates of the circuit
+	 * @param directory The directory the strips are written to
+	 * @param prefix The start of the name of each strip file
+	 * @param stripGates The number of gates in each strip
+	 * @return The number of strips written
+	 */
+	public static int writePng(GateList gates, File directory, String prefix, int stripGates) throws IOException {
+		int lines = gates.lines();
+		int count = gates.size();
+		int lineLength = (stripGates + 1) * GATE_SEPARATION;
+		BufferedImage image = new BufferedImage(lineLength + (2 * HORIZONTAL_PADDING),
+												(lines * LINE_SEPARATION) + 50, BufferedImage.TYPE_BYTE_GRAY);
+		Graphics2D g = image.createGraphics();
+		g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 12));
+		BufferedImage targetSymbol = symbol(true);
+		BufferedImage controlSymbol = symbol(false);
+
+		int strips = Math.max(1, ((count - 1) / stripGates) + 1);
+		try {
+			for(int strip = 0; strip < strips; strip++) {
+				g.setColor(Color.WHITE);
+				g.fillRect(0, 0, image.getWidth(), image.getHeight());
+				g.setColor(Color.BLACK);
+				for(int j = 0; j < lines; j++) {
+					int y = lineY(j);
+					String label = LABELS[j % LABELS.length];
+					g.drawLine(HORIZONTAL_PADDING, y, HORIZONTAL_PADDING + lineLength, y);
+					g.drawString(label, HORIZONTAL_PADDING - 15, y);
+					g.drawString(label + "\u2070", HORIZONTAL_PADDING + lineLength + 15, y);
+				}
+
+				int first = strip * stripGates;
+				int last = Math.min(count, first + stripGates);
+				for(int i = first; i < last; i++) {
+					int x = HORIZONTAL_PADDING + ((i - first + 1) * GATE_SEPARATION);
+					drawGate(g, x, gates.controlLines(i), gates.target(i), targetSymbol, controlSymbol);
+				}
+				writeGrayPng(image, new File(directory, prefix + "-" + strip + ".png"));
+			}
+		} finally {
+			g.dispose();
+		}
+		return strips;
+	}
+
+	/** Draws a gate with the same symbols as the circuit view
+	 * @param x The x-coordinate of the gate
+	 */
+	private static void drawGate(Graphics2D g, int x, int controlLines, int target, BufferedImage targetSymbol,
+	BufferedImage controlSymbol) {
+		if(joined(controlLines, target)) {
+			g.drawLine(x, lineY(first(controlLines | target)), x, lineY(last(controlLines | target)));
+		}
+		for(int bits = controlLines | target; bits != 0; bits &= (bits - 1)) {
+			int j = Integer.numberOfTrailingZeros(bits);
+			BufferedImage symbol = ((target & (1 << j)) != 0) ? targetSymbol : controlSymbol;
+			g.drawImage(symbol, x - SYMBOL_SIZE / 2, lineY(j) - SYMBOL_SIZE / 2, null);
+		}
+	}
+
+	/** Draws a target or control symbol, smoothed, on a transparent square
+	 * @param target True for a target symbol, false for a control symbol
+	 */
+	private static BufferedImage symbol(boolean target) {
+		BufferedImage image = new BufferedImage(SYMBOL_SIZE, SYMBOL_SIZE, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = image.createGraphics();
+		g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		int c = SYMBOL_SIZE / 2;
+		g.setColor(Color.BLACK);
+		if(target) {
+			g.fillOval(c - 10, c - 10, 20, 20);
+			g.setColor(Color.WHITE);
+			g.fillOval(c - 8, c - 8, 16, 16);
+			g.setColor(Color.BLACK);
+			g.drawLine(c - 8, c, c + 8, c);
+			g.drawLine(c, c - 8, c, c + 8);
+		} else {
+			g.fillOval(c - 5, c - 5, 10, 10);
+		}
+		g.dispose();
+		return image;
+	}
+
+	/** Writes an 8-bit grey image as a PNG file
+	 *	Each row is filtered by its difference from the row above, which turns the long runs of the
+	 *	lines and the repeated symbols into zeros, and is deflated at the fastest level.
+	 *
+	 * @param image An image of type TYPE_BYTE_GRAY
+	 * @param file The file to write
+	 */
+	static void writeGrayPng(BufferedImage image, File file) throws IOException {
+		int width = image.getWidth();
+		int height = image.getHeight();
+		byte[] pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+
+		try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+			out.write(new byte[] {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'});
+			ChunkStream header = new ChunkStream(out, "IHDR");
+			DataOutputStream headerData = new DataOutputStream(header);
+			headerData.writeInt(width);
+			headerData.writeInt(height);
+			// 8 bits per pixel, grey, deflate, adaptive filtering, not interlaced
+			headerData.write(new byte[] {8, 0, 0, 0, 0});
+			header.close();
+
+			ChunkStream data = new ChunkStream(out, "IDAT");
+			Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+			try(DeflaterOutputStream deflated = new DeflaterOutputStream(data, deflater, 1 << 16)) {
+				byte[] row = new byte[width + 1];
+				for(int y = 0; y < height; y++) {
+					int start = y * width;
+					// Filter type 2 is the difference from the row above; the first row is left as it is
+					row[0] = (byte) ((y == 0) ? 0 : 2);
+					for(int x = 0; x < width; x++) {
+						row[x + 1] = (byte) (pixels[start + x] - ((y == 0) ? 0 : pixels[start - width + x]));
+					}
+					deflated.write(row);
+				}
+			} finally {
+				deflater.end();
+			}
+			new ChunkStream(out, "IEND").close();
+		}
+	}
+
+	/** Collects the data of a PNG chunk and writes it with its length, type and CRC when closed
+	 *	The chunks of a strip hold at most a few megabytes, so each is gathered in memory.
+	 */
+	private static class ChunkStream extends ByteArrayOutputStream {
+		private final DataOutputStream out;
+		private final byte[] type;
+
+		ChunkStream(DataOutputStream out, String type) {
+			super(1 << 16);
+			this.out = out;
+			this.type = type.getBytes(StandardCharsets.US_ASCII);
+		}
+
+		@Override
+		public void close() throws IOException {
+			CRC32 crc = new CRC32();
+			crc.update(this.type);
+			crc.update(this.buf, 0, this.count);
+			this.out.writeInt(this.count);
+			this.out.write(this.type);
+			this.out.write(this.buf, 0, this.count);
+			this.out.writeInt((int) crc.getValue());
+		}
+	}
+
+	/** Checks whether the symbols of a gate are joined by a vertical line
+	 *	They are unless the gate has a single symbol or only has targets at its ends.
+	 */
+	private static boolean joined(int controlLines, int target) {
+		int lines = controlLines | target;
+		if(Integer.bitCount(lines) < 2) {
+			return false;
+		}
+		return (target & (1 << first(lines))) == 0 || (target & (1 << last(lines))) == 0;
+	}
+
+	/** Returns the first line of a mask of lines */
+	private static int first(int lines) {
+		return Integer.numberOfTrailingZeros(lines);
+	}
+
+	/** Returns the last line of a mask of lines */
+	private static int last(int lines) {
+		return 31 - Integer.numberOfLeadingZeros(lines);
+	}
+
+	/** Returns the y-coordinate of a line
+	 */
+	private static int lineY(int line) {
+		return VERTICAL_PADDING + (line * LINE_SEPARATION);
+	}
+
+	/** Draws circuit files from the command line
+	 *	Usage: java CircuitRenderer [-png gatesPerStrip] outputDirectory (circuitFile | directory)...
+	 *	Each circuit is written to the output directory as name.svg, or as name-0.png, name-1.png and
+	 *	so on with -png.
+	 *
+	 * @param args The options, the output directory and the circuit files or directories
+	 */
+	public static void main(String[] args) {
+		System.setProperty("java.awt.headless", "true");
+		int stripGates = 0;
+		int i = 0;
+		try {
+			for(; i < args.length && args[i].startsWith("-"); i += 2) {
+				switch(args[i]) {
+					case "-png":
+						stripGates = Integer.parseInt(args[i + 1]);
+						if(stripGates < 1) {
+							throw new IllegalArgumentException("Strips must hold at least 1 gate");
+						}
+						break;
+					default:
+						throw new IllegalArgumentException("Unknown option " + args[i]);
+				}
+			}
+			if(i >= args.length - 1) {
+				throw new IllegalArgumentException("Expected an output directory and circuit files");
+			}
+		} catch(RuntimeException e) {
+			System.err.println(e.getMessage());
+			System.err.println("Usage: java CircuitRenderer [-png gatesPerStrip] outputDirectory (circuitFile | directory)...");
+			System.exit(2);
+		}
+
+		File outputDirectory = new File(args[i]);
+		outputDirectory.mkdirs();
+		List<File> files = new ArrayList<>();
+		for(i++; i < args.length; i++) {
+			File file = new File(args[i]);
+			File[] contents = file.listFiles();
+			if(contents == null) {
+				files.add(file);
+			} else {
+				Arrays.sort(contents);
+				for(File content : contents) {
+					if(content.isFile()) {
+						files.add(content);
+					}
+				}
+			}
+		}
+
+		int failed = 0;
+		for(File file : files) {
+			String name = file.getName();
+			name = (name.lastIndexOf('.') > 0) ? name.substring(0, name.lastIndexOf('.')) : name;
+			try {
+				GateList gates = CircuitReader.read(file.getPath());
+				if(stripGates > 0) {
+					writePng(gates, outputDirectory, name, stripGates);
+				} else {
+					writeSvg(gates, new File(outputDirectory, name + ".svg"));
+				}
+			} catch(UserInputException | IOException e) {
+				System.err.println(file + ": " + e.getMessage());
+				failed++;
+			}
+		}
+		System.exit((failed == 0) ? 0 : 1);
+	}
+}
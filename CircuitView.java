@@ -0,0 +1,492 @@
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.geometry.Orientation;
+import java.util.HashMap;
+
+/** A zoomable display of a circuit that draws with a level of detail suited to the zoom.
+ *	The view only ever draws the part of the circuit that is inside the viewport, so the cost of a
+ *	redraw does not depend on the length of the circuit. Gates are scheduled into layers of gates on
+ *	disjoint lines, and each layer shares a single column, so the circuit is as wide as it is deep.
+ *	When zoomed in far enough for the gates to be told apart each gate is drawn with the usual
+ *	target and control symbols. When zoomed out the layers are aggregated into columns and each
+ *	line in a column is shaded by how many of the layers in that column touch the line. The
+ *	density columns are computed once from the gate array for each zoom level and cached. A minimap
+ *	of the whole circuit below the display shows which part of the circuit is being viewed and can
+ *	be clicked to jump to another part.
+ *
+ *	Scrolling the mouse wheel pans the circuit, scrolling with the control key held zooms in and out
+ *	around the mouse, and the circuit can also be dragged with the mouse.
+ *
+ * @author ian (ianH92)
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+public class CircuitView extends Pane {
+	// The layout of the circuit at a zoom of 1.0
+	private static final double GATE_SEPARATION = 50.0;
+	private static final double VERTICAL_PADDING = 30.0;
+	private static final double HORIZONTAL_PADDING = 50.0;
+	private static final double LINE_SEPARATION = 30.0;
+	private static final double MINIMAP_HEIGHT = 40.0;
+
+	// Below this many pixels between gates the gates are drawn as density columns
+	private static final double MIN_GLYPH_SEPARATION = 12.0;
+	// The narrowest a density column is allowed to be in pixels
+	private static final double MIN_COLUMN_WIDTH = 3.0;
+	private static final double MAX_ZOOM = 4.0;
+	private static final double ZOOM_STEP = 1.25;
+
+	private final String[] labels;
+	private final Canvas canvas = new Canvas();
+	private final Canvas minimap = new Canvas();
+	private final ScrollBar scrollBar = new ScrollBar();
+
+	private GateList gates;
+	private GateLayers layers;
+	private int numberOfGates = 0;
+	private int numberOfColumns = 0;
+	private int numberOfInputs = 3;
+	private double zoom = 1.0;
+	private double dragStartX;
+	private double dragStartValue;
+
+	// Density columns keyed by the number of layers aggregated into each column
+	private final HashMap<Integer, int[]> densityCache = new HashMap<>();
+
+	/** Creates an empty circuit view
+	 * @param labels The labels to give the lines of the circuit
+	 */
+	public CircuitView(String[] labels) {
+		this.labels = labels;
+		this.scrollBar.setOrientation(Orientation.HORIZONTAL);
+		this.scrollBar.valueProperty().addListener((o, oldValue, newValue) -> redraw());
+		getChildren().addAll(this.canvas, this.minimap, this.scrollBar);
+
+		this.canvas.setOnScroll(e -> {
+			if(e.isControlDown()) {
+				double factor = (e.getDeltaY() > 0) ? ZOOM_STEP : (1.0 / ZOOM_STEP);
+				zoomAround(this.zoom * factor, e.getX());
+			} else {
+				double delta = (e.getDeltaX() != 0) ? e.getDeltaX() : e.getDeltaY();
+				setOffset(this.scrollBar.getValue() - delta);
+			}
+			e.consume();
+		});
+		this.canvas.setOnMousePressed(e -> {
+			this.dragStartX = e.getX();
+			this.dragStartValue = this.scrollBar.getValue();
+		});
+		this.canvas.setOnMouseDragged(e -> {
+			setOffset(this.dragStartValue - (e.getX() - this.dragStartX));
+		});
+		this.minimap.setOnMousePressed(e -> centerOnMinimap(e.getX()));
+		this.minimap.setOnMouseDragged(e -> centerOnMinimap(e.getX()));
+
+		setGates(null, 3);
+	}
+
+	/** Sets the circuit displayed by the view
+	 *	The view is reset to a zoom of 1.0 and scrolled to the start of the circuit.
+	 * @param gates The gates to be displayed, or null for no circuit
+	 * @param numberOfInputs The number of lines in the circuit
+	 */
+	public void setGates(GateList gates, int numberOfInputs) {
+		this.gates = gates;
+		this.densityCache.clear();
+		this.zoom = 1.0;
+		this.numberOfGates = (gates == null) ? 0 : gates.size();
+		this.numberOfInputs = numberOfInputs;
+		this.layers = (gates == null) ? null : new GateLayers(gates, true);
+		this.numberOfColumns = (gates == null) ? 0 : this.layers.depth();
+
+		double height = circuitHeight() + MINIMAP_HEIGHT + this.scrollBar.prefHeight(-1);
+		setMinHeight(height);
+		setPrefHeight(height);
+		this.scrollBar.setValue(0);
+		updateScrollBar();
+		requestLayout();
+		redraw();
+	}
+
+	/** Returns the depth of the circuit displayed, the number of layers of gates on disjoint lines
+	 */
+	public int depth() {
+		return this.numberOfColumns;
+	}
+
+	/** Zooms in on the centre of the view
+	 */
+	public void zoomIn() {
+		zoomAround(this.zoom * ZOOM_STEP, getWidth() / 2.0);
+	}
+
+	/** Zooms out from the centre of the view
+	 */
+	public void zoomOut() {
+		zoomAround(this.zoom / ZOOM_STEP, getWidth() / 2.0);
+	}
+
+	/** Lays out the display, the minimap and the scroll bar and redraws the circuit
+	 */
+	@Override
+	protected void layoutChildren() {
+		double width = getWidth();
+		double barHeight = this.scrollBar.prefHeight(-1);
+		double height = Math.max(circuitHeight(), getHeight() - MINIMAP_HEIGHT - barHeight);
+
+		this.canvas.setWidth(width);
+		this.canvas.setHeight(height);
+		this.canvas.relocate(0, 0);
+		this.minimap.setWidth(width);
+		this.minimap.setHeight(MINIMAP_HEIGHT);
+		this.minimap.relocate(0, height);
+		this.scrollBar.resizeRelocate(0, height + MINIMAP_HEIGHT, width, barHeight);
+
+		updateScrollBar();
+		redraw();
+	}
+
+	/** Calculates the height needed to draw all the lines of the circuit
+	 */
+	private double circuitHeight() {
+		return (this.numberOfInputs * LINE_SEPARATION) + 50.0;
+	}
+
+	/** Calculates the distance between gates at the current zoom
+	 */
+	private double gateSeparation() {
+		return GATE_SEPARATION * this.zoom;
+	}
+
+	/** Calculates the length of the lines at the current zoom
+	 */
+	private double lineLength() {
+		if(this.numberOfGates == 0) {
+			return Math.max(0.0, getWidth() - (VERTICAL_PADDING * 3));
+		}
+		return (this.numberOfColumns + 1) * gateSeparation();
+	}
+
+	/** Updates the range of the scroll bar to match the length of the circuit at the current zoom
+	 */
+	private void updateScrollBar() {
+		double viewWidth = Math.max(1.0, getWidth());
+		double max = Math.max(0.0, lineLength() + (2 * HORIZONTAL_PADDING) - viewWidth);
+		this.scrollBar.setMin(0);
+		this.scrollBar.setMax(max);
+		this.scrollBar.setVisibleAmount(Math.min(max, viewWidth));
+		this.scrollBar.setUnitIncrement(gateSeparation());
+		this.scrollBar.setBlockIncrement(viewWidth);
+		if(this.scrollBar.getValue() > max) {
+			this.scrollBar.setValue(max);
+		}
+	}
+
+	/** Scrolls the view so that its left edge is at the offset given, clamped to the circuit
+	 * @param offset The distance in pixels from the left of the circuit
+	 */
+	private void setOffset(double offset) {
+		this.scrollBar.setValue(Math.max(0.0, Math.min(this.scrollBar.getMax(), offset)));
+	}
+
+	/** Changes the zoom while keeping the part of the circuit under the x-coordinate in place
+	 * @param newZoom The zoom to change to
+	 * @param x The x-coordinate in the view to keep in place
+	 */
+	private void zoomAround(double newZoom, double x) {
+		double minZoom = 1.0;
+		if(this.numberOfGates > 0) {
+			// Allow zooming out until the whole circuit fits in the view
+			minZoom = Math.min(1.0, Math.max(1.0, getWidth() - (2 * HORIZONTAL_PADDING)) /
+								((this.numberOfColumns + 1) * GATE_SEPARATION));
+		}
+		newZoom = Math.max(minZoom, Math.min(MAX_ZOOM, newZoom));
+		if(newZoom == this.zoom) {
+			return;
+		}
+
+		double position = (this.scrollBar.getValue() + x - HORIZONTAL_PADDING) / gateSeparation();
+		this.zoom = newZoom;
+		updateScrollBar();
+		setOffset((position * gateSeparation()) + HORIZONTAL_PADDING - x);
+		redraw();
+	}
+
+	/** Scrolls the view so that the part of the circuit under the minimap x-coordinate is centred
+	 * @param x The x-coordinate in the minimap
+	 */
+	private void centerOnMinimap(double x) {
+		double width = this.minimap.getWidth();
+		if(width <= 0 || this.numberOfGates == 0) {
+			return;
+		}
+		double fraction = Math.max(0.0, Math.min(1.0, x / width));
+		setOffset((fraction * lineLength()) + HORIZONTAL_PADDING - (getWidth() / 2.0));
+	}
+
+	/** Redraws the visible part of the circuit and the minimap
+	 */
+	private void redraw() {
+		GraphicsContext g = this.canvas.getGraphicsContext2D();
+		double width = this.canvas.getWidth();
+		double height = this.canvas.getHeight();
+		double offset = this.scrollBar.getValue();
+		double lineLength = lineLength();
+		g.clearRect(0, 0, width, height);
+
+		// Draw the lines and their labels
+		double hLeftPos = HORIZONTAL_PADDING - offset;
+		double vLeftPos = VERTICAL_PADDING;
+		for(int i = 0; i < this.numberOfInputs; i++) {
+			g.strokeLine(Math.max(hLeftPos, 0.0), vLeftPos, Math.min(hLeftPos + lineLength, width), vLeftPos);
+			g.setLineWidth(0.75);
+			g.strokeText(this.labels[i % this.labels.length], hLeftPos - 15.0, vLeftPos);
+			g.strokeText(this.labels[i % this.labels.length] + "\u2070", hLeftPos + lineLength + 15.0, vLeftPos);
+			g.setLineWidth(1.0);
+			vLeftPos += LINE_SEPARATION;
+		}
+
+		if(this.numberOfGates > 0) {
+			if(gateSeparation() >= MIN_GLYPH_SEPARATION) {
+				drawGates(g, offset, width);
+			} else {
+				drawDensity(g, offset, width);
+			}
+			g.setLineWidth(0.75);
+			g.strokeText(this.numberOfGates + " gates, depth " + this.numberOfColumns, 10.0, height - 10.0);
+			g.setLineWidth(1.0);
+		}
+		drawMinimap();
+	}
+
+	/** Draws the layers inside the viewport with the full symbols of their gates
+	 * @param g The GraphicsContext to draw with
+	 * @param offset The distance in pixels from the left of the circuit to the left of the view
+	 * @param width The width of the view
+	 */
+	private void drawGates(GraphicsContext g, double offset, double width) {
+		double separation = gateSeparation();
+		double scale = Math.min(1.0, this.zoom);
+		int first = Math.max(0, (int) Math.floor((offset - HORIZONTAL_PADDING) / separation) - 2);
+		int last = Math.min(this.numberOfColumns - 1,
+							(int) Math.ceil((offset + width - HORIZONTAL_PADDING) / separation));
+
+		for(int c = first; c <= last; c++) {
+			double hLeftPos = HORIZONTAL_PADDING + ((c + 1) * separation) - offset;
+			for(int k = 0; k < this.layers.layerSize(c); k++) {
+				int i = this.layers.gate(c, k);
+				drawGate(g, this.gates.controlLines(i), this.gates.target(i), hLeftPos, scale);
+			}
+		}
+	}
+
+	/** Draws the symbols of a gate and the line joining them
+	 * @param g The GraphicsContext to draw with
+	 * @param controlLines The control lines of the gate, one bit a line
+	 * @param target The target lines of the gate, one bit a line
+	 * @param hLeftPos The x-coordinate of the column of the gate
+	 * @param scale The size of the symbols relative to their size at a zoom of 1.0
+	 */
+	private void drawGate(GraphicsContext g, int controlLines, int target, double hLeftPos, double scale) {
+		double vLeftPos = VERTICAL_PADDING;
+
+		for(int j = 0; j < this.numberOfInputs; j++) {
+			if((target & (1 << j)) != 0) {
+				createTarget(g, hLeftPos, vLeftPos, scale);
+			} else if((controlLines & (1 << j)) != 0) {
+				createControl(g, hLeftPos, vLeftPos, scale);
+			}
+			vLeftPos += LINE_SEPARATION;
+		}
+
+		// Join the symbols with a line unless the gate only has targets at its ends
+		int used = controlLines | target;
+		if(used == 0) {
+			return;
+		}
+		int start = Integer.numberOfTrailingZeros(used);
+		int end = 31 - Integer.numberOfLeadingZeros(used);
+		if(start < end && ((target & (1 << start)) == 0 || (target & (1 << end)) == 0)) {
+			g.strokeLine(hLeftPos, VERTICAL_PADDING + (LINE_SEPARATION * start),
+						hLeftPos, VERTICAL_PADDING + (LINE_SEPARATION * end));
+		}
+	}
+
+	/** Draws the gates inside the viewport as columns shaded by how often each line is used
+	 * @param g The GraphicsContext to draw with
+	 * @param offset The distance in pixels from the left of the circuit to the left of the view
+	 * @param width The width of the view
+	 */
+	private void drawDensity(GraphicsContext g, double offset, double width) {
+		int layersPerColumn = layersPerColumn(gateSeparation(), MIN_COLUMN_WIDTH);
+		int[] density = densityColumns(layersPerColumn);
+		int columns = density.length / this.numberOfInputs;
+		double columnWidth = layersPerColumn * gateSeparation();
+		double barHeight = LINE_SEPARATION * 0.6;
+
+		// The first gate is drawn one gate separation from the start of the lines
+		double start = HORIZONTAL_PADDING + (gateSeparation() / 2.0) - offset;
+		int first = Math.max(0, (int) Math.floor(-start / columnWidth));
+		int last = Math.min(columns - 1, (int) Math.ceil((width - start) / columnWidth));
+
+		for(int c = first; c <= last; c++) {
+			double x = start + (c * columnWidth);
+			for(int j = 0; j < this.numberOfInputs; j++) {
+				int count = density[(c * this.numberOfInputs) + j];
+				if(count > 0) {
+					double shade = 0.85 * (1.0 - ((double) count / layersPerColumn));
+					g.setFill(Color.gray(shade));
+					g.fillRect(x, VERTICAL_PADDING + (j * LINE_SEPARATION) - (barHeight / 2.0),
+								Math.max(1.0, columnWidth - 0.5), barHeight);
+				}
+			}
+		}
+		g.setFill(Color.BLACK);
+	}
+
+	/** Draws an overview of the whole circuit with the part inside the viewport outlined
+	 */
+	private void drawMinimap() {
+		GraphicsContext g = this.minimap.getGraphicsContext2D();
+		double width = this.minimap.getWidth();
+		g.clearRect(0, 0, width, MINIMAP_HEIGHT);
+		g.setFill(Color.WHITE);
+		g.fillRect(0, 0, width, MINIMAP_HEIGHT);
+		if(this.numberOfGates == 0 || width <= 0) {
+			g.setFill(Color.BLACK);
+			return;
+		}
+
+		// Aggregate enough layers into each column that the whole circuit fits in the minimap
+		double layerWidth = width / this.numberOfColumns;
+		int layersPerColumn = layersPerColumn(layerWidth, 1.0);
+		int[] density = densityColumns(layersPerColumn);
+		int columns = density.length / this.numberOfInputs;
+		double columnWidth = layersPerColumn * layerWidth;
+		double rowHeight = (MINIMAP_HEIGHT - 4.0) / this.numberOfInputs;
+
+		for(int c = 0; c < columns; c++) {
+			for(int j = 0; j < this.numberOfInputs; j++) {
+				int count = density[(c * this.numberOfInputs) + j];
+				if(count > 0) {
+					g.setFill(Color.gray(0.85 * (1.0 - ((double) count / layersPerColumn))));
+					g.fillRect(c * columnWidth, 2.0 + (j * rowHeight),
+								Math.max(1.0, columnWidth), Math.max(1.0, rowHeight));
+				}
+			}
+		}
+
+		// Outline the part of the circuit inside the viewport
+		double lineLength = lineLength();
+		double left = ((this.scrollBar.getValue() - HORIZONTAL_PADDING) / lineLength) * width;
+		double right = ((this.scrollBar.getValue() + getWidth() - HORIZONTAL_PADDING) / lineLength) * width;
+		left = Math.max(0.0, left);
+		right = Math.min(width, right);
+		g.setStroke(Color.STEELBLUE);
+		g.strokeRect(left, 0.5, Math.max(2.0, right - left), MINIMAP_HEIGHT - 1.0);
+		g.setStroke(Color.BLACK);
+		g.setFill(Color.BLACK);
+	}
+
+	/** Calculates how many layers must share a column for the columns to be wide enough
+	 *	The number is always a power of two so that the zoom levels can share cached columns.
+	 * @param layerWidth The width of a single layer in pixels
+	 * @param minColumnWidth The narrowest a column may be in pixels
+	 * @return The number of layers in each column
+	 */
+	private static int layersPerColumn(double layerWidth, double minColumnWidth) {
+		int layersPerColumn = 1;
+		while((layersPerColumn * layerWidth) < minColumnWidth && layersPerColumn < (1 << 30)) {
+			layersPerColumn <<= 1;
+		}
+		return layersPerColumn;
+	}
+
+	/** Returns the density columns for a number of layers per column, computing them if needed
+	 *	The density of a line in a column is the number of gates in that column that have a target
+	 *	or a control on that line, at most one for each layer. The columns are stored one after
+	 *	another with one entry per line.
+	 *	Columns are computed from the next finer cached level when there is one, and from the gate
+	 *	array otherwise.
+	 *
+	 * @param layersPerColumn The number of layers in each column, a power of two
+	 * @return The densities of every line in every column
+	 */
+	private int[] densityColumns(int layersPerColumn) {
+		int[] density = this.densityCache.get(layersPerColumn);
+		if(density != null) {
+			return density;
+		}
+
+		int lines = this.numberOfInputs;
+		int columns = ((this.numberOfColumns - 1) / layersPerColumn) + 1;
+		density = new int[columns * lines];
+		int[] finer = (layersPerColumn > 1) ? this.densityCache.get(layersPerColumn >> 1) : null;
+
+		if(finer != null) {
+			// Merge pairs of columns from the finer level
+			int finerColumns = finer.length / lines;
+			for(int c = 0; c < finerColumns; c++) {
+				int base = (c >> 1) * lines;
+				for(int j = 0; j < lines; j++) {
+					density[base + j] += finer[(c * lines) + j];
+				}
+			}
+		} else {
+			for(int i = 0; i < this.numberOfGates; i++) {
+				int base = (this.layers.layerOf(i) / layersPerColumn) * lines;
+				int used = this.gates.controlLines(i) | this.gates.target(i);
+				for(int j = 0; j < lines; j++) {
+					if((used & (1 << j)) != 0) {
+						density[base + j]++;
+					}
+				}
+			}
+		}
+
+		this.densityCache.put(layersPerColumn, density);
+		return density;
+	}
+
+	/** Draws a target symbol at the location specified
+	 * @param g The GraphicsContext to draw with
+	 * @param xCenter The x-coordinate to draw at
+	 * @param yCenter Thy y-coordinate to draw at
+	 * @param scale The size of the symbol relative to its size at a zoom of 1.0
+	 */
+	private static void createTarget(GraphicsContext g, double xCenter, double yCenter, double scale) {
+		double offset = 10.0 * scale;
+		double x = xCenter - offset;
+		double y = yCenter - offset;
+		double width = 2 * offset;
+		g.fillOval(x, y, width, width);
+
+		g.setFill(Color.WHITE);
+		offset = 8 * scale;
+		x = xCenter - offset;
+		y = yCenter - offset;
+		width = 2 * offset;
+		g.fillOval(x, y, width, width);
+
+		g.setFill(Color.BLACK);
+		g.strokeLine(xCenter - offset, yCenter, xCenter + offset, yCenter);
+		g.strokeLine(xCenter, yCenter - offset, xCenter, yCenter + offset);
+	}
+
+	/** Draws a control symbol at the location specified
+	 * @param g The GraphicsContext to draw with
+	 * @param xCenter The x-coordinate to draw at
+	 * @param yCenter Thy y-coordinate to draw at
+	 * @param scale The size of the symbol relative to its size at a zoom of 1.0
+	 */
+	private static void createControl(GraphicsContext g, double xCenter, double yCenter, double scale) {
+		double offset = 5.0 * scale;
+		double x = xCenter - offset;
+		double y = yCenter - offset;
+		double width = 2 * offset;
+		g.fillOval(x, y, width, width);
+	}
+}
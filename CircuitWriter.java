@@ -0,0 +1,243 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/** Writes circuits in the RevLib .real and .tfc formats.
+ *	Gates are encoded straight into a byte buffer that is handed to the channel whenever it fills,
+ *	so gates can be written as they are produced and no String is built for any gate. The line
+ *	names are encoded once when the writer is created.
+ *
+ *	The variables are listed in the order of the columns of the truth table, so the first variable
+ *	is the most significant bit of the function; this is the order RevLib tools simulate circuits
+ *	in. The lines keep the labels used by the program, a being bit 0. Gates with more than one
+ *	target are written as one Toffoli gate per target, which realizes the same function since the
+ *	targets of a gate are never among its controls.
+ *
+ * @author ian (ianH92)
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+public class CircuitWriter implements Closeable {
+	/** The flag for the RevLib .real format */
+	public static final int REAL_FORMAT = 0;
+	/** The flag for the .tfc format */
+	public static final int TFC_FORMAT = 1;
+
+	private static final String[] LABELS = {"a", "b", "c", "d", "e", "f", "g", "h", "i", "j", "k",
+											"l", "m", "n", "o", "p", "q", "r", "s", "t", "u", "v",
+											"w", "x", "y", "z"};
+
+	private final WritableByteChannel channel;
+	private final byte[] bytes = new byte[1 << 16];
+	private final ByteBuffer buffer = ByteBuffer.wrap(this.bytes);
+	private int position = 0;
+	private final int format;
+	private final int lines;
+	private final byte[][] names;
+	private final byte separator;
+	private final int maxGateLength;
+	private boolean finished = false;
+
+	/** Creates a writer and writes the header of the circuit
+	 * @param channel The channel to write to
+	 * @param format REAL_FORMAT or TFC_FORMAT
+	 * @param lines The number of lines in the circuit
+	 */
+	public CircuitWriter(WritableByteChannel channel, int format, int lines) throws IOException {
+		this.channel = channel;
+		this.format = format;
+		this.lines = lines;
+		this.separator = (byte) ((format == TFC_FORMAT) ? ',' : ' ');
+		this.names = new byte[lines][];
+
+		int longestName = 0;
+		for(int i = 0; i < lines; i++) {
+			this.names[i] = lineName(i, lines).getBytes(StandardCharsets.US_ASCII);
+			longestName = Math.max(longestName, this.names[i].length);
+		}
+		// "t" and a two digit size, a space, and every line followed by a separator
+		this.maxGateLength = 4 + (lines * (longestName + 1));
+
+		// The variables are listed with the most significant line first
+		StringBuilder variables = new StringBuilder();
+		for(int i = lines - 1; i >= 0; i--) {
+			variables.append(lineName(i, lines));
+			if(i > 0) {
+				variables.append((char) this.separator);
+			}
+		}
+
+		StringBuilder header = new StringBuilder();
+		if(format == TFC_FORMAT) {
+			header.append(".v ").append(variables).append('\n');
+			header.append(".i ").append(variables).append('\n');
+			header.append(".o ").append(variables).append('\n');
+			header.append("BEGIN\n");
+		} else {
+			StringBuilder unused = new StringBuilder();
+			for(int i = 0; i < lines; i++) {
+				unused.append('-');
+			}
+			header.append(".version 1.0\n");
+			header.append(".numvars ").append(lines).append('\n');
+			header.append(".variables ").append(variables).append('\n');
+			header.append(".inputs ").append(variables).append('\n');
+			header.append(".outputs ").append(variables).append('\n');
+			header.append(".constants ").append(unused).append('\n');
+			header.append(".garbage ").append(unused).append('\n');
+			header.append(".begin\n");
+		}
+		putAscii(header);
+	}
+
+	/** Returns the name given to a line in circuit files
+	 *	Circuits with up to 26 lines use the same letters as the program; larger circuits name their
+	 *	lines x0, x1, and so on so that every name is unique.
+	 *
+	 * @param line The line, where line 0 is bit 0 of the function
+	 * @param lines The number of lines in the circuit
+	 */
+	public static String lineName(int line, int lines) {
+		if(lines <= LABELS.length) {
+			return LABELS[line];
+		}
+		return "x" + line;
+	}
+
+	/** Determines the format of a circuit file from its extension
+	 * @param fileName The name of the file including its extension
+	 * @return REAL_FORMAT or TFC_FORMAT
+	 */
+	public static int formatOf(String fileName) throws UserInputException {
+		String name = fileName.toLowerCase();
+		if(name.endsWith(".real")) {
+			return REAL_FORMAT;
+		} else if(name.endsWith(".tfc")) {
+			return TFC_FORMAT;
+		}
+		throw new UserInputException("Circuit files must have the extension .real or .tfc.");
+	}
+
+	/** Writes a circuit to a file, choosing the format from the extension of the file name
+	 * @param fileName The name of the file including its extension
+	 * @param gates The gates of the circuit
+	 */
+	public static void write(String fileName, GateList gates) throws UserInputException {
+		int format = formatOf(fileName);
+		try(FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE,
+						StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+			CircuitWriter writer = new CircuitWriter(channel, format, gates.lines())) {
+			writer.writeGates(gates);
+		} catch(IOException e) {
+			throw new UserInputException("Circuit could not be written to " + fileName + ": " + e.getMessage());
+		}
+	}
+
+	/** Writes every gate in a list in order
+	 * @param gates The gates to write
+	 */
+	public void writeGates(GateList gates) throws IOException {
+		int size = gates.size();
+		for(int i = 0; i < size; i++) {
+			writeGate(gates.controlLines(i), gates.target(i));
+		}
+	}
+
+	/** Writes a gate
+	 * @param controlLines Represents the control lines with 1 bits.
+	 * @param target Represents the bit(s) to be flipped with 1s, 0s in non-target positions.
+	 */
+	public void writeGate(int controlLines, int target) throws IOException {
+		int size = Integer.bitCount(controlLines) + 1;
+
+		for(int t = this.lines - 1; t >= 0; t--) {
+			if((target & (1 << t)) == 0) {
+				continue;
+			}
+			if(this.bytes.length - this.position < this.maxGateLength) {
+				flush();
+			}
+
+			byte[] out = this.bytes;
+			int p = this.position;
+			out[p++] = 't';
+			if(size >= 10) {
+				out[p++] = (byte) ('0' + (size / 10));
+			}
+			out[p++] = (byte) ('0' + (size % 10));
+			out[p++] = ' ';
+
+			// The controls are listed in the order of the variables followed by the target
+			for(int i = this.lines - 1; i >= 0; i--) {
+				if((controlLines & (1 << i)) != 0) {
+					p = putName(out, p, this.names[i]);
+					out[p++] = this.separator;
+				}
+			}
+			p = putName(out, p, this.names[t]);
+			out[p++] = '\n';
+			this.position = p;
+		}
+	}
+
+	/** Copies a line name into the buffer
+	 * @return The position after the name
+	 */
+	private static int putName(byte[] out, int position, byte[] name) {
+		for(int i = 0; i < name.length; i++) {
+			out[position++] = name[i];
+		}
+		return position;
+	}
+
+	/** Writes the end of the circuit and flushes everything written to the channel
+	 *	The channel is left open.
+	 */
+	public void finish() throws IOException {
+		if(!this.finished) {
+			this.finished = true;
+			putAscii((this.format == TFC_FORMAT) ? "END\n" : ".end\n");
+			flush();
+		}
+	}
+
+	/** Finishes the circuit and closes the channel
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			finish();
+		} finally {
+			this.channel.close();
+		}
+	}
+
+	/** Writes the contents of the buffer to the channel
+	 */
+	private void flush() throws IOException {
+		this.buffer.clear();
+		this.buffer.limit(this.position);
+		while(this.buffer.hasRemaining()) {
+			this.channel.write(this.buffer);
+		}
+		this.position = 0;
+	}
+
+	/** Puts text made only of ASCII characters into the buffer
+	 * @param text The text to write
+	 */
+	private void putAscii(CharSequence text) throws IOException {
+		int length = text.length();
+		for(int i = 0; i < length; i++) {
+			if(this.position == this.bytes.length) {
+				flush();
+			}
+			this.bytes[this.position++] = (byte) text.charAt(i);
+		}
+	}
+}
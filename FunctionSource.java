@@ -0,0 +1,158 @@
+import java.util.Random;
+
+/** A reversible function given by the output side of each of its rows, computed when it is asked for.
+ *	Tables are filled from a source in one pass, in parallel chunks for large tables, so functions
+ *	that can be computed row by row, such as the standard benchmark families, never have to be
+ *	written out as a specification or held in any array besides the table itself. The output of a
+ *	row may be asked for from several threads at once and in any order.
+ *
+ *	Generators of the standard families can be named as family:lines, or random:lines:seed, on the
+ *	command line in place of a specification file.
+ *
+ * @author ian (ianH92)
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+public interface FunctionSource {
+	/** The families that can be named, in the form family:lines */
+	String[] FAMILIES = {"identity", "hwb", "graycode", "adder", "random"};
+
+	/** Returns the number of inputs to the Boolean function
+	 */
+	int lines();
+
+	/** Returns the output side of a row
+	 * @param row The input side of the row
+	 */
+	int output(int row);
+
+	/** Returns the number of rows of the function
+	 */
+	default int rows() {
+		return 1 << lines();
+	}
+
+	/** A function given by a source of its rows
+	 * @param lines The number of inputs
+	 * @param outputs The output side of each row
+	 */
+	static FunctionSource of(int lines, java.util.function.IntUnaryOperator outputs) {
+		return new FunctionSource() {
+			@Override
+			public int lines() {
+				return lines;
+			}
+
+			@Override
+			public int output(int row) {
+				return outputs.applyAsInt(row);
+			}
+		};
+	}
+
+	/** A function held in an array
+	 * @param outputs The output side of each row; its length must be a power of 2
+	 */
+	static FunctionSource of(int[] outputs) {
+		return of(Integer.numberOfTrailingZeros(outputs.length), row -> outputs[row]);
+	}
+
+	/** A function held in a model of its truth table
+	 */
+	static FunctionSource of(PermutationModel model) {
+		return of(model.lines(), model::getOutput);
+	}
+
+	/** The function that leaves every row as it is
+	 */
+	static FunctionSource identity(int lines) {
+		return of(lines, row -> row);
+	}
+
+	/** The hidden weighted bit function: each row rotated left by the number of 1 bits in it
+	 */
+	static FunctionSource hwb(int lines) {
+		int mask = (1 << lines) - 1;
+		return of(lines, row -> {
+			int shift = Integer.bitCount(row) % lines;
+			return ((row << shift) | (row >>> (lines - shift))) & mask;
+		});
+	}
+
+	/** The Gray code of each row
+	 */
+	static FunctionSource graycode(int lines) {
+		return of(lines, row -> row ^ (row >>> 1));
+	}
+
+	/** The in-place adder of two numbers of a number of bits, (a, b) to (a, a + b)
+	 *	The low lines hold a and the high lines hold b, which is replaced by the sum modulo 2^bits.
+	 */
+	static FunctionSource adder(int bits) {
+		int mask = (1 << bits) - 1;
+		return of(2 * bits, row -> {
+			int a = row & mask;
+			return a | (((a + (row >>> bits)) & mask) << bits);
+		});
+	}
+
+	/** A permutation of the rows drawn at random with a seed
+	 *	A random permutation cannot be computed row by row, so it is drawn into an array when it is
+	 *	created.
+	 */
+	static FunctionSource random(int lines, long seed) {
+		int[] outputs = new int[1 << lines];
+		for(int x = 0; x < outputs.length; x++) {
+			outputs[x] = x;
+		}
+		Random random = new Random(seed);
+		for(int x = outputs.length - 1; x > 0; x--) {
+			int k = random.nextInt(x + 1);
+			int swap = outputs[x];
+			outputs[x] = outputs[k];
+			outputs[k] = swap;
+		}
+		return of(outputs);
+	}
+
+	/** Finds the generator named by a string such as hwb:20, adder:8 or random:16:3
+	 *	The number after an adder is the number of bits of each operand; after the other families it
+	 *	is the number of lines.
+	 *
+	 * @param name The name of the generator
+	 * @return The function, or null if the name is not of a family
+	 */
+	static FunctionSource named(String name) throws UserInputException {
+		String[] parts = name.split(":");
+		int family = java.util.Arrays.asList(FAMILIES).indexOf(parts[0].toLowerCase());
+		if(family < 0 || parts.length < 2) {
+			return null;
+		}
+		int size;
+		long seed = 1;
+		try {
+			size = Integer.parseInt(parts[1]);
+			if(parts.length > 2) {
+				seed = Long.parseLong(parts[2]);
+			}
+		} catch(NumberFormatException e) {
+			throw new UserInputException("Error: Generator " + name + " must be family:lines.");
+		}
+		int lines = (family == 3) ? 2 * size : size;
+		if(size < 1 || lines > 30) {
+			throw new UserInputException("Error: Generator " + name + " must have 1 to 30 lines.");
+		}
+		switch(family) {
+			case 0:
+				return identity(lines);
+			case 1:
+				return hwb(lines);
+			case 2:
+				return graycode(lines);
+			case 3:
+				return adder(size);
+			default:
+				return random(lines, seed);
+		}
+	}
+}
@@ -0,0 +1,120 @@
+import java.util.Arrays;
+
+/** A circuit scheduled into layers of gates that can be applied at the same time.
+ *	Gates that touch disjoint lines commute, so each gate can be moved back to the layer after the
+ *	last layer that used any of its lines. The scheduler keeps the last layer used by each line and
+ *	places the gates in a single pass, in time linear in the number of symbols of the circuit. The
+ *	number of layers is the depth of the circuit.
+ *
+ *	For drawing, a gate can instead be taken to use every line between its first and last, so the
+ *	vertical line joining its symbols never crosses another gate of its layer. For simulation the
+ *	gates of a layer are applied to a table together, in one pass over the table for each layer.
+ *
+ * @author ian (ianH92)
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+public class GateLayers {
+	private final GateList gates;
+	// The layer of each gate
+	private final int[] layerOf;
+	// The gates of layer k are order[layerStart[k]] to order[layerStart[k + 1] - 1], in circuit order
+	private final int[] layerStart;
+	private final int[] order;
+
+	/** Schedules the gates of a circuit into layers
+	 * @param gates The gates of the circuit
+	 * @param spans True if a gate uses every line between its first and last, as when drawn
+	 */
+	public GateLayers(GateList gates, boolean spans) {
+		this.gates = gates;
+		int count = gates.size();
+		this.layerOf = new int[count];
+
+		// The layer after the last to use each line
+		int[] nextFree = new int[gates.lines()];
+		int depth = 0;
+		for(int i = 0; i < count; i++) {
+			int lines = gates.controlLines(i) | gates.target(i);
+			if(spans && lines != 0) {
+				int low = Integer.lowestOneBit(lines);
+				lines = (Integer.highestOneBit(lines) - low) | Integer.highestOneBit(lines);
+			}
+			int layer = 0;
+			for(int bits = lines; bits != 0; bits &= (bits - 1)) {
+				layer = Math.max(layer, nextFree[Integer.numberOfTrailingZeros(bits)]);
+			}
+			for(int bits = lines; bits != 0; bits &= (bits - 1)) {
+				nextFree[Integer.numberOfTrailingZeros(bits)] = layer + 1;
+			}
+			this.layerOf[i] = layer;
+			depth = Math.max(depth, layer + 1);
+		}
+
+		// Counting sort of the gates by layer, which keeps the gates of a layer in circuit order
+		this.layerStart = new int[depth + 1];
+		for(int i = 0; i < count; i++) {
+			this.layerStart[this.layerOf[i] + 1]++;
+		}
+		for(int k = 0; k < depth; k++) {
+			this.layerStart[k + 1] += this.layerStart[k];
+		}
+		this.order = new int[count];
+		int[] next = Arrays.copyOf(this.layerStart, depth);
+		for(int i = 0; i < count; i++) {
+			this.order[next[this.layerOf[i]]++] = i;
+		}
+	}
+
+	/** Returns the number of layers, the depth of the circuit
+	 */
+	public int depth() {
+		return this.layerStart.length - 1;
+	}
+
+	/** Returns the layer a gate was placed in
+	 * @param gate The index of the gate in the circuit
+	 */
+	public int layerOf(int gate) {
+		return this.layerOf[gate];
+	}
+
+	/** Returns the number of gates in a layer
+	 */
+	public int layerSize(int layer) {
+		return this.layerStart[layer + 1] - this.layerStart[layer];
+	}
+
+	/** Returns a gate of a layer
+	 * @param layer The layer
+	 * @param k The position of the gate in the layer, from 0 to layerSize(layer) - 1
+	 * @return The index of the gate in the circuit
+	 */
+	public int gate(int layer, int k) {
+		return this.order[this.layerStart[layer] + k];
+	}
+
+	/** Applies the circuit to the output side of a table, a layer at a time
+	 *	Each layer is applied to the whole table in one pass. Applied to the identity function, this
+	 *	leaves the table holding the function the circuit realizes.
+	 *
+	 * @param table The table
+	 */
+	public void applyTo(PermutationTable table) {
+		// Gates without a target change nothing and are skipped; a layer can hold any number of those
+		// with no lines at all, but every other gate of a layer uses a line of its own
+		int[] layer = new int[2 * table.lines()];
+		for(int k = 0; k < depth(); k++) {
+			int size = 0;
+			for(int g = 0; g < layerSize(k); g++) {
+				int i = gate(k, g);
+				if(this.gates.target(i) != 0) {
+					layer[2 * size] = this.gates.controlLines(i);
+					layer[(2 * size) + 1] = this.gates.target(i);
+					size++;
+				}
+			}
+			table.transformOutputs(layer, size);
+		}
+	}
+}
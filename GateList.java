@@ -0,0 +1,183 @@
+import java.util.Arrays;
+
+/** A packed, growable list of the Toffoli gates of a circuit.
+ *	Each gate is stored as two ints: the control lines, with a 1 bit for every line that is a
+ *	control, and the target, with a 1 bit for every line that is flipped. Bit i of both ints is the
+ *	line shown in column i of the array representation of the gates. This costs two ints per gate
+ *	no matter how many lines the circuit has, where the array representation costs an int[] for
+ *	every gate, and lets the algorithms add gates without knowing how many there will be.
+ *
+ *	Subclasses may keep the gates somewhere other than the heap by overriding the methods that add,
+ *	read and remove gates; every other method goes through them.
+ *
+ * @author ian (ianH92)
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+public class GateList {
+	/** The largest number of gates a list on the heap can hold */
+	public static final int MAX_GATES = (Integer.MAX_VALUE - 8) / 2;
+
+	private final int lines;
+	private int[] gates;
+	private int size = 0;
+
+	/** Creates an empty list of gates for a circuit
+	 * @param lines The number of lines in the circuit
+	 */
+	public GateList(int lines) {
+		this(lines, 16);
+	}
+
+	/** Creates an empty list of gates for a circuit with room for a number of gates
+	 * @param lines The number of lines in the circuit
+	 * @param capacity The number of gates to make room for
+	 */
+	public GateList(int lines, int capacity) {
+		this.lines = lines;
+		this.gates = new int[2 * Math.max(capacity, 1)];
+	}
+
+	/** Returns the number of lines in the circuit
+	 */
+	public int lines() {
+		return this.lines;
+	}
+
+	/** Returns the number of gates in the list
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/** Adds a gate to the end of the list
+	 * @param controlLines Represents the control lines with 1 bits.
+	 * @param target Represents the bit(s) to be flipped with 1s, 0s in non-target positions.
+	 */
+	public void add(int controlLines, int target) {
+		if((2 * this.size) == this.gates.length) {
+			if(this.size == MAX_GATES) {
+				throw new IllegalStateException("Error: The circuit has more than " + MAX_GATES +
+												" gates, more than a list on the heap can hold.");
+			}
+			// Grow by half again, keeping room for a whole number of gates
+			int capacity = (int) Math.min(this.size + (this.size >> 1) + 1L, MAX_GATES);
+			this.gates = Arrays.copyOf(this.gates, 2 * capacity);
+		}
+		this.gates[2 * this.size] = controlLines;
+		this.gates[(2 * this.size) + 1] = target;
+		this.size++;
+	}
+
+	/** Returns the control lines of a gate
+	 * @param index The position of the gate in the list
+	 */
+	public int controlLines(int index) {
+		return this.gates[2 * index];
+	}
+
+	/** Returns the target of a gate
+	 * @param index The position of the gate in the list
+	 */
+	public int target(int index) {
+		return this.gates[(2 * index) + 1];
+	}
+
+	/** Runs a value through the circuit
+	 *	Each gate flips its target bits in the value if every one of its control lines is 1.
+	 *
+	 * @param value The input side of a row of the truth table
+	 * @return The output side the circuit computes for the row
+	 */
+	public int apply(int value) {
+		return apply(value, 0, this.size);
+	}
+
+	/** Runs a value through a range of the gates of the circuit
+	 * @param value The value to run through the gates
+	 * @param from The position of the first gate to run the value through
+	 * @param to The position after the last gate to run the value through
+	 * @return The value after the gates
+	 */
+	public int apply(int value, int from, int to) {
+		for(int i = 2 * from; i < (2 * to); i += 2) {
+			int controlLines = this.gates[i];
+			if((value & controlLines) == controlLines) {
+				value ^= this.gates[i + 1];
+			}
+		}
+		return value;
+	}
+
+	/** Removes every gate after the first few
+	 * @param size The number of gates to keep
+	 */
+	public void truncate(int size) {
+		if(size < this.size) {
+			this.size = size;
+		}
+	}
+
+	/** Adds the gates of another list to the end of this list in reverse order
+	 *	This is how the gates found by transforming the output side of a truth table are added to a
+	 *	circuit, since the last gate found is the first to be applied.
+	 *
+	 * @param other The list whose gates are added
+	 */
+	public void appendReversed(GateList other) {
+		for(int i = other.size() - 1; i >= 0; i--) {
+			add(other.controlLines(i), other.target(i));
+		}
+	}
+
+	/** Releases any storage held by the list; the list cannot be used afterwards
+	 */
+	public void close() {
+	}
+
+	/** Creates the array representation of the gates
+	 *	Each row of the array is a gate, with a 1 in the columns of control lines, a 2 in the
+	 *	columns of targets, and 0 elsewhere.
+	 *
+	 * @return The array representation of the gates.
+	 */
+	public int[][] toArray() {
+		int size = size();
+		int[][] gateArray = new int[size][this.lines];
+		for(int row = 0; row < size; row++) {
+			int controlLines = controlLines(row);
+			int target = target(row);
+			for(int i = 0; i < this.lines; i++) {
+				if((controlLines & (1 << i)) != 0) {
+					gateArray[row][i] = 1;
+				}
+				if((target & (1 << i)) != 0) {
+					gateArray[row][i] = 2;
+				}
+			}
+		}
+		return gateArray;
+	}
+
+	/** Creates a list from the array representation of gates
+	 * @param gateArray The array representation of the gates.
+	 * @param lines The number of lines in the circuit
+	 * @return The list holding the same gates
+	 */
+	public static GateList fromArray(int[][] gateArray, int lines) {
+		GateList list = new GateList(lines, gateArray.length);
+		for(int[] gate : gateArray) {
+			int controlLines = 0;
+			int target = 0;
+			for(int i = 0; i < lines; i++) {
+				if(gate[i] == 1) {
+					controlLines |= (1 << i);
+				} else if(gate[i] == 2) {
+					target |= (1 << i);
+				}
+			}
+			list.add(controlLines, target);
+		}
+		return list;
+	}
+}
@@ -0,0 +1,102 @@
+/** A PermutationTable whose forward and inverse arrays are int arrays on the Java heap.
+ *	This is the table used for functions that fit comfortably in memory.
+ *
+ * @author ian (ianH92)
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+public class HeapPermutationTable extends PermutationTable {
+	// The number of rows transformed by every gate of a pass before moving on, 16 KiB
+	private static final int BLOCK_ROWS = 1 << 12;
+
+	private final int[] forward;
+	private final int[] inverse;
+
+	/** Creates an empty table for a function with the given number of inputs
+	 * @param lines The number of inputs to the Boolean function
+	 */
+	public HeapPermutationTable(int lines) {
+		super(lines);
+		this.forward = new int[this.rows];
+		this.inverse = new int[this.rows];
+	}
+
+	/** Creates a copy of the table that can be transformed without changing this table
+	 */
+	public HeapPermutationTable copy() {
+		// Bring both arrays up to date so the copy starts with neither side stale
+		forward(0);
+		inverse(0);
+		HeapPermutationTable copy = new HeapPermutationTable(this.lines);
+		System.arraycopy(this.forward, 0, copy.forward, 0, this.rows);
+		System.arraycopy(this.inverse, 0, copy.inverse, 0, this.rows);
+		return copy;
+	}
+
+	@Override
+	protected int readForward(int x) {
+		return this.forward[x];
+	}
+
+	@Override
+	protected void writeForward(int x, int value) {
+		this.forward[x] = value;
+	}
+
+	@Override
+	protected int readInverse(int y) {
+		return this.inverse[y];
+	}
+
+	@Override
+	protected void writeInverse(int y, int value) {
+		this.inverse[y] = value;
+	}
+
+	@Override
+	protected void transformForwardValues(int from, int to, int[] gates, int count) {
+		transformValues(this.forward, from, to, gates, count);
+	}
+
+	@Override
+	protected void transformInverseValues(int from, int to, int[] gates, int count) {
+		transformValues(this.inverse, from, to, gates, count);
+	}
+
+	/** Applies gates to a range of an array
+	 *	The range is taken a block at a time, small enough to stay in the L1 cache, and each gate in
+	 *	turn is applied to the whole block, so the array is read from memory once for all the gates
+	 *	while each gate is still applied in a tight loop of its own.
+	 */
+	private static void transformValues(int[] values, int from, int to, int[] gates, int count) {
+		for(int start = from; start < to; start += BLOCK_ROWS) {
+			int end = Math.min(start + BLOCK_ROWS, to);
+			for(int i = 0; i < (2 * count); i += 2) {
+				int controlLines = gates[i];
+				int target = gates[i + 1];
+				for(int x = start; x < end; x++) {
+					// The mask is all 1s when every control line is 1, so there is no branch to mispredict
+					int val = values[x];
+					int mask = (((val & controlLines) ^ controlLines) - 1) >> 31;
+					values[x] = val ^ (target & mask);
+				}
+			}
+		}
+	}
+
+	@Override
+	protected void invertForward(int from, int to) {
+		int[] values = this.forward;
+		for(int x = from; x < to; x++) {
+			this.inverse[values[x]] = x;
+		}
+	}
+
+	@Override
+	protected void invertInverse(int from, int to) {
+		int[] values = this.inverse;
+		for(int y = from; y < to; y++) {
+			this.forward[values[y]] = y;
+		}
+	}
+}
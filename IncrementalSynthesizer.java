@@ -0,0 +1,220 @@
+/** Synthesizes a truth table again after some of its rows have been edited, reusing the last run.
+ *	The output algorithm handles rows in order and never changes a row once it maps to itself, so
+ *	the gates it finds for row i depend only on the output sides of rows 0 to i. The input
+ *	algorithm is the same with the roles of the two sides swapped: the gates for row i depend only
+ *	on which rows have the outputs 0 to i. After an edit every gate found before the first row the
+ *	edit can affect is still correct, and synthesis only has to start again from there.
+ *
+ *	While it runs, the synthesizer keeps checkpoints of the table at evenly spaced rows: the side
+ *	of the table the algorithm transforms and the number of gates found so far. To synthesize the
+ *	edited table it takes the last checkpoint before the first affected row, runs only the edited
+ *	values through the gates found up to that checkpoint to bring them up to date, and carries on
+ *	from there. The checkpoints together hold at most MAX_CHECKPOINT_INTS ints.
+ *
+ *	The bidirectional algorithm reads rows that have been moved by its input transformations,
+ *	which can be any row after the current one, so an edit anywhere can change its earlier gates.
+ *	Tables synthesized with it, or with the cycle algorithm, are always synthesized in full. Every
+ *	table is first given to the shortcuts of TransformationAlgorithms, so affine functions and
+ *	functions made of independent parts get the same circuit after an edit as from scratch.
+ *
+ * @author ian (ianH92)
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+public class IncrementalSynthesizer {
+	/** The largest number of ints held by the checkpoints of a synthesizer */
+	public static final int MAX_CHECKPOINT_INTS = 1 << 23;
+	// The largest number of checkpoints kept for a table
+	private static final int MAX_CHECKPOINTS = 64;
+
+	private int algorithm = -1;
+	private int lines = 0;
+	private int[] outputs = null;
+	private GateList gates = null;
+	private GateList circuit = null;
+
+	private int spacing = 0;
+	private int[][] snapshots = null;
+	private int[] gateCounts = null;
+
+	/** Synthesizes the circuit for a truth table
+	 *	If the last table synthesized had the same number of inputs and used the same algorithm,
+	 *	only the part of the synthesis the changed rows affect is done again. The circuit returned
+	 *	is the same as the one the algorithm finds when run on the table from scratch.
+	 *
+	 * @param model The model of the truth table; it is not kept, so it may be edited afterwards.
+	 * @param algorithm One of the algorithm constants of TransformationAlgorithms.
+	 * @return The gates of the circuit; the list must not be changed.
+	 */
+	public GateList synthesize(PermutationModel model, int algorithm) throws UserInputException {
+		model.validate();
+		if(algorithm == TransformationAlgorithms.CYCLE_ALGORITHM) {
+			// The cycle algorithm does not work row by row and is quick to run in full
+			PermutationTable table = new HeapPermutationTable(model.lines());
+			table.load(model);
+			this.outputs = null;
+			return TransformationAlgorithms.synthesize(table, algorithm);
+		}
+		int rows = model.rows();
+		int[] outputs = new int[rows];
+		for(int i = 0; i < rows; i++) {
+			outputs[i] = model.getOutput(i);
+		}
+
+		// Affine functions and functions made of parts are synthesized directly on either path
+		PermutationTable table = new HeapPermutationTable(model.lines());
+		table.load(outputs);
+		GateList shortcut = TransformationAlgorithms.shortcut(table, algorithm);
+		if(shortcut != null) {
+			this.outputs = null;
+			return shortcut;
+		}
+
+		if(algorithm == TransformationAlgorithms.BIDIRECTIONAL_ALGORITHM || algorithm != this.algorithm ||
+			model.lines() != this.lines || this.outputs == null) {
+			GateList circuit = run(table, algorithm, 0, new GateList(model.lines()));
+			remember(algorithm, outputs, circuit);
+			return circuit;
+		}
+
+		// Find the first row whose gates the edit can change
+		int firstAffected = rows;
+		for(int i = 0; i < rows; i++) {
+			if(outputs[i] != this.outputs[i]) {
+				if(algorithm == TransformationAlgorithms.OUTPUT_ALGORITHM) {
+					firstAffected = Math.min(firstAffected, i);
+				} else {
+					// The rows whose outputs are the old and the new value of row i have changed
+					firstAffected = Math.min(firstAffected, Math.min(outputs[i], this.outputs[i]));
+				}
+			}
+		}
+		if(firstAffected == rows) {
+			return this.circuit;
+		}
+
+		// Bring the checkpoints up to the one synthesis restarts from up to date with the edit; the
+		// later checkpoints are taken again as synthesis passes them
+		int checkpoint = firstAffected / this.spacing;
+		int start = checkpoint * this.spacing;
+		// Inverting the table checks that it is reversible before any checkpoint is changed
+		int[] inverse = invert(outputs);
+		for(int i = 0; i < rows; i++) {
+			if(outputs[i] != this.outputs[i]) {
+				if(algorithm == TransformationAlgorithms.OUTPUT_ALGORITHM) {
+					updateCheckpoints(checkpoint, i, outputs[i]);
+				} else {
+					updateCheckpoints(checkpoint, outputs[i], i);
+					updateCheckpoints(checkpoint, this.outputs[i], inverse[this.outputs[i]]);
+				}
+			}
+		}
+		if(algorithm == TransformationAlgorithms.OUTPUT_ALGORITHM) {
+			table.load(this.snapshots[checkpoint]);
+		} else {
+			table.load(invert(this.snapshots[checkpoint]));
+		}
+
+		this.gates.truncate(this.gateCounts[checkpoint]);
+		GateList circuit = run(table, algorithm, start, this.gates);
+		this.outputs = outputs;
+		this.circuit = circuit;
+		return circuit;
+	}
+
+	/** Sets an entry of the transformed side of the table in every checkpoint up to one
+	 *	The value is run through the gates between each pair of checkpoints in turn, so the whole
+	 *	update costs one pass over the gates found before the last checkpoint.
+	 *
+	 * @param last The last checkpoint to update
+	 * @param position The entry of the side of the table
+	 * @param value The value of the entry before any gates are applied
+	 */
+	private void updateCheckpoints(int last, int position, int value) {
+		int applied = 0;
+		for(int checkpoint = 0; checkpoint <= last; checkpoint++) {
+			value = this.gates.apply(value, applied, this.gateCounts[checkpoint]);
+			applied = this.gateCounts[checkpoint];
+			this.snapshots[checkpoint][position] = value;
+		}
+	}
+
+	/** Runs an algorithm from a row to the end of the table, taking checkpoints as it goes
+	 * @param table The table, already transformed by the gates found before the start row.
+	 * @param algorithm OUTPUT_ALGORITHM, INPUT_ALGORITHM or BIDIRECTIONAL_ALGORITHM.
+	 * @param start The row to start from; a multiple of the checkpoint spacing.
+	 * @param found The gates found before the start row.
+	 * @return The gates of the circuit.
+	 */
+	private GateList run(PermutationTable table, int algorithm, int start, GateList found) throws UserInputException {
+		int rows = table.rows();
+		boolean checkpoints = (algorithm != TransformationAlgorithms.BIDIRECTIONAL_ALGORITHM);
+		if(start == 0) {
+			allocateCheckpoints(table.lines(), checkpoints);
+		}
+
+		GateList inputGates = (algorithm == TransformationAlgorithms.OUTPUT_ALGORITHM) ? new GateList(table.lines()) : found;
+		GateList outputGates = (algorithm == TransformationAlgorithms.OUTPUT_ALGORITHM) ? found : new GateList(table.lines());
+		try {
+			for(int i = start; i < rows; i++) {
+				if(checkpoints && (i % this.spacing) == 0) {
+					int checkpoint = i / this.spacing;
+					int[] snapshot = this.snapshots[checkpoint];
+					for(int x = 0; x < rows; x++) {
+						snapshot[x] = (algorithm == TransformationAlgorithms.OUTPUT_ALGORITHM) ? table.forward(x) : table.inverse(x);
+					}
+					this.gateCounts[checkpoint] = found.size();
+				}
+				TransformationAlgorithms.synthesizeRow(table, algorithm, inputGates, outputGates, i);
+			}
+		} catch(ArrayIndexOutOfBoundsException e) {
+			throw new UserInputException("Error: Entered function is not reversible.");
+		}
+
+		this.gates = checkpoints ? found : null;
+		GateList circuit = new GateList(table.lines(), inputGates.size() + outputGates.size());
+		for(int i = 0; i < inputGates.size(); i++) {
+			circuit.add(inputGates.controlLines(i), inputGates.target(i));
+		}
+		circuit.appendReversed(outputGates);
+		return circuit;
+	}
+
+	/** Makes room for the checkpoints of a table, spacing them evenly within the memory allowed
+	 * @param lines The number of inputs to the Boolean function
+	 * @param needed False if the algorithm takes no checkpoints
+	 */
+	private void allocateCheckpoints(int lines, boolean needed) {
+		int rows = (1 << lines);
+		int count = needed ? Math.max(Math.min(MAX_CHECKPOINTS, Math.min(rows, MAX_CHECKPOINT_INTS / rows)), 1) : 0;
+		this.spacing = needed ? ((rows + count - 1) / count) : rows;
+		if(this.snapshots == null || this.snapshots.length != count || this.lines != lines) {
+			this.snapshots = new int[count][rows];
+			this.gateCounts = new int[count];
+		}
+		this.lines = lines;
+	}
+
+	/** Keeps the table and circuit of a run from scratch
+	 */
+	private void remember(int algorithm, int[] outputs, GateList circuit) {
+		this.algorithm = algorithm;
+		this.outputs = (algorithm == TransformationAlgorithms.BIDIRECTIONAL_ALGORITHM) ? null : outputs;
+		this.circuit = circuit;
+	}
+
+	/** Returns the inverse of a permutation
+	 */
+	private static int[] invert(int[] permutation) throws UserInputException {
+		int[] inverse = new int[permutation.length];
+		java.util.Arrays.fill(inverse, -1);
+		for(int x = 0; x < permutation.length; x++) {
+			int y = permutation[x];
+			if(y < 0 || y >= permutation.length || inverse[y] != -1) {
+				throw new UserInputException("Error: Entered function is not reversible.");
+			}
+			inverse[y] = x;
+		}
+		return inverse;
+	}
+}
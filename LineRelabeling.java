@@ -0,0 +1,198 @@
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Searches for the assignment of bits to lines that gives the smallest circuit for a function.
+ *	The circuits the algorithms find depend on which line holds which bit of the function. For a
+ *	relabeling P of the lines the function g = P f P^-1 is synthesized instead of f; moving the
+ *	lines of every gate of that circuit back through P^-1 gives a circuit for f. The relabelings
+ *	tried are every permutation of the lines when there are at most as many as the number of
+ *	trials, and otherwise the identity and random permutations drawn with a fixed seed, so the
+ *	same function always gives the same circuit.
+ *
+ *	The relabelings are tried as tasks of a fork-join pool. They share the size of the smallest
+ *	circuit found so far, and a relabeling stops as soon as the gates it has found exceed that
+ *	size. The circuit kept is the smallest, and among circuits of the same size the one of the
+ *	relabeling tried first, so the identity wins every tie.
+ *
+ * @author ian (ianH92)
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+public class LineRelabeling {
+	private final int trials;
+	private final ForkJoinPool pool;
+
+	/** Creates a search over relabelings of the lines
+	 * @param trials The largest number of relabelings to try, at least 1
+	 * @param pool The pool the relabelings are tried on
+	 */
+	public LineRelabeling(int trials, ForkJoinPool pool) {
+		this.trials = Math.max(trials, 1);
+		this.pool = pool;
+	}
+
+	/** Synthesizes a function under each relabeling and returns the smallest circuit
+	 *	The table is left as it was.
+	 *
+	 * @param table The truth table of the reversible function.
+	 * @param algorithm One of the algorithm flags.
+	 * @return The gates of the smallest circuit found, on the lines of the original function
+	 */
+	public GateList synthesize(PermutationTable table, int algorithm) throws UserInputException {
+		// Affine functions and functions made of parts are synthesized directly whatever their labeling
+		GateList shortcut = TransformationAlgorithms.shortcut(table, algorithm);
+		if(shortcut != null) {
+			return shortcut;
+		}
+
+		int columns = table.lines();
+		int[] outputs = new int[table.rows()];
+		for(int x = 0; x < outputs.length; x++) {
+			outputs[x] = table.forward(x);
+		}
+
+		int[][] labelings = labelings(columns, this.trials);
+		AtomicInteger best = new AtomicInteger(Integer.MAX_VALUE);
+		ArrayList<ForkJoinTask<GateList>> tasks = new ArrayList<>();
+		for(int[] labeling : labelings) {
+			tasks.add(this.pool.submit(() -> trial(outputs, columns, labeling, algorithm, best)));
+		}
+
+		GateList smallest = null;
+		for(ForkJoinTask<GateList> task : tasks) {
+			GateList gates;
+			try {
+				gates = task.join();
+			} catch(RuntimeException e) {
+				if(e.getCause() instanceof UserInputException) {
+					throw (UserInputException) e.getCause();
+				}
+				throw e;
+			}
+			if(gates != null && (smallest == null || gates.size() < smallest.size())) {
+				smallest = gates;
+			}
+		}
+		return smallest;
+	}
+
+	/** Synthesizes a function under one relabeling of its lines
+	 * @param outputs The output side of every row of the function
+	 * @param labeling The line each bit of the function is moved to
+	 * @param best The size of the smallest circuit found so far
+	 * @return The gates on the lines of the original function, or null if the circuit grew past the best
+	 */
+	private static GateList trial(int[] outputs, int columns, int[] labeling, int algorithm,
+	AtomicInteger best) throws UserInputException {
+		int[] relabeled = new int[outputs.length];
+		for(int x = 0; x < outputs.length; x++) {
+			relabeled[move(x, labeling)] = move(outputs[x], labeling);
+		}
+		PermutationTable table = new HeapPermutationTable(columns);
+		table.load(relabeled);
+
+		GateList gates;
+		if(algorithm == TransformationAlgorithms.CYCLE_ALGORITHM) {
+			gates = TransformationAlgorithms.synthesize(table, algorithm);
+		} else {
+			GateList inputGates = new GateList(columns);
+			GateList outputGates = new GateList(columns);
+			for(int i = 0; i < table.rows(); i++) {
+				TransformationAlgorithms.synthesizeRow(table, algorithm, inputGates, outputGates, i);
+				if(inputGates.size() + outputGates.size() > best.get()) {
+					return null;
+				}
+			}
+			inputGates.appendReversed(outputGates);
+			gates = inputGates;
+		}
+		if(gates.size() > best.accumulateAndGet(gates.size(), Math::min)) {
+			return null;
+		}
+
+		// Move the gates back to the lines of the original function
+		int[] inverse = new int[columns];
+		for(int j = 0; j < columns; j++) {
+			inverse[labeling[j]] = j;
+		}
+		GateList original = new GateList(columns, gates.size());
+		for(int i = 0; i < gates.size(); i++) {
+			original.add(move(gates.controlLines(i), inverse), move(gates.target(i), inverse));
+		}
+		return original;
+	}
+
+	/** Moves each bit j of a value to bit labeling[j]
+	 */
+	private static int move(int value, int[] labeling) {
+		int result = 0;
+		for(int bit = value; bit != 0; bit &= (bit - 1)) {
+			result |= (1 << labeling[Integer.numberOfTrailingZeros(bit)]);
+		}
+		return result;
+	}
+
+	/** Lists the relabelings to try, the identity first
+	 *	Every permutation of the lines is listed if there are at most trials of them; otherwise the
+	 *	identity is followed by random permutations.
+	 *
+	 * @param columns The number of lines
+	 * @param trials The largest number of relabelings
+	 */
+	static int[][] labelings(int columns, int trials) {
+		long permutations = 1;
+		for(int k = 2; k <= columns && permutations <= trials; k++) {
+			permutations *= k;
+		}
+		int count = (int) Math.min(permutations, trials);
+		int[][] labelings = new int[count][];
+
+		int[] labeling = new int[columns];
+		for(int j = 0; j < columns; j++) {
+			labeling[j] = j;
+		}
+		labelings[0] = labeling.clone();
+		Random random = new Random(columns);
+		for(int t = 1; t < count; t++) {
+			if(permutations <= trials) {
+				nextPermutation(labeling);
+			} else {
+				for(int j = columns - 1; j > 0; j--) {
+					int k = random.nextInt(j + 1);
+					int swap = labeling[j];
+					labeling[j] = labeling[k];
+					labeling[k] = swap;
+				}
+			}
+			labelings[t] = labeling.clone();
+		}
+		return labelings;
+	}
+
+	/** Rearranges an array into the next permutation in lexicographic order
+	 */
+	private static void nextPermutation(int[] a) {
+		int i = a.length - 2;
+		while(i >= 0 && a[i] >= a[i + 1]) {
+			i--;
+		}
+		if(i < 0) {
+			return;
+		}
+		int j = a.length - 1;
+		while(a[j] <= a[i]) {
+			j--;
+		}
+		int swap = a[i];
+		a[i] = a[j];
+		a[j] = swap;
+		for(int l = i + 1, r = a.length - 1; l < r; l++, r--) {
+			swap = a[l];
+			a[l] = a[r];
+			a[r] = swap;
+		}
+	}
+}
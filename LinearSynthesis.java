@@ -0,0 +1,109 @@
+/** Synthesizes reversible functions that are affine over GF(2) directly with CNOT and NOT gates.
+ *	A function is affine if f(x) = Ax ^ b for an n by n matrix A of bits and a vector b: identity
+ *	functions, NOT masks, XOR layers and permutations of the lines are all affine. Column j of A is
+ *	f(2^j) ^ f(0) and b is f(0), so the function is affine exactly when every row x satisfies
+ *	f(x) = f(x without its lowest 1 bit) ^ column of that bit. Checking this reads each row once
+ *	and stops at the first row that does not fit, which is usually one of the first few rows of a
+ *	function that is not affine.
+ *
+ *	The circuit for an affine function is found by Gaussian elimination on A. Each step of the
+ *	elimination adds one row of A to another, which is a CNOT gate, so A is the steps in reverse
+ *	order, followed by a single NOT gate for b. The circuit has at most n^2 + n gates and is found
+ *	in O(n^2) time once the table has been checked, where the transformation algorithms add gates
+ *	for all 2^n rows.
+ *
+ *	Elimination uses CNOT gates only, and a transformation algorithm, free to use Toffoli gates,
+ *	finds a smaller circuit for most affine functions; TransformationAlgorithms.shortcut keeps the
+ *	smaller of the two for small functions and takes this circuit unconditionally only for large
+ *	ones, where processing the rows is expensive.
+ *
+ * @author ian (ianH92)
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+public class LinearSynthesis {
+
+	/** Synthesizes a function if it is affine
+	 *	The table is left as it was.
+	 *
+	 * @param table The truth table of the reversible function.
+	 * @return The gates of the circuit that realizes the function, or null if it is not affine
+	 */
+	public static GateList synthesize(PermutationTable table) {
+		return synthesize(FunctionSource.of(table.lines(), table::forward));
+	}
+
+	/** Synthesizes a function if it is affine
+	 * @param function The reversible function.
+	 * @return The gates of the circuit that realizes the function, or null if it is not affine
+	 */
+	public static GateList synthesize(FunctionSource function) {
+		int columns = function.lines();
+		int rows = function.rows();
+		int constant = function.output(0);
+
+		// Column j of the matrix is the image of the unit vector of line j
+		int[] matrixColumns = new int[columns];
+		int outside = constant;
+		for(int j = 0; j < columns; j++) {
+			matrixColumns[j] = function.output(1 << j) ^ constant;
+			outside |= matrixColumns[j];
+		}
+		// Every output side is the constant and some of the columns added together, so if those are
+		// inside the table so is every row; otherwise the function is left for the table to reject
+		if((outside >>> columns) != 0) {
+			return null;
+		}
+		for(int x = 3; x < rows; x++) {
+			if((x & (x - 1)) == 0) {
+				continue;
+			}
+			int lowest = Integer.numberOfTrailingZeros(x);
+			if(function.output(x) != (function.output(x & (x - 1)) ^ matrixColumns[lowest])) {
+				return null;
+			}
+		}
+
+		// Row i of the matrix holds a 1 bit in column j if output line i depends on input line j
+		int[] matrixRows = new int[columns];
+		for(int j = 0; j < columns; j++) {
+			for(int i = 0; i < columns; i++) {
+				if((matrixColumns[j] & (1 << i)) != 0) {
+					matrixRows[i] |= (1 << j);
+				}
+			}
+		}
+
+		// Reduce the matrix to the identity, recording each row added to another as a CNOT gate
+		GateList steps = new GateList(columns);
+		for(int c = 0; c < columns; c++) {
+			int bit = (1 << c);
+			if((matrixRows[c] & bit) == 0) {
+				int pivot = c + 1;
+				while(pivot < columns && (matrixRows[pivot] & bit) == 0) {
+					pivot++;
+				}
+				if(pivot == columns) {
+					// Only possible if the function is not reversible
+					return null;
+				}
+				matrixRows[c] ^= matrixRows[pivot];
+				steps.add(1 << pivot, bit);
+			}
+			for(int r = 0; r < columns; r++) {
+				if(r != c && (matrixRows[r] & bit) != 0) {
+					matrixRows[r] ^= matrixRows[c];
+					steps.add(bit, 1 << r);
+				}
+			}
+		}
+
+		// Each step is its own inverse, so the matrix is the steps applied last first
+		GateList gates = new GateList(columns, steps.size() + 1);
+		gates.appendReversed(steps);
+		if(constant != 0) {
+			gates.add(0, constant);
+		}
+		return gates;
+	}
+}
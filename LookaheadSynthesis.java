@@ -0,0 +1,319 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/** The bidirectional algorithm with a lookahead of several rows when choosing each transformation.
+ *	The bidirectional algorithm chooses between the input and the output transformation for a row
+ *	by comparing two Hamming distances, which only looks at the row itself. With a lookahead of k,
+ *	both transformations are tried, and after each of them both transformations are tried again
+ *	for the next row that is not yet mapped to itself, and so on for k rows. The transformation at
+ *	the root of the branch that adds the fewest gates over the k rows is the one applied. When the
+ *	branches tie, the choice the bidirectional algorithm would make is kept.
+ *
+ *	A branch never copies or transforms the table. It keeps the gates it has added on each side
+ *	and reads a row by running the value through them around the shared table, which costs a few
+ *	dozen gates where a copy of the table costs 2^n rows; a branch only reads the rows it looks
+ *	ahead to. The branches near the root are evaluated as tasks of a fork-join pool.
+ *
+ *	The states a search reaches repeat in the next one: once a transformation is applied, the
+ *	search for the next row starts from the state its branch reached and explores the same
+ *	transformations as that branch for k - 1 rows. The explored transformations are kept as a tree
+ *	of the gates each added, and the branch taken becomes the root of the next search, so each
+ *	transformation is worked out once and only replayed after that. For k = 4 about half the
+ *	transformations a search explores are replayed. Two different branches of one search reaching
+ *	the same table is rare, so states are not compared across branches.
+ *
+ * @author ian (ianH92)
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+public class LookaheadSynthesis {
+	// Choices with fewer rows than this left to look ahead evaluate both branches on their own thread
+	private static final int FORK_REMAINING = 3;
+
+	private final int depth;
+	private final ForkJoinPool pool;
+
+	/** Creates a synthesis with a lookahead
+	 * @param depth The number of rows to look ahead, at least 1
+	 * @param pool The pool the branches are evaluated on
+	 */
+	public LookaheadSynthesis(int depth, ForkJoinPool pool) {
+		this.depth = Math.max(depth, 1);
+		this.pool = pool;
+	}
+
+	/** Runs the bidirectional algorithm with lookahead on a table, transforming it to the identity
+	 * @param table The truth table of the reversible function.
+	 * @return The gates of the circuit that realizes the Boolean function.
+	 */
+	public GateList synthesize(HeapPermutationTable table) throws UserInputException {
+		GateList shortcut = TransformationAlgorithms.shortcut(table, TransformationAlgorithms.BIDIRECTIONAL_ALGORITHM);
+		if(shortcut != null) {
+			return shortcut;
+		}
+		int rows = table.rows();
+		int columns = table.lines();
+		GateList inputGates = new GateList(columns);
+		GateList outputGates = new GateList(columns);
+
+		try {
+			Node root = new Node(null, false, nextRow(table, 0));
+			while(root.row < rows) {
+				int i = root.row;
+				// Bring both sides of the table up to date so the branches only ever read it
+				table.forward(0);
+				table.inverse(0);
+				int[] costs = this.pool.invoke(new Choice(root, new BranchTable(table), this.depth));
+				int outputCost = costs[0];
+				int inputCost = costs[1];
+
+				boolean useOutput;
+				if(outputCost != inputCost) {
+					useOutput = (outputCost < inputCost);
+				} else {
+					// Keep the choice of the bidirectional algorithm
+					int h1 = Integer.bitCount(i ^ table.forward(i));
+					int h2 = Integer.bitCount(i ^ table.inverse(i));
+					useOutput = (h1 <= h2);
+				}
+
+				if(useOutput) {
+					TransformationAlgorithms.outputTransformation(table, outputGates, i);
+				} else {
+					TransformationAlgorithms.inputTransformation(table, inputGates, i);
+				}
+				// The branch taken was explored k - 1 rows deep, and is the start of the next search
+				root = useOutput ? root.afterOutput : root.afterInput;
+			}
+		} catch(ArrayIndexOutOfBoundsException e) {
+			throw new UserInputException("Error: Entered function is not reversible.");
+		} catch(RuntimeException e) {
+			// A task joined from another thread wraps its exception once more for each thread
+			for(Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+				if(cause instanceof UserInputException) {
+					throw (UserInputException) cause;
+				}
+			}
+			throw e;
+		}
+
+		inputGates.appendReversed(outputGates);
+		return inputGates;
+	}
+
+	/** Finds the first row from a row on that does not yet map to itself
+	 *	Row 0 is always returned, since the first step of the output transformation is special.
+	 *
+	 * @return The row, or the number of rows if every row maps to itself
+	 */
+	private static int nextRow(TransformableTable table, int from) {
+		int rows = table.rows();
+		int i = from;
+		while(i > 0 && i < rows && table.forward(i) == i) {
+			i++;
+		}
+		return i;
+	}
+
+	/** A transformation explored by the lookahead, kept for as long as it can still be taken
+	 *	A node holds the gates its transformation added, the row the choice after it is made at, and
+	 *	the nodes of both transformations of that row once they have been explored. Each node is
+	 *	only written by the task that explores it, before that task is joined.
+	 */
+	private static class Node {
+		// The gates added, or null for the state the search starts from
+		final GateList gates;
+		final boolean output;
+		final int row;
+		Node afterOutput;
+		Node afterInput;
+
+		Node(GateList gates, boolean output, int row) {
+			this.gates = gates;
+			this.output = output;
+			this.row = row;
+		}
+
+		/** Returns the number of gates the transformation added
+		 */
+		int size() {
+			return this.gates.size();
+		}
+
+		/** Adds the gates of the transformation to a branch again without reading any of its rows
+		 */
+		void replay(BranchTable table) {
+			for(int g = 0; g < this.gates.size(); g++) {
+				if(this.output) {
+					table.transformOutputs(this.gates.target(g), this.gates.controlLines(g));
+				} else {
+					table.transformInputs(this.gates.target(g), this.gates.controlLines(g));
+				}
+			}
+		}
+	}
+
+	/** Both transformations of a row, each evaluated as a branch of its own
+	 */
+	private static class Choice extends RecursiveTask<int[]> {
+		private static final long serialVersionUID = 1L;
+
+		private final Node node;
+		private final BranchTable table;
+		private final int remaining;
+
+		Choice(Node node, BranchTable table, int remaining) {
+			this.node = node;
+			this.table = table;
+			this.remaining = remaining;
+		}
+
+		/** Returns the cost of the output transformation and the cost of the input transformation
+		 */
+		@Override
+		protected int[] compute() {
+			Branch input = new Branch(this.node, this.table, this.remaining, false);
+			Branch output = new Branch(this.node, this.table, this.remaining, true);
+			if(this.remaining < FORK_REMAINING) {
+				// The branches below here are too small to be worth a task of their own
+				return new int[] {output.compute(), input.compute()};
+			}
+			input.fork();
+			int outputCost = output.compute();
+			return new int[] {outputCost, input.join()};
+		}
+	}
+
+	/** One transformation of a row and the best continuation after it
+	 */
+	private static class Branch extends RecursiveTask<Integer> {
+		private static final long serialVersionUID = 1L;
+
+		private final Node parent;
+		private final BranchTable table;
+		private final int remaining;
+		private final boolean output;
+
+		Branch(Node parent, BranchTable table, int remaining, boolean output) {
+			this.parent = parent;
+			this.table = table;
+			this.remaining = remaining;
+			this.output = output;
+		}
+
+		/** Returns the number of gates added by this transformation and the best of the next rows
+		 *	A transformation explored in the search for an earlier row is replayed from its node
+		 *	rather than worked out again.
+		 */
+		@Override
+		protected Integer compute() {
+			BranchTable branch = new BranchTable(this.table);
+			Node node = this.output ? this.parent.afterOutput : this.parent.afterInput;
+			if(node != null) {
+				node.replay(branch);
+			} else {
+				GateList gates = new GateList(branch.lines());
+				try {
+					if(this.output) {
+						TransformationAlgorithms.outputTransformation(branch, gates, this.parent.row);
+					} else {
+						TransformationAlgorithms.inputTransformation(branch, gates, this.parent.row);
+					}
+				} catch(UserInputException e) {
+					throw new RuntimeException(e);
+				}
+				node = new Node(gates, this.output, nextRow(branch, this.parent.row + 1));
+				if(this.output) {
+					this.parent.afterOutput = node;
+				} else {
+					this.parent.afterInput = node;
+				}
+			}
+
+			if(this.remaining <= 1 || node.row >= branch.rows()) {
+				return node.size();
+			}
+			int[] costs = new Choice(node, branch, this.remaining - 1).compute();
+			return node.size() + Math.min(costs[0], costs[1]);
+		}
+	}
+
+	/** A table as a branch sees it: the shared table with the gates the branch has added around it
+	 *	The output gates are applied after the shared table and the input gates before it, so a row
+	 *	is read by running its value through the gates of the branch, a few dozen at most, and a
+	 *	transformation only appends its gate to a list. The shared table is only read, by every
+	 *	branch at once.
+	 */
+	private static class BranchTable implements TransformableTable {
+		private final PermutationTable shared;
+		private int[] outputGates;
+		private int outputCount;
+		private int[] inputGates;
+		private int inputCount;
+
+		/** Creates a branch with no gates of its own
+		 * @param shared The table, with both of its sides up to date
+		 */
+		BranchTable(PermutationTable shared) {
+			this.shared = shared;
+			this.outputGates = new int[16];
+			this.inputGates = new int[16];
+		}
+
+		/** Creates a branch that starts with the gates of another
+		 */
+		BranchTable(BranchTable other) {
+			this.shared = other.shared;
+			this.outputGates = other.outputGates.clone();
+			this.outputCount = other.outputCount;
+			this.inputGates = other.inputGates.clone();
+			this.inputCount = other.inputCount;
+		}
+
+		@Override
+		public int lines() {
+			return this.shared.lines();
+		}
+
+		@Override
+		public int forward(int x) {
+			for(int i = 2 * (this.inputCount - 1); i >= 0; i -= 2) {
+				if((x & this.inputGates[i]) == this.inputGates[i]) {
+					x ^= this.inputGates[i + 1];
+				}
+			}
+			return PermutationTable.applyGates(this.shared.forward(x), this.outputGates, this.outputCount);
+		}
+
+		@Override
+		public int inverse(int y) {
+			for(int i = 2 * (this.outputCount - 1); i >= 0; i -= 2) {
+				if((y & this.outputGates[i]) == this.outputGates[i]) {
+					y ^= this.outputGates[i + 1];
+				}
+			}
+			return PermutationTable.applyGates(this.shared.inverse(y), this.inputGates, this.inputCount);
+		}
+
+		@Override
+		public void transformOutputs(int target, int controlLines) {
+			if(2 * this.outputCount == this.outputGates.length) {
+				this.outputGates = Arrays.copyOf(this.outputGates, 2 * this.outputGates.length);
+			}
+			this.outputGates[2 * this.outputCount] = controlLines;
+			this.outputGates[(2 * this.outputCount) + 1] = target;
+			this.outputCount++;
+		}
+
+		@Override
+		public void transformInputs(int target, int controlLines) {
+			if(2 * this.inputCount == this.inputGates.length) {
+				this.inputGates = Arrays.copyOf(this.inputGates, 2 * this.inputGates.length);
+			}
+			this.inputGates[2 * this.inputCount] = controlLines;
+			this.inputGates[(2 * this.inputCount) + 1] = target;
+			this.inputCount++;
+		}
+	}
+}
@@ -0,0 +1,137 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/** A PermutationTable whose forward and inverse arrays live in memory-mapped files.
+ *	The arrays are stored in two temporary files that are mapped into memory in segments, so the
+ *	operating system pages them in and out as needed and the size of the table is limited by the
+ *	disk and physical memory rather than by the Java heap. This allows functions with up to 30
+ *	inputs, whose tables take 4 GiB for each array, to be synthesized. The files are deleted when
+ *	the table is closed.
+ *
+ * @author ian (ianH92)
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+public class MappedPermutationTable extends PermutationTable {
+	// Each mapped segment holds 2^26 ints, 256 MiB
+	private static final int SEGMENT_SHIFT = 26;
+	private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+
+	private final File forwardFile;
+	private final File inverseFile;
+	private final IntBuffer[] forward;
+	private final IntBuffer[] inverse;
+
+	/** Creates an empty table backed by temporary files in a directory
+	 * @param lines The number of inputs to the Boolean function, at most 30
+	 * @param directory The directory to create the files in, or null for the default temp directory
+	 */
+	public MappedPermutationTable(int lines, File directory) throws IOException {
+		super(lines);
+		this.forwardFile = File.createTempFile("tsp-forward-", ".table", directory);
+		this.inverseFile = File.createTempFile("tsp-inverse-", ".table", directory);
+		this.forwardFile.deleteOnExit();
+		this.inverseFile.deleteOnExit();
+
+		try {
+			this.forward = mapFile(this.forwardFile, this.rows);
+			this.inverse = mapFile(this.inverseFile, this.rows);
+		} catch(IOException e) {
+			close();
+			throw e;
+		}
+	}
+
+	/** Maps a file holding a number of ints into memory as a series of segments
+	 * @param file The file to map, which is grown to the size needed
+	 * @param length The number of ints the file holds
+	 * @return The segments of the file
+	 */
+	private static IntBuffer[] mapFile(File file, int length) throws IOException {
+		int segments = ((length - 1) >>> SEGMENT_SHIFT) + 1;
+		IntBuffer[] buffers = new IntBuffer[segments];
+
+		try(RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.setLength(4L * length);
+			FileChannel channel = raf.getChannel();
+			for(int i = 0; i < segments; i++) {
+				long start = ((long) i) << SEGMENT_SHIFT;
+				long size = Math.min(1L << SEGMENT_SHIFT, length - start);
+				MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, 4L * start, 4L * size);
+				// The mapping stays valid after the channel is closed
+				buffers[i] = segment.order(ByteOrder.nativeOrder()).asIntBuffer();
+			}
+		}
+		return buffers;
+	}
+
+	@Override
+	protected int readForward(int x) {
+		return this.forward[x >>> SEGMENT_SHIFT].get(x & SEGMENT_MASK);
+	}
+
+	@Override
+	protected void writeForward(int x, int value) {
+		this.forward[x >>> SEGMENT_SHIFT].put(x & SEGMENT_MASK, value);
+	}
+
+	@Override
+	protected int readInverse(int y) {
+		return this.inverse[y >>> SEGMENT_SHIFT].get(y & SEGMENT_MASK);
+	}
+
+	@Override
+	protected void writeInverse(int y, int value) {
+		this.inverse[y >>> SEGMENT_SHIFT].put(y & SEGMENT_MASK, value);
+	}
+
+	@Override
+	protected void transformForwardValues(int from, int to, int[] gates, int count) {
+		transformSegments(this.forward, from, to, gates, count);
+	}
+
+	@Override
+	protected void transformInverseValues(int from, int to, int[] gates, int count) {
+		transformSegments(this.inverse, from, to, gates, count);
+	}
+
+	/** Applies gates to a range of a mapped array one segment at a time
+	 * @param segments The segments of the array
+	 * @param from The first entry to transform
+	 * @param to The entry after the last to transform
+	 * @param gates The control lines and target of each gate, in the order they are applied
+	 * @param count The number of gates
+	 */
+	private static void transformSegments(IntBuffer[] segments, int from, int to, int[] gates, int count) {
+		int x = from;
+		while(x < to) {
+			IntBuffer segment = segments[x >>> SEGMENT_SHIFT];
+			int start = x & SEGMENT_MASK;
+			int end = start + Math.min(to - x, segment.capacity() - start);
+			for(int i = start; i < end; i++) {
+				int val = segment.get(i);
+				int transformed = applyGates(val, gates, count);
+				if(transformed != val) {
+					segment.put(i, transformed);
+				}
+			}
+			x += (end - start);
+		}
+	}
+
+	/** Deletes the files backing the table
+	 *	The mappings themselves are released by the garbage collector once the table is no longer
+	 *	referenced; on systems that do not allow mapped files to be deleted the files are removed
+	 *	when the program exits.
+	 */
+	@Override
+	public void close() {
+		this.forwardFile.delete();
+		this.inverseFile.delete();
+	}
+}
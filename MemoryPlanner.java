@@ -0,0 +1,230 @@
+import java.io.File;
+import java.io.IOException;
+
+/** Estimates the memory a synthesis will need before it starts and chooses where to keep its data.
+ *	A synthesis keeps the forward and inverse arrays of its table, 8 bytes a row, and the gates it
+ *	finds, 8 bytes a gate. The transformation algorithms find about n 2^n / 2 gates for a function
+ *	of n lines and the cycle algorithm about 1.1 n 2^n, which is what a random function needs and
+ *	more than most functions with structure. A list of gates on the heap grows by half again as it
+ *	fills and the input and output gates are joined at the end, so the heap holds up to 2.5 times
+ *	the gates while the circuit is assembled; a spilled list keeps only its tail on the heap and
+ *	writes the input and output gates and then the joined circuit to its file.
+ *
+ *	The layouts are tried cheapest first: table and gates on the heap, the gates spilled to files,
+ *	the table mapped from files, and both in files. The first layout whose heap and file estimates
+ *	fit the budgets is chosen. The estimate is for a random function and many functions need far
+ *	fewer gates, so if none fits the layout needing the least heap is chosen, and a gate list that
+ *	really outgrows its memory or index fails then. Only a function whose table alone fits no
+ *	layout is rejected at once, with the memory it needs, rather than failing with an
+ *	OutOfMemoryError after minutes of work.
+ *
+ * @author ian (ianH92)
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+public class MemoryPlanner {
+	// Only this much of the free heap is planned for, leaving room for everything else
+	private static final double HEAP_MARGIN = 0.9;
+	// The heap used by a table or gate list kept in files
+	private static final long MAPPED_HEAP_BYTES = 1 << 16;
+	private static final long SPILLED_HEAP_BYTES = 16L * SpilledGateList.BLOCK_GATES;
+	private static final long MEGABYTE = 1 << 20;
+
+	private final long heapBudget;
+	private final long offHeapBudget;
+	private final File directory;
+
+	/** Creates a planner for a heap and a directory of files
+	 * @param heapBudget The bytes of heap the synthesis may use
+	 * @param offHeapBudget The bytes of mapped and spilled files the synthesis may use, 0 for none
+	 * @param directory The directory files are created in, or null for the default temp directory
+	 */
+	public MemoryPlanner(long heapBudget, long offHeapBudget, File directory) {
+		this.heapBudget = heapBudget;
+		this.offHeapBudget = offHeapBudget;
+		this.directory = directory;
+	}
+
+	/** Creates a planner for the heap free in this JVM and the space free in a directory
+	 * @param directory The directory files are created in, or null for the default temp directory
+	 */
+	public static MemoryPlanner available(File directory) {
+		File files = (directory != null) ? directory : new File(System.getProperty("java.io.tmpdir"));
+		return new MemoryPlanner(freeHeap(), files.getUsableSpace(), directory);
+	}
+
+	/** Creates a planner for the heap free in this JVM, for syntheses that keep everything on the heap
+	 */
+	public static MemoryPlanner heapOnly() {
+		return new MemoryPlanner(freeHeap(), 0, null);
+	}
+
+	/** Returns the bytes of heap the synthesis may use
+	 */
+	public long heapBudget() {
+		return this.heapBudget;
+	}
+
+	/** Returns the heap this JVM can still allocate, less a margin
+	 */
+	private static long freeHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		long used = runtime.totalMemory() - runtime.freeMemory();
+		return (long) (HEAP_MARGIN * (runtime.maxMemory() - used));
+	}
+
+	/** Returns the number of gates a synthesis is expected to find
+	 * @param lines The number of inputs to the Boolean function
+	 * @param algorithm One of the algorithm flags.
+	 */
+	public static long estimateGates(int lines, int algorithm) {
+		long symbols = (long) lines << lines;
+		if(algorithm == TransformationAlgorithms.CYCLE_ALGORITHM) {
+			return symbols + (symbols / 10);
+		}
+		return symbols / 2;
+	}
+
+	/** Chooses the cheapest layout whose memory fits the budgets
+	 *	The number of gates is only an estimate, so it is used to choose the layout and never to
+	 *	reject a function: if no layout fits with the gates estimated, the layout needing the least
+	 *	heap is chosen as long as the table fits, and the synthesis fails only if its circuit really
+	 *	grows too large.
+	 *
+	 * @param lines The number of inputs to the Boolean function
+	 * @param algorithm One of the algorithm flags.
+	 * @param specification True if the truth table is also held on the heap as a PermutationModel
+	 * @param checkpoints True if checkpoints are streamed to a file through a buffer
+	 * @return The layout chosen
+	 */
+	public Plan plan(int lines, int algorithm, boolean specification, boolean checkpoints) throws UserInputException {
+		if(lines < 1 || lines > 30) {
+			throw new UserInputException("Error: Functions must have from 1 to 30 inputs.");
+		}
+		long rows = 1L << lines;
+		long gates = estimateGates(lines, algorithm);
+
+		// The specification and the checkpoint buffer are needed whatever the gates
+		long fixedHeap = (specification ? 4 * rows : 0) + (checkpoints ? MEGABYTE : 0);
+		long tableBytes = 8 * rows;
+		long heapGateBytes = 20 * gates;
+		boolean heapGatesFit = gates <= GateList.MAX_GATES;
+
+		// Without room for files only the first layout is tried
+		Plan fallback = null;
+		Plan tried = null;
+		for(int layout = 0; layout < ((this.offHeapBudget > 0) ? 4 : 1); layout++) {
+			boolean mappedTable = (layout >= 2);
+			boolean spilledGates = ((layout & 1) != 0);
+			long tableHeap = fixedHeap + (mappedTable ? MAPPED_HEAP_BYTES : tableBytes) +
+							(spilledGates ? 2 * SPILLED_HEAP_BYTES : 0);
+			long tableOffHeap = mappedTable ? tableBytes : 0;
+			long heap = tableHeap + (spilledGates ? 0 : heapGateBytes);
+			long offHeap = tableOffHeap + (spilledGates ? 16 * gates : 0);
+			if((spilledGates || heapGatesFit) && heap <= this.heapBudget && offHeap <= this.offHeapBudget) {
+				return new Plan(lines, mappedTable, spilledGates, gates, heap, offHeap, true);
+			}
+			tried = new Plan(lines, mappedTable, spilledGates, gates, tableHeap, tableOffHeap, false);
+			if(tableHeap <= this.heapBudget && tableOffHeap <= this.offHeapBudget) {
+				fallback = tried;
+			}
+		}
+		if(fallback == null) {
+			// The last layout tried needs the least heap
+			throw new UserInputException("Error: A function of " + lines + " inputs needs at least " +
+										(tried.heapBytes / MEGABYTE) + " MB of heap and " +
+										(tried.offHeapBytes / MEGABYTE) + " MB of files for its table, but only " +
+										(this.heapBudget / MEGABYTE) + " MB of heap and " +
+										(this.offHeapBudget / MEGABYTE) + " MB of files are available.");
+		}
+		return fallback;
+	}
+
+	/** Where the table and gates of a synthesis are kept, and the memory they are expected to need
+	 */
+	public class Plan {
+		private final int lines;
+		private final boolean mappedTable;
+		private final boolean spilledGates;
+		private final long gates;
+		private final long heapBytes;
+		private final long offHeapBytes;
+		private final boolean fitsEstimate;
+
+		private Plan(int lines, boolean mappedTable, boolean spilledGates, long gates, long heapBytes,
+		long offHeapBytes, boolean fitsEstimate) {
+			this.lines = lines;
+			this.mappedTable = mappedTable;
+			this.spilledGates = spilledGates;
+			this.gates = gates;
+			this.heapBytes = heapBytes;
+			this.offHeapBytes = offHeapBytes;
+			this.fitsEstimate = fitsEstimate;
+		}
+
+		/** Returns true if the memory needed for the estimated number of gates fits the budgets
+		 *	Otherwise only the table is known to fit, and the synthesis fails if the circuit grows
+		 *	larger than the budgets allow.
+		 */
+		public boolean fitsEstimate() {
+			return this.fitsEstimate;
+		}
+
+		/** Returns true if the table is mapped from files rather than kept on the heap
+		 */
+		public boolean mappedTable() {
+			return this.mappedTable;
+		}
+
+		/** Returns true if the gates are spilled to files rather than kept on the heap
+		 */
+		public boolean spilledGates() {
+			return this.spilledGates;
+		}
+
+		/** Returns the bytes of heap the synthesis is expected to need, or the table needs if the
+		 *	estimate does not fit
+		 */
+		public long heapBytes() {
+			return this.heapBytes;
+		}
+
+		/** Returns the bytes of files the synthesis is expected to need, or the table needs if the
+		 *	estimate does not fit
+		 */
+		public long offHeapBytes() {
+			return this.offHeapBytes;
+		}
+
+		/** Creates an empty table laid out as planned
+		 */
+		public PermutationTable createTable() throws IOException {
+			if(this.mappedTable) {
+				return new MappedPermutationTable(this.lines, MemoryPlanner.this.directory);
+			}
+			return new HeapPermutationTable(this.lines);
+		}
+
+		/** Creates an empty list of gates laid out as planned
+		 * @param capacity The number of gates to make room for on the heap
+		 */
+		public GateList createGates(int capacity) throws IOException {
+			if(this.spilledGates) {
+				return new SpilledGateList(this.lines, MemoryPlanner.this.directory);
+			}
+			return new GateList(this.lines, capacity);
+		}
+
+		@Override
+		public String toString() {
+			if(!this.fitsEstimate) {
+				return (this.mappedTable ? "mapped" : "heap") + " table, " + (this.spilledGates ? "spilled" : "heap") +
+						" gates: " + (this.heapBytes / MEGABYTE) + " MB of heap and " + (this.offHeapBytes / MEGABYTE) +
+						" MB of files for the table; about " + this.gates + " gates would not fit";
+			}
+			return (this.mappedTable ? "mapped" : "heap") + " table, " + (this.spilledGates ? "spilled" : "heap") +
+					" gates: about " + this.gates + " gates, " + (this.heapBytes / MEGABYTE) + " MB of heap and " +
+					(this.offHeapBytes / MEGABYTE) + " MB of files";
+		}
+	}
+}
@@ -0,0 +1,148 @@
+/** A packed model of the truth table of a reversible Boolean function.
+ *	The model holds a single int for each row of the truth table; the int is the numeric value of
+ *	the output side of that row, in the same form the transformation algorithms use, or UNSET if the
+ *	row has not been entered yet. The most significant bit of the value is the first column of the
+ *	row as it is written in the truth table.
+ *
+ * @author ian (ianH92)
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+public class PermutationModel {
+	/** The value held by a row that has not been entered */
+	public static final int UNSET = -1;
+
+	private final int lines;
+	private final int[] outputs;
+
+	/** Creates an empty model with all rows unset
+	 * @param lines The number of inputs to the Boolean function
+	 */
+	public PermutationModel(int lines) {
+		this.lines = lines;
+		this.outputs = new int[1 << lines];
+		clear();
+	}
+
+	/** Returns the number of inputs to the Boolean function
+	 */
+	public int lines() {
+		return this.lines;
+	}
+
+	/** Returns the number of rows in the truth table
+	 */
+	public int rows() {
+		return this.outputs.length;
+	}
+
+	/** Returns the numeric value of the output side of a row, or UNSET
+	 * @param row The row of the truth table
+	 */
+	public int getOutput(int row) {
+		return this.outputs[row];
+	}
+
+	/** Sets the numeric value of the output side of a row
+	 * @param row The row of the truth table
+	 * @param value The value of the output side, or UNSET
+	 */
+	public void setOutput(int row, int value) {
+		this.outputs[row] = value;
+	}
+
+	/** Sets every row of the model to UNSET
+	 */
+	public void clear() {
+		java.util.Arrays.fill(this.outputs, UNSET);
+	}
+
+	/** Returns the text of a row as it is entered in the truth table, or an empty string if unset
+	 * @param row The row of the truth table
+	 */
+	public String getText(int row) {
+		int value = this.outputs[row];
+		if(value == UNSET) {
+			return "";
+		}
+		return binaryString(value, this.lines);
+	}
+
+	/** Converts the text of a row of the truth table into the numeric value of the output side
+	 * @param text The text of the row, one character of 1 or 0 for each input
+	 * @param row The row the text was entered in, used for error messages
+	 * @return The numeric value of the output side of the row
+	 */
+	public int parseRow(String text, int row) throws UserInputException {
+		if(text.length() != this.lines) {
+			throw new UserInputException("Excessive or Insufficient input in row " + row + ".");
+		}
+
+		int value = 0;
+		for(int j = 0; j < this.lines; j++) {
+			char tmp = text.charAt(j);
+			if(tmp == '1') {
+				value = (value << 1) | 1;
+			} else if(tmp == '0') {
+				value = (value << 1);
+			} else {
+				throw new UserInputException("Invalid character in row " + row + ", at column " + j + ".");
+			}
+		}
+		return value;
+	}
+
+	/** Checks that every row of the model has been entered
+	 */
+	public void validate() throws UserInputException {
+		for(int i = 0; i < this.outputs.length; i++) {
+			if(this.outputs[i] == UNSET) {
+				throw new UserInputException("Excessive or Insufficient input in row " + i + ".");
+			}
+		}
+	}
+
+	/** Creates a copy of the model that does not change when this model is edited
+	 */
+	public PermutationModel copy() {
+		PermutationModel copy = new PermutationModel(this.lines);
+		System.arraycopy(this.outputs, 0, copy.outputs, 0, this.outputs.length);
+		return copy;
+	}
+
+	/** Converts the model to the double int array representation used by the algorithms
+	 *	Each row of the array holds a 1 or a 0 for each column of the truth table.
+	 *
+	 * @return The int[][] representation of the truth table
+	 */
+	public int[][] toUserInput() throws UserInputException {
+		int rows = this.outputs.length;
+		int[][] input = new int[rows][this.lines];
+		int maxIndex = this.lines - 1;
+
+		for(int i = 0; i < rows; i++) {
+			int value = this.outputs[i];
+			if(value == UNSET) {
+				throw new UserInputException("Excessive or Insufficient input in row " + i + ".");
+			}
+			for(int j = 0; j < this.lines; j++) {
+				input[i][j] = (value >>> (maxIndex - j)) & 1;
+			}
+		}
+		return input;
+	}
+
+	/** Pads the binary rep of a number with an appropriate number of zeros
+	 * @param value The number to represent
+	 * @param width The number of digits in the representation
+	 * @return The binary representation of the number with exactly width digits
+	 */
+	public static String binaryString(int value, int width) {
+		char[] digits = new char[width];
+		for(int j = width - 1; j >= 0; j--) {
+			digits[j] = ((value & 1) != 0) ? '1' : '0';
+			value >>>= 1;
+		}
+		return new String(digits);
+	}
+}
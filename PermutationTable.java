@@ -0,0 +1,438 @@
+import java.nio.IntBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/** The truth table of a reversible Boolean function in the form used by the algorithms.
+ *	A reversible function on n inputs is a permutation of the numbers [0, 2^n), so the table holds
+ *	it as two arrays of 2^n ints: the forward array, where forward(x) is the output side of the row
+ *	with input side x, and the inverse array, where inverse(y) is the input side of the row with
+ *	output side y. Subclasses decide where the two arrays are stored, which lets the algorithms run
+ *	on tables that do not fit on the Java heap.
+ *
+ *	Transforming the output side of the table only updates the forward array and transforming the
+ *	input side only updates the inverse array; the other array is marked stale and rebuilt from the
+ *	updated one the next time it is read. The output and input algorithms each only read one side
+ *	of the table, so they never pay for keeping the other side up to date.
+ *
+ *	Gates are not applied to the array the moment they are added. Up to MAX_FUSED_GATES gates are
+ *	kept pending and run through each value as it is read, and are then applied together in one
+ *	pass over the array, so the array is streamed through memory once for several gates. Tables
+ *	with at least the parallel threshold of rows split each pass into chunks of CHUNK_ROWS rows,
+ *	small enough to stay in cache, and run the chunks on a fork-join pool shared by every table.
+ *
+ * @author ian (ianH92)
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+public abstract class PermutationTable implements TransformableTable {
+	/** The largest number of gates applied to the table in one pass */
+	public static final int MAX_FUSED_GATES = 8;
+	/** The number of rows in each chunk of a pass done in parallel */
+	public static final int CHUNK_ROWS = 1 << 16;
+
+	private static final ForkJoinPool POOL = new ForkJoinPool();
+	private static volatile int parallelThreshold = 1 << 20;
+
+	protected final int lines;
+	protected final int rows;
+	private boolean forwardStale = false;
+	private boolean inverseStale = false;
+
+	// The gates not yet applied, as pairs of control lines and target, and the side they apply to
+	private final int[] pending = new int[2 * MAX_FUSED_GATES];
+	private int pendingCount = 0;
+	private boolean pendingForward = true;
+
+	/** Creates a table for a function with the given number of inputs
+	 * @param lines The number of inputs to the Boolean function, at most 30
+	 */
+	protected PermutationTable(int lines) {
+		this.lines = lines;
+		this.rows = (1 << lines);
+	}
+
+	/** Reads an entry of the forward array without checking whether it is stale */
+	protected abstract int readForward(int x);
+
+	/** Writes an entry of the forward array */
+	protected abstract void writeForward(int x, int value);
+
+	/** Reads an entry of the inverse array without checking whether it is stale */
+	protected abstract int readInverse(int y);
+
+	/** Writes an entry of the inverse array */
+	protected abstract void writeInverse(int y, int value);
+
+	/** Sets the number of rows from which passes over a table are split and run in parallel
+	 * @param rows The number of rows; tables with fewer rows are always transformed on one thread
+	 */
+	public static void setParallelThreshold(int rows) {
+		parallelThreshold = Math.max(rows, CHUNK_ROWS);
+	}
+
+	/** Returns the number of rows from which passes over a table are run in parallel
+	 */
+	public static int parallelThreshold() {
+		return parallelThreshold;
+	}
+
+	/** Returns the number of inputs to the Boolean function
+	 */
+	@Override
+	public int lines() {
+		return this.lines;
+	}
+
+	/** Returns the number of rows in the table
+	 */
+	@Override
+	public int rows() {
+		return this.rows;
+	}
+
+	/** Returns the output side of the row whose input side is x
+	 * @param x The input side of the row
+	 */
+	@Override
+	public int forward(int x) {
+		if(this.forwardStale) {
+			applyPending();
+			forEachChunk(this::invertInverse);
+			this.forwardStale = false;
+		}
+		int value = readForward(x);
+		if(this.pendingCount > 0 && this.pendingForward) {
+			value = applyGates(value, this.pending, this.pendingCount);
+		}
+		return value;
+	}
+
+	/** Returns the input side of the row whose output side is y
+	 * @param y The output side of the row
+	 */
+	@Override
+	public int inverse(int y) {
+		if(this.inverseStale) {
+			applyPending();
+			forEachChunk(this::invertForward);
+			this.inverseStale = false;
+		}
+		int value = readInverse(y);
+		if(this.pendingCount > 0 && !this.pendingForward) {
+			value = applyGates(value, this.pending, this.pendingCount);
+		}
+		return value;
+	}
+
+	/** Loads the table from the userInput representation of the truth table
+	 *	Each row of userInput holds a 1 or a 0 for each column of the truth table, with the first
+	 *	column being the most significant bit of the output side.
+	 *
+	 * @param userInput The array representation of the truth table.
+	 */
+	public void load(int[][] userInput) throws UserInputException {
+		if(userInput.length != this.rows) {
+			throw new UserInputException("Error: Entered function is not reversible.");
+		}
+
+		int maxIndex = this.lines - 1;
+		for(int i = 0; i < this.rows; i++) {
+			int[] row = userInput[i];
+			if(row == null || row.length != this.lines) {
+				throw new UserInputException("Error: Entered function is not reversible.");
+			}
+
+			int sum = 0;
+			for(int j = 0; j < this.lines; j++) {
+				if(row[j] == 1) {
+					// Convert the user input to a number for easy manipulation.
+					sum |= (1 << (maxIndex - j));
+				}
+			}
+			writeForward(i, sum);
+		}
+		this.forwardStale = false;
+		loadInverse();
+	}
+
+	/** Loads the table from a model of the truth table
+	 *	The model holds the output side of each row in the same form as the forward array, so it is
+	 *	copied across directly; a row that is unset makes the function irreversible.
+	 *
+	 * @param model The model of the truth table, with the same number of inputs as the table.
+	 */
+	public void load(PermutationModel model) throws UserInputException {
+		if(model.lines() != this.lines) {
+			throw new UserInputException("Error: Entered function is not reversible.");
+		}
+		for(int i = 0; i < this.rows; i++) {
+			writeForward(i, model.getOutput(i));
+		}
+		this.forwardStale = false;
+		loadInverse();
+	}
+
+	/** Loads the table from the output side of every row
+	 * @param outputs The output side of each row, in the same form as the forward array.
+	 */
+	public void load(int[] outputs) throws UserInputException {
+		if(outputs.length != this.rows) {
+			throw new UserInputException("Error: Entered function is not reversible.");
+		}
+		for(int i = 0; i < this.rows; i++) {
+			writeForward(i, outputs[i]);
+		}
+		this.forwardStale = false;
+		loadInverse();
+	}
+
+	/** Loads a run of rows of the table from the output side of each, as they are read
+	 *	A table too large to copy onto the heap whole, such as one read from a checkpoint, is loaded
+	 *	a run at a time; finishLoading checks the function and builds the inverse array once every
+	 *	row has been loaded.
+	 *
+	 * @param from The input side of the first row of the run
+	 * @param outputs The output side of each row of the run, in the same form as the forward array.
+	 */
+	public void loadRows(int from, IntBuffer outputs) throws UserInputException {
+		if(from < 0 || outputs.remaining() > this.rows - from) {
+			throw new UserInputException("Error: Entered function is not reversible.");
+		}
+		this.pendingCount = 0;
+		while(outputs.hasRemaining()) {
+			writeForward(from++, outputs.get());
+		}
+	}
+
+	/** Finishes loading a table whose rows were loaded with loadRows
+	 */
+	public void finishLoading() throws UserInputException {
+		this.forwardStale = false;
+		loadInverse();
+	}
+
+	/** Loads the table straight from a source of the rows of a function
+	 *	The forward array is filled in a single pass, in parallel chunks for large tables.
+	 *
+	 * @param source The function, with the same number of inputs as the table.
+	 */
+	public void load(FunctionSource source) throws UserInputException {
+		if(source.lines() != this.lines) {
+			throw new UserInputException("Error: Entered function is not reversible.");
+		}
+		this.pendingCount = 0;
+		forEachChunk((from, to) -> {
+			for(int x = from; x < to; x++) {
+				writeForward(x, source.output(x));
+			}
+		});
+		this.forwardStale = false;
+		loadInverse();
+	}
+
+	/** Builds the inverse array from a freshly written forward array
+	 *	The inverse array is filled with -1 first so that two rows with the same output side, which
+	 *	would make the function irreversible, are caught while it is built.
+	 */
+	protected void loadInverse() throws UserInputException {
+		this.pendingCount = 0;
+		for(int y = 0; y < this.rows; y++) {
+			writeInverse(y, -1);
+		}
+		for(int x = 0; x < this.rows; x++) {
+			int y = readForward(x);
+			if(y < 0 || y >= this.rows || readInverse(y) != -1) {
+				throw new UserInputException("Error: Entered function is not reversible.");
+			}
+			writeInverse(y, x);
+		}
+		this.inverseStale = false;
+	}
+
+	/** Transforms the output side of the table with a gate
+	 *	Every output side value that has 1 bits wherever controlLines has 1 bits has the bits where
+	 *	target is 1 flipped.
+	 *
+	 * @param target Represents the bit(s) to be flipped with 1s, 0s in non-target positions.
+	 * @param controlLines Represents the control lines with 1 bits.
+	 */
+	@Override
+	public void transformOutputs(int target, int controlLines) {
+		forward(0);
+		addPending(true, target, controlLines);
+		this.inverseStale = true;
+	}
+
+	/** Transforms the output side of the table with several gates in one pass
+	 * @param gates The control lines and target of each gate, in the order they are applied
+	 * @param count The number of gates
+	 */
+	public void transformOutputs(int[] gates, int count) {
+		forward(0);
+		applyPending();
+		forEachChunk((from, to) -> transformForwardValues(from, to, gates, count));
+		this.inverseStale = true;
+	}
+
+	/** Transforms the input side of the table with a gate
+	 *	Every input side value that has 1 bits wherever controlLines has 1 bits has the bits where
+	 *	target is 1 flipped.
+	 *
+	 * @param target Represents the bit(s) to be flipped with 1s, 0s in non-target positions.
+	 * @param controlLines Represents the control lines with 1 bits.
+	 */
+	@Override
+	public void transformInputs(int target, int controlLines) {
+		inverse(0);
+		addPending(false, target, controlLines);
+		this.forwardStale = true;
+	}
+
+	/** Adds a gate to those pending, applying them all first if they are for the other side
+	 * @param forward True if the gate applies to the forward array
+	 */
+	private void addPending(boolean forward, int target, int controlLines) {
+		if(this.pendingCount > 0 && this.pendingForward != forward) {
+			applyPending();
+		}
+		this.pendingForward = forward;
+		this.pending[2 * this.pendingCount] = controlLines;
+		this.pending[(2 * this.pendingCount) + 1] = target;
+		this.pendingCount++;
+		if(this.pendingCount == MAX_FUSED_GATES) {
+			applyPending();
+		}
+	}
+
+	/** Applies the pending gates to their side of the table in one pass
+	 */
+	private void applyPending() {
+		if(this.pendingCount == 0) {
+			return;
+		}
+		int[] gates = this.pending;
+		int count = this.pendingCount;
+		if(this.pendingForward) {
+			forEachChunk((from, to) -> transformForwardValues(from, to, gates, count));
+		} else {
+			forEachChunk((from, to) -> transformInverseValues(from, to, gates, count));
+		}
+		this.pendingCount = 0;
+	}
+
+	/** Runs a pass over the rows of the table, in parallel chunks if the table is large enough
+	 * @param pass The pass, run on ranges of rows
+	 */
+	private void forEachChunk(Pass pass) {
+		SynthesisMetrics.countPass();
+		if(this.rows < parallelThreshold) {
+			pass.run(0, this.rows);
+		} else {
+			POOL.invoke(new Chunks(pass, 0, this.rows));
+		}
+	}
+
+	/** Releases any storage held by the table; the table cannot be used afterwards
+	 */
+	public void close() {
+	}
+
+	/** Applies gates to a range of the values in the forward array
+	 *	Ranges passed at the same time never overlap, so they may be transformed in parallel.
+	 *
+	 * @param from The first entry to transform
+	 * @param to The entry after the last to transform
+	 * @param gates The control lines and target of each gate, in the order they are applied
+	 * @param count The number of gates
+	 */
+	protected void transformForwardValues(int from, int to, int[] gates, int count) {
+		for(int x = from; x < to; x++) {
+			writeForward(x, applyGates(readForward(x), gates, count));
+		}
+	}
+
+	/** Applies gates to a range of the values in the inverse array
+	 * @param from The first entry to transform
+	 * @param to The entry after the last to transform
+	 * @param gates The control lines and target of each gate, in the order they are applied
+	 * @param count The number of gates
+	 */
+	protected void transformInverseValues(int from, int to, int[] gates, int count) {
+		for(int y = from; y < to; y++) {
+			writeInverse(y, applyGates(readInverse(y), gates, count));
+		}
+	}
+
+	/** Runs a value through gates
+	 * @param value The value
+	 * @param gates The control lines and target of each gate, in the order they are applied
+	 * @param count The number of gates
+	 * @return The value after the gates
+	 */
+	protected static int applyGates(int value, int[] gates, int count) {
+		for(int i = 0; i < (2 * count); i += 2) {
+			int controlLines = gates[i];
+			if((value & controlLines) == controlLines) {
+				value ^= gates[i + 1];
+			}
+		}
+		return value;
+	}
+
+	/** Rebuilds the inverse array from a range of the forward array
+	 *	Every entry of the inverse array is written by exactly one entry of the forward array, so
+	 *	ranges may be inverted in parallel.
+	 *
+	 * @param from The first entry of the forward array
+	 * @param to The entry after the last
+	 */
+	protected void invertForward(int from, int to) {
+		for(int x = from; x < to; x++) {
+			writeInverse(readForward(x), x);
+		}
+	}
+
+	/** Rebuilds the forward array from a range of the inverse array
+	 * @param from The first entry of the inverse array
+	 * @param to The entry after the last
+	 */
+	protected void invertInverse(int from, int to) {
+		for(int y = from; y < to; y++) {
+			writeForward(readInverse(y), y);
+		}
+	}
+
+	/** A pass over a range of the rows of a table
+	 */
+	private interface Pass {
+		void run(int from, int to);
+	}
+
+	/** Splits a pass into chunks of CHUNK_ROWS rows run on the fork-join pool
+	 */
+	private static class Chunks extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final Pass pass;
+		private final int from;
+		private final int to;
+
+		Chunks(Pass pass, int from, int to) {
+			this.pass = pass;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if(this.to - this.from <= CHUNK_ROWS) {
+				this.pass.run(this.from, this.to);
+				return;
+			}
+			// Split on a chunk boundary, keeping at least one chunk on each side
+			int middle = Math.max((this.from + ((this.to - this.from) >>> 1)) & ~(CHUNK_ROWS - 1),
+								this.from + CHUNK_ROWS);
+			invokeAll(new Chunks(this.pass, this.from, middle), new Chunks(this.pass, middle, this.to));
+		}
+	}
+}
@@ -0,0 +1,131 @@
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/** Reads specification files straight into a PermutationModel.
+ *	The file format is the one accepted by the program: the number of inputs followed by one row of
+ *	the truth table per line, each row holding a 1 or a 0 for every input separated by spaces. The
+ *	reader works on the bytes of the file one at a time and packs each row into the model as soon as
+ *	it is read, so no per value objects are created and the memory used is just the model itself.
+ *
+ * @author ian (ianH92)
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+public class SpecificationReader {
+	// The largest number of inputs whose truth table can be indexed with an int
+	private static final int MAX_INPUTS = 30;
+
+	private final InputStream in;
+
+	/** Creates a reader over a stream
+	 *	The reader does not buffer the stream itself and reads no further than the separator after
+	 *	the last value of a specification, so several specifications can be read in turn from the
+	 *	same buffered stream.
+	 * @param in The stream to read from
+	 */
+	public SpecificationReader(InputStream in) {
+		this.in = in;
+	}
+
+	/** Reads a specification file into a model
+	 * @param fileName The name of the file to be read including extensions
+	 * @return The model holding the truth table in the file
+	 */
+	public static PermutationModel read(String fileName) throws UserInputException {
+		try(InputStream in = new BufferedInputStream(new FileInputStream(new File(fileName)), 1 << 16)) {
+			return new SpecificationReader(in).read();
+		} catch(FileNotFoundException e) {
+			throw new UserInputException("File name entered was not found in directory.");
+		} catch(IOException e) {
+			throw new UserInputException("File could not be read: " + e.getMessage());
+		}
+	}
+
+	/** Reads the number of inputs at the start of a specification file without reading the rest
+	 * @param fileName The name of the file to be read including extensions
+	 */
+	public static int linesOf(String fileName) throws UserInputException {
+		try(InputStream in = new BufferedInputStream(new FileInputStream(new File(fileName)), 64)) {
+			return new SpecificationReader(in).nextValue();
+		} catch(FileNotFoundException e) {
+			throw new UserInputException("File name entered was not found in directory.");
+		} catch(IOException e) {
+			throw new UserInputException("File could not be read: " + e.getMessage());
+		}
+	}
+
+	/** Reads the next specification from the stream into a model
+	 * @return The model holding the truth table that was read
+	 */
+	public PermutationModel read() throws UserInputException, IOException {
+		int numberOfInputs = nextValue();
+		if(numberOfInputs < 1) {
+			throw new UserInputException("File contains an input value to low, must be greater than 0.");
+		}
+		if(numberOfInputs > MAX_INPUTS) {
+			throw new UserInputException("File contains an input value to high, must be at most " +
+										MAX_INPUTS + ".");
+		}
+
+		PermutationModel model = new PermutationModel(numberOfInputs);
+		int rows = model.rows();
+		for(int i = 0; i < rows; i++) {
+			int value = 0;
+			for(int j = 0; j < numberOfInputs; j++) {
+				int tmp = nextValue();
+				if(tmp == 0 || tmp == 1) {
+					value = (value << 1) | tmp;
+				} else {
+					throw new UserInputException("File contains a value that is not a 1 or a 0.");
+				}
+			}
+			model.setOutput(i, value);
+		}
+		return model;
+	}
+
+	/** Reads the next whitespace separated integer from the stream
+	 * @return The integer read
+	 */
+	private int nextValue() throws UserInputException, IOException {
+		int c = nextByte();
+		while(c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+			c = nextByte();
+		}
+		if(c < 0) {
+			throw new UserInputException("File contains an insufficient number of values.");
+		}
+
+		boolean negative = false;
+		if(c == '-') {
+			negative = true;
+			c = nextByte();
+		}
+		if(c < '0' || c > '9') {
+			throw new UserInputException("File contains a value that is not an integer.");
+		}
+
+		long value = 0;
+		while(c >= '0' && c <= '9') {
+			value = (value * 10) + (c - '0');
+			if(value > Integer.MAX_VALUE) {
+				throw new UserInputException("File contains a value that is not an integer.");
+			}
+			c = nextByte();
+		}
+		if(c >= 0 && c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+			throw new UserInputException("File contains a value that is not an integer.");
+		}
+		return (int) (negative ? -value : value);
+	}
+
+	/** Reads the next byte of the stream, or -1 at the end of the stream
+	 */
+	private int nextByte() throws IOException {
+		return this.in.read();
+	}
+}
@@ -0,0 +1,131 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Synthesizes a truth table with every algorithm in the background before the circuit is asked for.
+ *	Once a table is complete and reversible it is handed to start, which runs each algorithm on its
+ *	own task on a pool of low priority daemon threads and keeps the circuit each one finds. When
+ *	the circuit is then asked for, the result for the chosen algorithm is usually already there.
+ *
+ *	Every edit of the table must call cancel, which discards the results kept and stops the runs
+ *	still going: each run checks before every row whether the table it works on is still current,
+ *	and gives up as soon as it is not. A result is only ever kept for the table last started, so
+ *	any result returned is the circuit of the table as it was when it was started.
+ *
+ * @author ian (ianH92)
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+public class SpeculativeSynthesizer {
+	/** The largest number of inputs of a function synthesized speculatively */
+	public static final int MAX_LINES = 20;
+
+	private final ExecutorService executor;
+	private final AtomicInteger generation = new AtomicInteger();
+	private final GateList[] results = new GateList[TransformationAlgorithms.ALGORITHM_COUNT];
+	private final ArrayList<Future<?>> running = new ArrayList<>();
+
+	/** Creates a synthesizer with a thread for each algorithm, leaving a processor free
+	 */
+	public SpeculativeSynthesizer() {
+		int threads = Math.min(this.results.length, Math.max(Runtime.getRuntime().availableProcessors() - 1, 1));
+		this.executor = Executors.newFixedThreadPool(threads, task -> {
+			Thread thread = new Thread(task, "speculative-synthesis");
+			thread.setDaemon(true);
+			thread.setPriority(Thread.MIN_PRIORITY);
+			return thread;
+		});
+	}
+
+	/** Starts synthesizing a table with every algorithm, replacing any table started before
+	 *	Tables that are not reversible, or too large to copy once for each algorithm, are ignored.
+	 *
+	 * @param model A complete model of the truth table that is not edited afterwards
+	 */
+	public synchronized void start(PermutationModel model) {
+		cancel();
+		if(model.lines() > MAX_LINES || !isReversible(model)) {
+			return;
+		}
+
+		int current = this.generation.get();
+		for(int algorithm = 0; algorithm < this.results.length; algorithm++) {
+			int chosen = algorithm;
+			this.running.add(this.executor.submit(() -> run(model, chosen, current)));
+		}
+	}
+
+	/** Discards the results kept and stops the runs still going
+	 *	Called whenever the table is edited.
+	 */
+	public synchronized void cancel() {
+		this.generation.incrementAndGet();
+		for(Future<?> run : this.running) {
+			run.cancel(false);
+		}
+		this.running.clear();
+		Arrays.fill(this.results, null);
+	}
+
+	/** Returns the circuit found for the table last started, if it is ready
+	 * @param algorithm One of the algorithm constants of TransformationAlgorithms.
+	 * @return The gates of the circuit, or null if the algorithm has not finished
+	 */
+	public synchronized GateList result(int algorithm) {
+		return this.results[algorithm];
+	}
+
+	/** Synthesizes a table with an algorithm, giving up if the table stops being current
+	 * @param current The generation of the table
+	 */
+	private void run(PermutationModel model, int algorithm, int current) {
+		PermutationTable table = new HeapPermutationTable(model.lines());
+		GateList gates;
+		try {
+			table.load(model);
+			if(algorithm == TransformationAlgorithms.CYCLE_ALGORITHM) {
+				gates = TransformationAlgorithms.synthesize(table, algorithm);
+			} else {
+				gates = TransformationAlgorithms.shortcut(table, algorithm);
+				if(gates == null) {
+					GateList inputGates = new GateList(table.lines());
+					GateList outputGates = new GateList(table.lines());
+					for(int i = 0; i < table.rows(); i++) {
+						if(this.generation.get() != current) {
+							return;
+						}
+						TransformationAlgorithms.synthesizeRow(table, algorithm, inputGates, outputGates, i);
+					}
+					inputGates.appendReversed(outputGates);
+					gates = inputGates;
+				}
+			}
+		} catch(UserInputException e) {
+			return;
+		}
+
+		synchronized(this) {
+			if(this.generation.get() == current) {
+				this.results[algorithm] = gates;
+			}
+		}
+	}
+
+	/** Checks that no two rows of a complete model have the same output
+	 */
+	private static boolean isReversible(PermutationModel model) {
+		BitSet seen = new BitSet(model.rows());
+		for(int i = 0; i < model.rows(); i++) {
+			int value = model.getOutput(i);
+			if(value < 0 || value >= model.rows() || seen.get(value)) {
+				return false;
+			}
+			seen.set(value);
+		}
+		return true;
+	}
+}
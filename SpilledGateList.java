@@ -0,0 +1,162 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/** A GateList that keeps only its most recent gates on the heap and spills the rest to a file.
+ *	Gates are added to a tail buffer of BLOCK_GATES gates. When the tail is full it is copied as a
+ *	block to the end of an append-only temporary file that is mapped into memory in segments, so a
+ *	circuit of tens of millions of gates costs the heap no more than the tail while the operating
+ *	system pages the blocks in and out as needed.
+ *
+ *	Gates are read by position like any other GateList, from the tail or from the mapped file, so
+ *	the list can be read backwards as cheaply as forwards; appendReversed, which assembles the
+ *	gates found by transforming the output side of a table into a circuit, reads the spilled blocks
+ *	last first without bringing them back onto the heap. The file is deleted when the list is
+ *	closed.
+ *
+ * @author ian (ianH92)
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+public class SpilledGateList extends GateList {
+	/** The number of gates held on the heap before they are spilled to the file */
+	public static final int BLOCK_GATES = 1 << 16;
+	// Each mapped segment holds 2^23 gates, 64 MiB, a whole number of blocks
+	private static final int SEGMENT_SHIFT = 23;
+	private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+
+	private final File file;
+	private final RandomAccessFile raf;
+	private IntBuffer[] segments = new IntBuffer[0];
+	private final int[] tail = new int[2 * BLOCK_GATES];
+	private int tailSize = 0;
+	private int spilled = 0;
+
+	/** Creates an empty list backed by a temporary file in a directory
+	 * @param lines The number of lines in the circuit
+	 * @param directory The directory to create the file in, or null for the default temp directory
+	 */
+	public SpilledGateList(int lines, File directory) throws IOException {
+		super(lines, 1);
+		this.file = File.createTempFile("tsp-gates-", ".gates", directory);
+		this.file.deleteOnExit();
+		this.raf = new RandomAccessFile(this.file, "rw");
+	}
+
+	@Override
+	public int size() {
+		return this.spilled + this.tailSize;
+	}
+
+	@Override
+	public void add(int controlLines, int target) {
+		if(this.tailSize == BLOCK_GATES) {
+			if(this.spilled > Integer.MAX_VALUE - (2 * BLOCK_GATES)) {
+				throw new IllegalStateException("Error: The circuit has more than " + (this.spilled + BLOCK_GATES) +
+												" gates, more than a list can index.");
+			}
+			spill();
+		}
+		this.tail[2 * this.tailSize] = controlLines;
+		this.tail[(2 * this.tailSize) + 1] = target;
+		this.tailSize++;
+	}
+
+	@Override
+	public int controlLines(int index) {
+		if(index >= this.spilled) {
+			return this.tail[2 * (index - this.spilled)];
+		}
+		return this.segments[index >>> SEGMENT_SHIFT].get(2 * (index & SEGMENT_MASK));
+	}
+
+	@Override
+	public int target(int index) {
+		if(index >= this.spilled) {
+			return this.tail[(2 * (index - this.spilled)) + 1];
+		}
+		return this.segments[index >>> SEGMENT_SHIFT].get((2 * (index & SEGMENT_MASK)) + 1);
+	}
+
+	@Override
+	public int apply(int value, int from, int to) {
+		for(int i = from; i < to; i++) {
+			int controlLines = controlLines(i);
+			if((value & controlLines) == controlLines) {
+				value ^= target(i);
+			}
+		}
+		return value;
+	}
+
+	/** Removes every gate after the first few
+	 *	If gates that were spilled are kept, the block the list now ends in is brought back into the
+	 *	tail and the file is written over from there as the list grows again.
+	 *
+	 * @param size The number of gates to keep
+	 */
+	@Override
+	public void truncate(int size) {
+		if(size >= this.spilled) {
+			this.tailSize = Math.min(this.tailSize, size - this.spilled);
+			return;
+		}
+		int start = size - (size % BLOCK_GATES);
+		IntBuffer block = this.segments[start >>> SEGMENT_SHIFT].duplicate();
+		block.position(2 * (start & SEGMENT_MASK));
+		block.get(this.tail, 0, 2 * (size - start));
+		this.spilled = start;
+		this.tailSize = size - start;
+	}
+
+	/** Copies the full tail to the end of the file, mapping a new segment when one is needed
+	 */
+	private void spill() {
+		int segment = this.spilled >>> SEGMENT_SHIFT;
+		if(segment == this.segments.length) {
+			mapSegment(segment);
+		}
+		IntBuffer block = this.segments[segment].duplicate();
+		block.position(2 * (this.spilled & SEGMENT_MASK));
+		block.put(this.tail);
+		this.spilled += BLOCK_GATES;
+		this.tailSize = 0;
+	}
+
+	/** Grows the file by a segment and maps the new segment into memory
+	 * @param segment The index of the segment
+	 */
+	private void mapSegment(int segment) {
+		long start = 8L * (((long) segment) << SEGMENT_SHIFT);
+		long size = 8L << SEGMENT_SHIFT;
+		try {
+			this.raf.setLength(start + size);
+			IntBuffer[] segments = Arrays.copyOf(this.segments, segment + 1);
+			segments[segment] = this.raf.getChannel().map(FileChannel.MapMode.READ_WRITE, start, size)
+											.order(ByteOrder.nativeOrder()).asIntBuffer();
+			this.segments = segments;
+		} catch(IOException e) {
+			throw new UncheckedIOException("Gates could not be spilled to " + this.file, e);
+		}
+	}
+
+	/** Closes and deletes the file backing the list
+	 *	The mappings themselves are released by the garbage collector once the list is no longer
+	 *	referenced; on systems that do not allow mapped files to be deleted the file is removed
+	 *	when the program exits.
+	 */
+	@Override
+	public void close() {
+		try {
+			this.raf.close();
+		} catch(IOException e) {
+			// The file is deleted regardless
+		}
+		this.file.delete();
+	}
+}
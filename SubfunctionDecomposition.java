@@ -0,0 +1,195 @@
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/** Splits a reversible function into independent functions on disjoint sets of lines.
+ *	Output line i depends on input line j if flipping bit j of some row changes bit i of its output
+ *	side. The lines are split into the smallest parts such that every output line depends only on
+ *	input lines in its own part; each part is then a reversible function of its own, and the
+ *	function is the parts side by side. Finding the dependencies reads each row once for each line,
+ *	and stops as soon as every line has been joined into a single part, which for most functions
+ *	happens within the first row.
+ *
+ *	Each part is synthesized as a function of only its own lines, on a thread of its own, and its
+ *	gates are moved back onto the lines of the part. Parts act on disjoint lines, so the circuit is
+ *	the circuits of the parts one after another. Two independent halves of 8 lines each cost two
+ *	syntheses of 2^8 rows instead of one of 2^16 rows.
+ *
+ * @author ian (ianH92)
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+public class SubfunctionDecomposition {
+	// Parts with more lines than this would need a table off the heap, so the function is not split
+	private static final int MAX_PART_LINES = 24;
+
+	/** Finds the independent parts of a function
+	 *	The table is left as it was.
+	 *
+	 * @param table The truth table of the reversible function.
+	 * @return A mask of the lines of each part, or a single mask of every line if it cannot be split
+	 */
+	public static int[] parts(PermutationTable table) {
+		return parts(FunctionSource.of(table.lines(), table::forward));
+	}
+
+	/** Finds the independent parts of a function
+	 *	A function with an output side outside the table is left whole, for the table to reject.
+	 *
+	 * @param function The reversible function.
+	 * @return A mask of the lines of each part, or a single mask of every line if it cannot be split
+	 */
+	public static int[] parts(FunctionSource function) {
+		int columns = function.lines();
+		int rows = function.rows();
+
+		// Union-find over the lines, joining each output line with the input lines it depends on
+		int[] parent = new int[columns];
+		for(int j = 0; j < columns; j++) {
+			parent[j] = j;
+		}
+		int partCount = columns;
+
+		for(int x = 0; x < rows && partCount > 1; x++) {
+			int output = function.output(x);
+			for(int j = 0; j < columns; j++) {
+				if((x & (1 << j)) != 0) {
+					continue;
+				}
+				int changed = output ^ function.output(x | (1 << j));
+				if(((output | changed) >>> columns) != 0) {
+					return new int[] {rows - 1};
+				}
+				for(int bit = changed; bit != 0; bit &= (bit - 1)) {
+					int a = find(parent, j);
+					int b = find(parent, Integer.numberOfTrailingZeros(bit));
+					if(a != b) {
+						parent[a] = b;
+						partCount--;
+					}
+				}
+			}
+		}
+
+		int[] masks = new int[columns];
+		for(int j = 0; j < columns; j++) {
+			masks[find(parent, j)] |= (1 << j);
+		}
+		int[] parts = new int[partCount];
+		int p = 0;
+		for(int mask : masks) {
+			if(mask != 0) {
+				parts[p++] = mask;
+			}
+		}
+		return parts;
+	}
+
+	/** Synthesizes a function part by part if it can be split
+	 * @param table The truth table of the reversible function.
+	 * @param algorithm One of the algorithm flags, used for every part.
+	 * @return The gates of the circuit that realizes the function, or null if it cannot be split
+	 */
+	public static GateList synthesize(PermutationTable table, int algorithm) throws UserInputException {
+		return synthesize(FunctionSource.of(table.lines(), table::forward), algorithm);
+	}
+
+	/** Synthesizes a function part by part if it can be split
+	 *	Only the rows of each part are read, so the function needs no table of its own.
+	 *
+	 * @param function The reversible function.
+	 * @param algorithm One of the algorithm flags, used for every part.
+	 * @return The gates of the circuit that realizes the function, or null if it cannot be split
+	 */
+	public static GateList synthesize(FunctionSource function, int algorithm) throws UserInputException {
+		int[] parts = parts(function);
+		if(parts.length == 1) {
+			return null;
+		}
+		for(int mask : parts) {
+			if(Integer.bitCount(mask) > MAX_PART_LINES) {
+				return null;
+			}
+		}
+
+		ArrayList<ForkJoinTask<GateList>> tasks = new ArrayList<>();
+		for(int mask : parts) {
+			int[] outputs = partOutputs(function, mask);
+			tasks.add(ForkJoinPool.commonPool().submit(() -> {
+				PermutationTable part = new HeapPermutationTable(Integer.bitCount(mask));
+				part.load(outputs);
+				return TransformationAlgorithms.synthesize(part, algorithm);
+			}));
+		}
+
+		GateList gates = new GateList(function.lines());
+		for(int p = 0; p < parts.length; p++) {
+			GateList part;
+			try {
+				part = tasks.get(p).join();
+			} catch(RuntimeException e) {
+				// A task joined from another thread wraps its exception once more for each thread
+				for(Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+					if(cause instanceof UserInputException) {
+						throw (UserInputException) cause;
+					}
+				}
+				throw e;
+			}
+			for(int i = 0; i < part.size(); i++) {
+				gates.add(spread(part.controlLines(i), parts[p]), spread(part.target(i), parts[p]));
+			}
+		}
+		return gates;
+	}
+
+	/** Reads the output side of every row of a part of a function
+	 *	Row y of the part is the row of the function whose lines in the part hold the bits of y and
+	 *	whose other lines are 0.
+	 *
+	 * @param mask The lines of the part
+	 * @return The output side of each row of the part, as a function of only its own lines
+	 */
+	private static int[] partOutputs(FunctionSource function, int mask) {
+		int[] outputs = new int[1 << Integer.bitCount(mask)];
+		for(int y = 0; y < outputs.length; y++) {
+			outputs[y] = gather(function.output(spread(y, mask)), mask);
+		}
+		return outputs;
+	}
+
+	/** Moves the low bits of a value onto the lines of a mask, lowest bit to lowest line
+	 */
+	private static int spread(int value, int mask) {
+		int result = 0;
+		for(int bit = mask; bit != 0 && value != 0; bit &= (bit - 1), value >>>= 1) {
+			if((value & 1) != 0) {
+				result |= Integer.lowestOneBit(bit);
+			}
+		}
+		return result;
+	}
+
+	/** Collects the bits of a value on the lines of a mask into its low bits; the inverse of spread
+	 */
+	private static int gather(int value, int mask) {
+		int result = 0;
+		int position = 0;
+		for(int bit = mask; bit != 0; bit &= (bit - 1), position++) {
+			if((value & Integer.lowestOneBit(bit)) != 0) {
+				result |= (1 << position);
+			}
+		}
+		return result;
+	}
+
+	/** Finds the line that stands for the part a line is in
+	 */
+	private static int find(int[] parent, int j) {
+		while(parent[j] != j) {
+			parent[j] = parent[parent[j]];
+			j = parent[j];
+		}
+		return j;
+	}
+}
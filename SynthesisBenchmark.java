@@ -0,0 +1,382 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Runs every algorithm over a corpus of functions and reports the size and cost of each circuit.
+ *	The corpus is the bundled Test1.txt to Test7.txt, the standard reversible benchmark families
+ *	hwb, graycode and adder, random permutations drawn with fixed seeds, and any specification files
+ *	or directories given. Every function is synthesized with every algorithm, repeat times, and the
+ *	fastest run is reported. Each function then has a row for auto, the algorithm AlgorithmSelector
+ *	picks, with the time of the pick added to that of the algorithm picked; the error stream gets
+ *	how often the pick found the fewest gates of the three transformation algorithms, and the
+ *	share of the synthesis time the picks took.
+ *
+ *	The report is tab separated text with a header line starting with #, one row per function and
+ *	algorithm: name, lines, algorithm, gates, milliseconds, peak heap bytes, allocated bytes and
+ *	depth.
+ *	Peak heap is the highest heap use during the run above the use before it, and allocation is the
+ *	bytes allocated by the thread running the synthesis; either is -1 if the JVM cannot measure it.
+ *	A report can be kept as the baseline of a later run, which adds the gates and time of the
+ *	baseline to each row and summarizes the change on the error stream. Circuits are checked
+ *	against their functions, and a row whose synthesis failed holds the error in place of gates.
+ *
+ * @author ian (ianH92)
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+public class SynthesisBenchmark {
+	private static final String HEADER = "# name\tlines\talgorithm\tgates\tmillis\tpeakBytes\tallocatedBytes\tdepth";
+
+	private final int repeat;
+	private final List<String> names = new ArrayList<>();
+	private final List<FunctionSource> functions = new ArrayList<>();
+
+	/** Creates a benchmark with an empty corpus
+	 * @param repeat The number of times each function is synthesized with each algorithm
+	 */
+	public SynthesisBenchmark(int repeat) {
+		this.repeat = Math.max(repeat, 1);
+	}
+
+	/** Adds a function to the corpus
+	 * @param name The name the function is reported under
+	 * @param function The function
+	 */
+	public void add(String name, FunctionSource function) {
+		this.names.add(name);
+		this.functions.add(function);
+	}
+
+	/** Adds the function of a specification file to the corpus, named after the file
+	 */
+	public void addFile(File file) throws UserInputException {
+		add(file.getName(), FunctionSource.of(SpecificationReader.read(file.getPath())));
+	}
+
+	/** Adds the standard families of every size from 3 lines up, and random permutations
+	 * @param maxLines The largest number of lines of a function of a family
+	 * @param seeds The number of random permutations of each size
+	 */
+	public void addFamilies(int maxLines, int seeds) {
+		for(int lines = 3; lines <= maxLines; lines++) {
+			add("hwb" + lines, FunctionSource.hwb(lines));
+			add("graycode" + lines, FunctionSource.graycode(lines));
+			if(lines % 2 == 0) {
+				add("adder" + (lines / 2), FunctionSource.adder(lines / 2));
+			}
+			for(int seed = 1; seed <= seeds; seed++) {
+				add("random" + lines + "_" + seed, FunctionSource.random(lines, seed));
+			}
+		}
+	}
+
+	/** Synthesizes every function of the corpus with every algorithm and writes the report
+	 * @param out The stream the report is written to
+	 * @param baseline The rows of an earlier report by name and algorithm, or null
+	 * @return The number of circuits that grew or failed compared with the baseline
+	 */
+	public int run(PrintStream out, Map<String, String[]> baseline) {
+		out.println(HEADER + ((baseline != null) ? "\tbaselineGates\tbaselineMillis" : ""));
+		int regressions = 0;
+		long gates = 0;
+		long baselineGates = 0;
+		double millis = 0;
+		double baselineMillis = 0;
+		int picks = 0;
+		int winningPicks = 0;
+		double pickMillis = 0;
+		double pickedMillis = 0;
+
+		for(int f = 0; f < this.functions.size(); f++) {
+			FunctionSource function = this.functions.get(f);
+			int lines = function.lines();
+			String[] results = new String[TransformationAlgorithms.ALGORITHM_COUNT];
+			for(int algorithm = 0; algorithm <= TransformationAlgorithms.AUTO_ALGORITHM; algorithm++) {
+				String name = TransformationAlgorithms.algorithmName(algorithm);
+				String result;
+				if(algorithm == TransformationAlgorithms.AUTO_ALGORITHM) {
+					long nanos = Long.MAX_VALUE;
+					int picked = 0;
+					for(int r = 0; r < this.repeat; r++) {
+						long start = System.nanoTime();
+						picked = AlgorithmSelector.select(function);
+						nanos = Math.min(nanos, System.nanoTime() - start);
+					}
+					String[] fields = results[picked].split("\t");
+					if(isNumber(fields[0])) {
+						fields[1] = String.format("%.3f", (nanos / 1e6) + Double.parseDouble(fields[1]));
+						pickMillis += nanos / 1e6;
+						pickedMillis += Double.parseDouble(fields[1]);
+					}
+					result = String.join("\t", fields);
+
+					long fewest = Long.MAX_VALUE;
+					for(int a = 0; a <= TransformationAlgorithms.BIDIRECTIONAL_ALGORITHM; a++) {
+						String size = results[a].split("\t")[0];
+						fewest = isNumber(size) ? Math.min(fewest, Long.parseLong(size)) : fewest;
+					}
+					if(isNumber(fields[0]) && fewest != Long.MAX_VALUE) {
+						picks++;
+						if(Long.parseLong(fields[0]) == fewest) {
+							winningPicks++;
+						} else {
+							AlgorithmSelector features = new AlgorithmSelector(function);
+							System.err.println("Missed: " + this.names.get(f) + " picked " +
+												TransformationAlgorithms.algorithmName(picked) + " with " + fields[0] +
+												" gates against " + fewest + "; " + features.fixedPoints() +
+												" fixed points, distances " + Arrays.toString(features.histogram()));
+						}
+					}
+				} else {
+					result = measure(function, algorithm);
+					results[algorithm] = result;
+				}
+				String row = this.names.get(f) + "\t" + lines + "\t" + name + "\t" + result;
+				String[] fields = row.split("\t");
+				if(baseline != null) {
+					String[] before = baseline.get(this.names.get(f) + "\t" + name);
+					if(before == null) {
+						row += "\t\t";
+					} else {
+						row += "\t" + before[3] + "\t" + before[4];
+						if(isNumber(fields[3]) && isNumber(before[3])) {
+							gates += Long.parseLong(fields[3]);
+							baselineGates += Long.parseLong(before[3]);
+							millis += Double.parseDouble(fields[4]);
+							baselineMillis += Double.parseDouble(before[4]);
+							if(Long.parseLong(fields[3]) > Long.parseLong(before[3])) {
+								System.err.println("Grew: " + this.names.get(f) + " " + name + " from " +
+													before[3] + " to " + fields[3] + " gates");
+								regressions++;
+							}
+						} else if(!isNumber(fields[3])) {
+							System.err.println("Failed: " + this.names.get(f) + " " + name + ": " + fields[3]);
+							regressions++;
+						}
+					}
+				}
+				out.println(row);
+			}
+		}
+
+		System.err.println(String.format("Auto picked the fewest gates for %d of %d functions (%.1f%%); " +
+										"picking took %.2f%% of the synthesis time", winningPicks, picks,
+										100.0 * winningPicks / Math.max(picks, 1), 100 * pickMillis / Math.max(pickedMillis, 1e-9)));
+		if(baseline != null) {
+			System.err.println(String.format("Compared with the baseline: %d gates against %d (%+.2f%%), " +
+											"%.1f ms against %.1f ms (%+.2f%%), %d circuits grew or failed",
+											gates, baselineGates, percentChange(gates, baselineGates), millis,
+											baselineMillis, percentChange(millis, baselineMillis), regressions));
+		}
+		return regressions;
+	}
+
+	/** Synthesizes a function with an algorithm repeat times
+	 * @return The gates, fastest time, peak heap, allocated bytes and depth as tab separated fields,
+	 *	or the error if the synthesis failed
+	 */
+	private String measure(FunctionSource function, int algorithm) {
+		long bestNanos = Long.MAX_VALUE;
+		long peakBytes = -1;
+		long allocatedBytes = -1;
+		int gates = 0;
+		int depth = 0;
+		try {
+			for(int r = 0; r < this.repeat; r++) {
+				PermutationTable table = new HeapPermutationTable(function.lines());
+				table.load(function);
+
+				long heapBefore = resetPeakHeap();
+				long allocatedBefore = SynthesisMetrics.allocatedBytes();
+				long start = System.nanoTime();
+				GateList circuit = TransformationAlgorithms.synthesize(table, algorithm);
+				long nanos = System.nanoTime() - start;
+				long allocatedAfter = SynthesisMetrics.allocatedBytes();
+				long heapPeak = peakHeap();
+
+				// Run the identity through the circuit a layer at a time to check it
+				GateLayers layers = new GateLayers(circuit, false);
+				table.load(FunctionSource.identity(function.lines()));
+				layers.applyTo(table);
+				for(int x = 0; x < function.rows(); x++) {
+					if(table.forward(x) != function.output(x)) {
+						return "Error: Circuit does not realize the function at row " + x + ".";
+					}
+				}
+				gates = circuit.size();
+				depth = layers.depth();
+				if(nanos < bestNanos) {
+					bestNanos = nanos;
+					peakBytes = (heapBefore < 0) ? -1 : Math.max(heapPeak - heapBefore, 0);
+					allocatedBytes = (allocatedBefore < 0) ? -1 : allocatedAfter - allocatedBefore;
+				}
+			}
+		} catch(UserInputException e) {
+			return e.getMessage();
+		} catch(RuntimeException | OutOfMemoryError e) {
+			return "Error: Synthesis failed: " + e;
+		}
+		return gates + "\t" + String.format("%.3f", bestNanos / 1e6) + "\t" + peakBytes + "\t" + allocatedBytes + "\t" + depth;
+	}
+
+	/** Resets the peak use of every heap pool and returns the heap in use, or -1 if it is unknown
+	 */
+	private static long resetPeakHeap() {
+		long used = 0;
+		boolean found = false;
+		for(MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if(pool.getType() == MemoryType.HEAP && pool.isValid()) {
+				pool.resetPeakUsage();
+				used += pool.getUsage().getUsed();
+				found = true;
+			}
+		}
+		return found ? used : -1;
+	}
+
+	/** Returns the sum of the peak use of every heap pool since they were last reset
+	 */
+	private static long peakHeap() {
+		long peak = 0;
+		for(MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if(pool.getType() == MemoryType.HEAP && pool.isValid()) {
+				peak += pool.getPeakUsage().getUsed();
+			}
+		}
+		return peak;
+	}
+
+	/** Reads a report into its rows by name and algorithm
+	 * @param file The report
+	 */
+	public static Map<String, String[]> readReport(File file) throws IOException {
+		Map<String, String[]> rows = new HashMap<>();
+		try(BufferedReader in = new BufferedReader(new FileReader(file))) {
+			for(String line = in.readLine(); line != null; line = in.readLine()) {
+				if(line.isEmpty() || line.startsWith("#")) {
+					continue;
+				}
+				String[] fields = line.split("\t");
+				if(fields.length >= 5) {
+					rows.put(fields[0] + "\t" + fields[2], fields);
+				}
+			}
+		}
+		return rows;
+	}
+
+	private static boolean isNumber(String field) {
+		return !field.isEmpty() && Character.isDigit(field.charAt(0));
+	}
+
+	private static double percentChange(double value, double baseline) {
+		return (baseline == 0) ? 0 : 100 * ((value - baseline) / baseline);
+	}
+
+	/** Runs the benchmark from the command line
+	 *	Usage: java SynthesisBenchmark [options] [file | directory]...
+	 *	Options: -report file (default the standard output), -baseline file (an earlier report),
+	 *	-repeat N (runs of each function, default 3), -lines N (largest family function, default
+	 *	10), -seeds N (random permutations of each size, default 3), -tests directory (where
+	 *	Test1.txt to Test7.txt are, default the current directory).
+	 *	Exits with status 1 if any circuit grew or failed compared with the baseline.
+	 *
+	 * @param args The options and any further specification files or directories
+	 */
+	public static void main(String[] args) throws IOException {
+		File reportFile = null;
+		File baselineFile = null;
+		int repeat = 3;
+		int maxLines = 10;
+		int seeds = 3;
+		File tests = new File(".");
+
+		int i = 0;
+		try {
+			for(; i < args.length && args[i].startsWith("-"); i += 2) {
+				String value = args[i + 1];
+				switch(args[i]) {
+					case "-report":
+						reportFile = new File(value);
+						break;
+					case "-baseline":
+						baselineFile = new File(value);
+						break;
+					case "-repeat":
+						repeat = Integer.parseInt(value);
+						break;
+					case "-lines":
+						maxLines = Integer.parseInt(value);
+						break;
+					case "-seeds":
+						seeds = Integer.parseInt(value);
+						break;
+					case "-tests":
+						tests = new File(value);
+						break;
+					default:
+						throw new IllegalArgumentException("Unknown option " + args[i]);
+				}
+			}
+			if(maxLines > 20) {
+				throw new IllegalArgumentException("Family functions are limited to 20 lines");
+			}
+		} catch(RuntimeException e) {
+			System.err.println(e.getMessage());
+			System.err.println("Usage: java SynthesisBenchmark [options] [file | directory]...");
+			System.exit(2);
+		}
+
+		SynthesisBenchmark benchmark = new SynthesisBenchmark(repeat);
+		List<File> files = new ArrayList<>();
+		for(int t = 1; t <= 7; t++) {
+			File test = new File(tests, "Test" + t + ".txt");
+			if(test.isFile()) {
+				files.add(test);
+			}
+		}
+		for(; i < args.length; i++) {
+			File file = new File(args[i]);
+			File[] contents = file.listFiles();
+			if(contents == null) {
+				files.add(file);
+			} else {
+				Arrays.sort(contents);
+				for(File content : contents) {
+					if(content.isFile()) {
+						files.add(content);
+					}
+				}
+			}
+		}
+		for(File file : files) {
+			try {
+				benchmark.addFile(file);
+			} catch(UserInputException e) {
+				System.err.println(file + ": " + e.getMessage());
+			}
+		}
+		benchmark.addFamilies(maxLines, seeds);
+
+		Map<String, String[]> baseline = (baselineFile != null) ? readReport(baselineFile) : null;
+		int regressions;
+		if(reportFile != null) {
+			try(PrintStream out = new PrintStream(reportFile)) {
+				regressions = benchmark.run(out, baseline);
+			}
+		} else {
+			regressions = benchmark.run(System.out, baseline);
+		}
+		System.exit((regressions == 0) ? 0 : 1);
+	}
+}
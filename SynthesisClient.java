@@ -0,0 +1,134 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/** A connection to a SynthesisServer that sends one request at a time and waits for its circuit.
+ *	A client is not safe to use from more than one thread; programs that want several requests in
+ *	flight open several clients.
+ *
+ * @author ian (ianH92)
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+public class SynthesisClient implements Closeable {
+	private final Socket socket;
+	private final DataInputStream in;
+	private final DataOutputStream out;
+	private int nextId = 0;
+
+	/** The circuit returned by the server along with how long the server took to make it
+	 */
+	public static class Result {
+		/** The gates of the circuit */
+		public final GateList gates;
+		/** The time the request spent waiting for a worker */
+		public final long queueNanos;
+		/** The time the worker spent reading the specification and synthesizing the circuit */
+		public final long synthesisNanos;
+		/** The number of requests run in the same batch as this one */
+		public final int batchSize;
+
+		Result(GateList gates, long queueNanos, long synthesisNanos, int batchSize) {
+			this.gates = gates;
+			this.queueNanos = queueNanos;
+			this.synthesisNanos = synthesisNanos;
+			this.batchSize = batchSize;
+		}
+	}
+
+	/** Connects to a server on this machine
+	 * @param port The port the server is listening on
+	 */
+	public SynthesisClient(int port) throws IOException {
+		this(InetAddress.getLoopbackAddress().getHostAddress(), port);
+	}
+
+	/** Connects to a server
+	 * @param host The host the server is running on
+	 * @param port The port the server is listening on
+	 */
+	public SynthesisClient(String host, int port) throws IOException {
+		this.socket = new Socket(host, port);
+		this.socket.setTcpNoDelay(true);
+		this.in = new DataInputStream(new BufferedInputStream(this.socket.getInputStream(), 1 << 16));
+		this.out = new DataOutputStream(new BufferedOutputStream(this.socket.getOutputStream(), 1 << 16));
+	}
+
+	/** Synthesizes the circuit for a specification in the text format of specification files
+	 * @param algorithm The flag of the algorithm from TransformationAlgorithms
+	 * @param specification The text of the specification
+	 * @return The circuit and its timings
+	 */
+	public Result synthesize(int algorithm, String specification) throws UserInputException, IOException {
+		return synthesize(algorithm, specification.getBytes(StandardCharsets.US_ASCII));
+	}
+
+	/** Synthesizes the circuit for a specification in the text format of specification files
+	 * @param algorithm The flag of the algorithm from TransformationAlgorithms
+	 * @param bytes The bytes of the specification, such as the contents of a specification file
+	 * @return The circuit and its timings
+	 */
+	public Result synthesize(int algorithm, byte[] bytes) throws UserInputException, IOException {
+		this.out.writeInt(this.nextId);
+		this.out.writeByte(SynthesisServer.TEXT_FORMAT);
+		this.out.writeByte(algorithm);
+		this.out.writeInt(bytes.length);
+		this.out.write(bytes);
+		this.out.flush();
+		return readResponse();
+	}
+
+	/** Synthesizes the circuit for a specification given as the output side of every row
+	 * @param algorithm The flag of the algorithm from TransformationAlgorithms
+	 * @param model The model of the truth table
+	 * @return The circuit and its timings
+	 */
+	public Result synthesize(int algorithm, PermutationModel model) throws UserInputException, IOException {
+		this.out.writeInt(this.nextId);
+		this.out.writeByte(SynthesisServer.BINARY_FORMAT);
+		this.out.writeByte(algorithm);
+		this.out.writeInt(4 + (4 * model.rows()));
+		this.out.writeInt(model.lines());
+		for(int i = 0; i < model.rows(); i++) {
+			this.out.writeInt(model.getOutput(i));
+		}
+		this.out.flush();
+		return readResponse();
+	}
+
+	/** Reads the response to the request just sent
+	 */
+	private Result readResponse() throws UserInputException, IOException {
+		int id = this.in.readInt();
+		if(id != this.nextId++) {
+			throw new IOException("Response " + id + " does not match the request sent.");
+		}
+		if(this.in.readByte() != SynthesisServer.OK) {
+			throw new UserInputException(this.in.readUTF());
+		}
+		long queueNanos = this.in.readLong();
+		long synthesisNanos = this.in.readLong();
+		int batchSize = this.in.readInt();
+		int lines = this.in.readInt();
+		int size = this.in.readInt();
+		GateList gates = new GateList(lines, size);
+		for(int i = 0; i < size; i++) {
+			int controlLines = this.in.readInt();
+			gates.add(controlLines, this.in.readInt());
+		}
+		return new Result(gates, queueNanos, synthesisNanos, batchSize);
+	}
+
+	/** Closes the connection
+	 */
+	@Override
+	public void close() throws IOException {
+		this.socket.close();
+	}
+}
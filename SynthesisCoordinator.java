@@ -0,0 +1,416 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Synthesizes the circuits for many specification files on a number of worker processes.
+ *	Each worker is a SynthesisServer, either started by the coordinator as a separate JVM or
+ *	already running at a known address, so every large function is synthesized on a heap of its own
+ *	and a worker that runs out of memory or crashes takes no other work down with it.
+ *
+ *	The files are dealt out to the workers up front, largest first, and each worker keeps its own
+ *	deque of files. A worker takes the next file from the front of its own deque and, once its deque
+ *	is empty, steals from the back of the fullest deque of another worker, so a worker handed a few
+ *	slow files does not hold up the rest. When the connection to a worker fails the file it was
+ *	working on is put back to be tried by another worker, up to MAX_ATTEMPTS times, and the files
+ *	still in the deque of the failed worker are stolen by the others. A file the worker rejects,
+ *	such as one that is not reversible, is not tried again. A file longer than a request may be is
+ *	read by the coordinator and sent as its truth table in the binary format, or reported as too
+ *	large if the function has more inputs than that format allows.
+ *
+ * @author ian (ianH92)
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+public class SynthesisCoordinator {
+	/** The number of workers a file is tried on before it is given up on */
+	public static final int MAX_ATTEMPTS = 3;
+
+	private final int algorithm;
+	private final int format;
+	private final File outputDirectory;
+	private final List<Worker> workers = new ArrayList<>();
+	private final AtomicInteger remaining = new AtomicInteger();
+	private final AtomicInteger failures = new AtomicInteger();
+	private final List<String> errors = new ArrayList<>();
+
+	/** A specification file and the number of times it has been tried
+	 */
+	private static class Job {
+		final File source;
+		int attempts = 0;
+
+		Job(File source) {
+			this.source = source;
+		}
+	}
+
+	/** A worker process, the connection to it and its deque of files
+	 */
+	private class Worker {
+		final String name;
+		final String host;
+		final int port;
+		final Process process;
+		final LinkedBlockingDeque<Job> deque = new LinkedBlockingDeque<>();
+		volatile boolean alive = true;
+		boolean failed = false;
+		int completed = 0;
+		int stolen = 0;
+
+		Worker(String name, String host, int port, Process process) {
+			this.name = name;
+			this.host = host;
+			this.port = port;
+			this.process = process;
+		}
+
+		/** Sends files to the worker until there are none left or the worker fails
+		 */
+		void run() {
+			try(SynthesisClient client = new SynthesisClient(this.host, this.port)) {
+				Job job;
+				while((job = next()) != null) {
+					byte[] specification = null;
+					PermutationModel model = null;
+					try {
+						if(job.source.length() <= SynthesisServer.MAX_REQUEST_BYTES) {
+							specification = Files.readAllBytes(job.source.toPath());
+						} else {
+							// The text is too long for a request; the truth table may still fit in the binary format
+							model = SpecificationReader.read(job.source.getPath());
+							if(model.lines() > SynthesisServer.MAX_BINARY_LINES) {
+								finish(job, "Function of " + model.lines() + " inputs is too large to send to a worker; " +
+											"at most " + SynthesisServer.MAX_BINARY_LINES + " inputs are accepted.");
+								continue;
+							}
+						}
+					} catch(IOException | UserInputException e) {
+						finish(job, "File could not be read: " + e.getMessage());
+						continue;
+					}
+
+					SynthesisClient.Result result;
+					job.attempts++;
+					try {
+						result = (model != null) ? client.synthesize(algorithm, model) : client.synthesize(algorithm, specification);
+					} catch(UserInputException e) {
+						finish(job, e.getMessage());
+						continue;
+					} catch(IOException e) {
+						// The worker has failed; mark it first so the file is not handed back to it
+						this.alive = false;
+						retry(job, e);
+						throw e;
+					}
+
+					try {
+						CircuitWriter.write(outputFile(job.source).getPath(), result.gates);
+						this.completed++;
+						finish(job, null);
+					} catch(UserInputException e) {
+						finish(job, e.getMessage());
+					}
+				}
+			} catch(IOException e) {
+				this.failed = true;
+				System.err.println("Worker " + this.name + " failed: " + e);
+			} finally {
+				this.alive = false;
+			}
+		}
+
+		/** Takes the next file from this worker's deque or steals one from another worker
+		 * @return The next file, or null if every file has been finished
+		 */
+		Job next() {
+			while(remaining.get() > 0) {
+				Job job = this.deque.pollFirst();
+				if(job != null) {
+					return job;
+				}
+				job = steal(this);
+				if(job != null) {
+					this.stolen++;
+					return job;
+				}
+				// Every file left is being worked on; wait in case one of them is put back
+				try {
+					job = this.deque.pollFirst(50, TimeUnit.MILLISECONDS);
+				} catch(InterruptedException e) {
+					return null;
+				}
+				if(job != null) {
+					return job;
+				}
+			}
+			return null;
+		}
+	}
+
+	/** Creates a coordinator
+	 * @param algorithm The flag of the algorithm from TransformationAlgorithms
+	 * @param format CircuitWriter.REAL_FORMAT or CircuitWriter.TFC_FORMAT
+	 * @param outputDirectory The directory the circuits are written to
+	 */
+	public SynthesisCoordinator(int algorithm, int format, File outputDirectory) {
+		this.algorithm = algorithm;
+		this.format = format;
+		this.outputDirectory = outputDirectory;
+	}
+
+	/** Starts a worker process on this machine
+	 * @param javaOptions Options passed to the JVM of the worker, such as its heap size
+	 */
+	public void startWorker(List<String> javaOptions) throws IOException {
+		List<String> command = new ArrayList<>();
+		command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath());
+		command.addAll(javaOptions);
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add("SynthesisServer");
+		// A worker handles one file at a time; the coordinator keeps it busy
+		command.addAll(Arrays.asList("0", "1", "4", "1"));
+
+		ProcessBuilder builder = new ProcessBuilder(command);
+		builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+		Process process = builder.start();
+
+		// The server announces the port it is listening on before it accepts connections
+		BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.US_ASCII));
+		String line = out.readLine();
+		int colon = (line == null) ? -1 : line.indexOf("localhost:");
+		if(colon < 0) {
+			process.destroy();
+			throw new IOException("Worker did not start: " + line);
+		}
+		int port = Integer.parseInt(line.substring(colon + "localhost:".length()).split(" ")[0]);
+		this.workers.add(new Worker("local-" + this.workers.size() + ":" + port, "127.0.0.1", port, process));
+	}
+
+	/** Adds a worker that is already running
+	 * @param host The host the worker is running on
+	 * @param port The port the worker is listening on
+	 */
+	public void addWorker(String host, int port) {
+		this.workers.add(new Worker(host + ":" + port, host, port, null));
+	}
+
+	/** Synthesizes the circuits for a number of specification files on the workers
+	 *	The method returns once every file has been written or given up on, and stops the worker
+	 *	processes it started.
+	 *
+	 * @param files The specification files
+	 * @return The number of files that failed
+	 */
+	public int run(List<File> files) throws InterruptedException {
+		if(this.workers.isEmpty()) {
+			throw new IllegalStateException("No workers to run on");
+		}
+
+		// Deal the files out largest first so that every worker starts with a similar amount of work
+		List<File> sorted = new ArrayList<>(files);
+		Collections.sort(sorted, (a, b) -> Long.compare(b.length(), a.length()));
+		for(int i = 0; i < sorted.size(); i++) {
+			this.workers.get(i % this.workers.size()).deque.addLast(new Job(sorted.get(i)));
+		}
+		this.remaining.set(sorted.size());
+
+		List<Thread> threads = new ArrayList<>();
+		for(Worker worker : this.workers) {
+			Thread thread = new Thread(worker::run, "coordinator-" + worker.name);
+			thread.setDaemon(true);
+			thread.start();
+			threads.add(thread);
+		}
+		for(Thread thread : threads) {
+			thread.join();
+		}
+
+		// Anything left was on a worker that failed with no living worker to take it over
+		for(Worker worker : this.workers) {
+			Job job;
+			while((job = worker.deque.pollFirst()) != null) {
+				finish(job, "No worker was left to synthesize the file.");
+			}
+			if(worker.process != null) {
+				worker.process.destroy();
+			}
+			System.err.println("Worker " + worker.name + ": " + worker.completed + " files, " +
+								worker.stolen + " stolen" + (worker.failed ? ", failed" : ""));
+		}
+		return this.failures.get();
+	}
+
+	/** Returns the errors of the files that failed, each prefixed with the name of the file
+	 */
+	public List<String> errors() {
+		synchronized(this.errors) {
+			return new ArrayList<>(this.errors);
+		}
+	}
+
+	/** Steals a file from the back of the deque of the worker with the most files left
+	 *	The deques of failed workers are stolen from first so that their files are not left waiting.
+	 *
+	 * @param thief The worker looking for a file
+	 */
+	private Job steal(Worker thief) {
+		Worker victim = null;
+		for(Worker worker : this.workers) {
+			if(worker == thief || worker.deque.isEmpty()) {
+				continue;
+			}
+			if(victim == null || (victim.alive && !worker.alive) ||
+				(victim.alive == worker.alive && worker.deque.size() > victim.deque.size())) {
+				victim = worker;
+			}
+		}
+		return (victim == null) ? null : victim.deque.pollLast();
+	}
+
+	/** Puts a file back to be tried by another worker after the worker it was on failed
+	 * @param job The file
+	 * @param cause The failure
+	 */
+	private void retry(Job job, IOException cause) {
+		if(job.attempts >= MAX_ATTEMPTS) {
+			finish(job, "Gave up after " + job.attempts + " workers failed, the last with: " + cause.getMessage());
+			return;
+		}
+		// Hand the file to the living worker with the least work queued
+		Worker target = null;
+		for(Worker worker : this.workers) {
+			if(worker.alive && (target == null || worker.deque.size() < target.deque.size())) {
+				target = worker;
+			}
+		}
+		if(target == null) {
+			finish(job, "No worker was left to synthesize the file.");
+		} else {
+			target.deque.addFirst(job);
+		}
+	}
+
+	/** Records a file as done
+	 * @param job The file
+	 * @param error The reason the file failed, or null if its circuit was written
+	 */
+	private void finish(Job job, String error) {
+		if(error != null) {
+			this.failures.incrementAndGet();
+			synchronized(this.errors) {
+				this.errors.add(job.source.getPath() + ": " + error);
+			}
+		}
+		this.remaining.decrementAndGet();
+	}
+
+	/** Finds the name of the circuit file written for a specification file
+	 * @param source The specification file
+	 */
+	private File outputFile(File source) {
+		String name = source.getName();
+		int dot = name.lastIndexOf('.');
+		if(dot > 0) {
+			name = name.substring(0, dot);
+		}
+		return new File(this.outputDirectory, name + ((this.format == CircuitWriter.TFC_FORMAT) ? ".tfc" : ".real"));
+	}
+
+	/** Runs the coordinator from the command line
+	 *	Usage: java SynthesisCoordinator [options] outputDirectory (file | directory)...
+	 *	Options: -algorithm output|input|bidirectional|cycle|auto, -format real|tfc, -workers N (worker
+	 *	JVMs to start), -worker host:port (a running worker, may be repeated), -Xmx size (heap of each
+	 *	started worker).
+	 *
+	 * @param args The options, the output directory and the specification files or directories
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int algorithm = TransformationAlgorithms.OUTPUT_ALGORITHM;
+		int format = CircuitWriter.REAL_FORMAT;
+		int startWorkers = -1;
+		List<String> running = new ArrayList<>();
+		List<String> javaOptions = new ArrayList<>();
+
+		int i = 0;
+		try {
+			for(; i < args.length && args[i].startsWith("-"); i += 2) {
+				String value = args[i + 1];
+				switch(args[i]) {
+					case "-algorithm":
+						algorithm = TransformationAlgorithms.algorithmNamed(value);
+						break;
+					case "-format":
+						format = CircuitWriter.formatOf("." + value);
+						break;
+					case "-workers":
+						startWorkers = Integer.parseInt(value);
+						break;
+					case "-worker":
+						running.add(value);
+						break;
+					case "-Xmx":
+						javaOptions.add("-Xmx" + value);
+						break;
+					default:
+						throw new IllegalArgumentException("Unknown option " + args[i]);
+				}
+			}
+			if(i >= args.length - 1) {
+				throw new IllegalArgumentException("Expected an output directory and specification files");
+			}
+		} catch(UserInputException | RuntimeException e) {
+			System.err.println(e.getMessage());
+			System.err.println("Usage: java SynthesisCoordinator [options] outputDirectory (file | directory)...");
+			System.exit(2);
+		}
+
+		File outputDirectory = new File(args[i]);
+		outputDirectory.mkdirs();
+		List<File> files = new ArrayList<>();
+		for(i++; i < args.length; i++) {
+			File file = new File(args[i]);
+			File[] contents = file.listFiles();
+			if(contents == null) {
+				files.add(file);
+			} else {
+				Arrays.sort(contents);
+				for(File content : contents) {
+					if(content.isFile()) {
+						files.add(content);
+					}
+				}
+			}
+		}
+
+		SynthesisCoordinator coordinator = new SynthesisCoordinator(algorithm, format, outputDirectory);
+		for(String address : running) {
+			int colon = address.lastIndexOf(':');
+			coordinator.addWorker(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)));
+		}
+		if(startWorkers < 0) {
+			startWorkers = running.isEmpty() ? Math.max(Runtime.getRuntime().availableProcessors() / 2, 1) : 0;
+		}
+		for(int w = 0; w < startWorkers; w++) {
+			coordinator.startWorker(javaOptions);
+		}
+
+		long start = System.nanoTime();
+		int failed = coordinator.run(files);
+		System.err.printf("%d files in %.1fs, %d failed%n", files.size(), (System.nanoTime() - start) / 1e9, failed);
+		for(String error : coordinator.errors()) {
+			System.err.println(error);
+		}
+		System.exit((failed == 0) ? 0 : 1);
+	}
+}
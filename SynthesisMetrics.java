@@ -0,0 +1,277 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/** Live counts of the work done by the synthesis server and pipeline, published as a JMX MBean.
+ *	The server and pipeline run each synthesis through measure, which records its latency in a
+ *	histogram for its line count and algorithm, the gates it emitted and the bytes its thread
+ *	allocated. The algorithms themselves count the passes they make over tables and the control
+ *	lines they compare. Every count is a LongAdder, which gives each contending thread a cell of its
+ *	own, so parallel syntheses do not slow each other down updating the same count; the cells are
+ *	only added up when the metrics are read.
+ *
+ *	Calling register publishes the metrics under OBJECT_NAME on the platform MBean server, where
+ *	jconsole and other JMX clients can read them.
+ *
+ * @author ian (ianH92)
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+public class SynthesisMetrics implements SynthesisMetricsMBean {
+	/** The name the metrics are registered under */
+	public static final String OBJECT_NAME = "TransformationSynthesis:type=SynthesisMetrics";
+
+	private static final SynthesisMetrics INSTANCE = new SynthesisMetrics();
+	// Bucket b of a histogram holds latencies under 2^b microseconds
+	private static final int BUCKETS = 40;
+	private static final int MAX_LINES = 30;
+
+	private final LongAdder syntheses = new LongAdder();
+	private final LongAdder failures = new LongAdder();
+	private final LongAdder gates = new LongAdder();
+	private final LongAdder passes = new LongAdder();
+	private final LongAdder candidates = new LongAdder();
+	private final LongAdder allocated = new LongAdder();
+	// One histogram for each line count and algorithm, created when first used
+	private final AtomicReferenceArray<Histogram> histograms =
+		new AtomicReferenceArray<>((MAX_LINES + 1) * TransformationAlgorithms.ALGORITHM_COUNT);
+	private long lastCount = 0;
+	private long lastNanos = System.nanoTime();
+
+	/** The latencies of the syntheses of one line count and algorithm
+	 */
+	private static class Histogram {
+		final LongAdder[] buckets = new LongAdder[BUCKETS];
+		final LongAdder totalNanos = new LongAdder();
+		final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+		Histogram() {
+			for(int b = 0; b < BUCKETS; b++) {
+				this.buckets[b] = new LongAdder();
+			}
+		}
+
+		void record(long nanos) {
+			long micros = nanos / 1000;
+			int bucket = Math.min(64 - Long.numberOfLeadingZeros(micros), BUCKETS - 1);
+			this.buckets[bucket].increment();
+			this.totalNanos.add(nanos);
+			this.maxNanos.accumulate(nanos);
+		}
+
+		long[] counts() {
+			long[] counts = new long[BUCKETS];
+			for(int b = 0; b < BUCKETS; b++) {
+				counts[b] = this.buckets[b].sum();
+			}
+			return counts;
+		}
+	}
+
+	/** A synthesis to be measured
+	 */
+	public interface Synthesis {
+		GateList run() throws UserInputException;
+	}
+
+	/** Returns the metrics of this program
+	 */
+	public static SynthesisMetrics get() {
+		return INSTANCE;
+	}
+
+	/** Publishes the metrics on the platform MBean server, if they are not published already
+	 */
+	public static void register() {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+		} catch(InstanceAlreadyExistsException e) {
+			// Already published
+		} catch(JMException e) {
+			System.err.println("Metrics could not be published: " + e.getMessage());
+		}
+	}
+
+	/** Runs a synthesis, recording its latency, the gates it emitted and the bytes it allocated
+	 * @param lines The number of inputs of the function
+	 * @param algorithm The flag of the algorithm
+	 * @param synthesis The synthesis
+	 * @return The gates of the circuit
+	 */
+	public static GateList measure(int lines, int algorithm, Synthesis synthesis) throws UserInputException {
+		long allocatedBefore = allocatedBytes();
+		long start = System.nanoTime();
+		GateList gates = synthesis.run();
+		long nanos = System.nanoTime() - start;
+		long allocatedAfter = allocatedBytes();
+
+		SynthesisMetrics metrics = INSTANCE;
+		metrics.syntheses.increment();
+		metrics.gates.add(gates.size());
+		if(allocatedBefore >= 0 && allocatedAfter >= 0) {
+			metrics.allocated.add(allocatedAfter - allocatedBefore);
+		}
+		metrics.histogram(lines, algorithm).record(nanos);
+		return gates;
+	}
+
+	/** Counts a synthesis that failed with a UserInputException
+	 */
+	public static void countFailure() {
+		INSTANCE.failures.increment();
+	}
+
+	/** Counts a pass over the rows of a table
+	 */
+	static void countPass() {
+		INSTANCE.passes.increment();
+	}
+
+	/** Counts control lines compared when choosing the control lines of a gate
+	 * @param count The number of control lines compared
+	 */
+	static void countCandidates(int count) {
+		INSTANCE.candidates.add(count);
+	}
+
+	/** Returns the bytes the current thread has allocated, or -1 if the JVM cannot tell
+	 */
+	static long allocatedBytes() {
+		java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if(threads instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean sun = (com.sun.management.ThreadMXBean) threads;
+			if(sun.isThreadAllocatedMemorySupported() && sun.isThreadAllocatedMemoryEnabled()) {
+				return sun.getThreadAllocatedBytes(Thread.currentThread().getId());
+			}
+		}
+		return -1;
+	}
+
+	/** Returns the histogram for a line count and algorithm, creating it the first time
+	 */
+	private Histogram histogram(int lines, int algorithm) {
+		int index = (Math.min(lines, MAX_LINES) * TransformationAlgorithms.ALGORITHM_COUNT) + algorithm;
+		Histogram histogram = this.histograms.get(index);
+		if(histogram == null) {
+			this.histograms.compareAndSet(index, null, new Histogram());
+			histogram = this.histograms.get(index);
+		}
+		return histogram;
+	}
+
+	@Override
+	public long getSyntheses() {
+		return this.syntheses.sum();
+	}
+
+	@Override
+	public synchronized double getSynthesesPerSecond() {
+		long count = this.syntheses.sum();
+		long now = System.nanoTime();
+		double rate = (count - this.lastCount) / (Math.max(now - this.lastNanos, 1) / 1e9);
+		this.lastCount = count;
+		this.lastNanos = now;
+		return rate;
+	}
+
+	@Override
+	public long getFailures() {
+		return this.failures.sum();
+	}
+
+	@Override
+	public long getGatesEmitted() {
+		return this.gates.sum();
+	}
+
+	@Override
+	public long getTablePasses() {
+		return this.passes.sum();
+	}
+
+	@Override
+	public long getControlCandidatesEvaluated() {
+		return this.candidates.sum();
+	}
+
+	@Override
+	public long getAllocatedBytes() {
+		return (allocatedBytes() < 0) ? -1 : this.allocated.sum();
+	}
+
+	@Override
+	public long getAllocatedBytesPerSynthesis() {
+		long count = this.syntheses.sum();
+		return (allocatedBytes() < 0) ? -1 : (this.allocated.sum() / Math.max(count, 1));
+	}
+
+	@Override
+	public String[] getLatencyHistograms() {
+		ArrayList<String> summaries = new ArrayList<>();
+		for(int index = 0; index < this.histograms.length(); index++) {
+			Histogram histogram = this.histograms.get(index);
+			if(histogram == null) {
+				continue;
+			}
+			long[] counts = histogram.counts();
+			long count = 0;
+			for(long c : counts) {
+				count += c;
+			}
+			if(count == 0) {
+				continue;
+			}
+			summaries.add(String.format("lines=%d algorithm=%s count=%d mean=%.3fms p50<%dus p99<%dus max=%.3fms",
+							index / TransformationAlgorithms.ALGORITHM_COUNT,
+							TransformationAlgorithms.algorithmName(index % TransformationAlgorithms.ALGORITHM_COUNT),
+							count, histogram.totalNanos.sum() / (1e6 * count), percentile(counts, count, 0.50),
+							percentile(counts, count, 0.99), histogram.maxNanos.get() / 1e6));
+		}
+		return summaries.toArray(new String[summaries.size()]);
+	}
+
+	/** Returns the upper bound in microseconds of the bucket holding a percentile
+	 */
+	private static long percentile(long[] counts, long count, double fraction) {
+		long rank = (long) Math.ceil(fraction * count);
+		long seen = 0;
+		for(int b = 0; b < counts.length; b++) {
+			seen += counts[b];
+			if(seen >= rank) {
+				return 1L << b;
+			}
+		}
+		return 1L << (counts.length - 1);
+	}
+
+	@Override
+	public long[] latencyBuckets(int lines, String algorithm) {
+		try {
+			int flag = TransformationAlgorithms.algorithmNamed(algorithm);
+			if(flag >= TransformationAlgorithms.ALGORITHM_COUNT) {
+				throw new IllegalArgumentException("Syntheses are recorded under the algorithm picked for them.");
+			}
+			return histogram(lines, flag).counts();
+		} catch(UserInputException e) {
+			throw new IllegalArgumentException(e.getMessage());
+		}
+	}
+
+	@Override
+	public synchronized void reset() {
+		for(LongAdder count : new LongAdder[] {this.syntheses, this.failures, this.gates, this.passes,
+												this.candidates, this.allocated}) {
+			count.reset();
+		}
+		for(int index = 0; index < this.histograms.length(); index++) {
+			this.histograms.set(index, null);
+		}
+		this.lastCount = 0;
+		this.lastNanos = System.nanoTime();
+	}
+}
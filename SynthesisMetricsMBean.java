@@ -0,0 +1,45 @@
+/** The management interface of the synthesis metrics, as seen through JMX.
+ *	Counts are totals since the program started or the metrics were last reset.
+ *
+ * @author ian (ianH92)
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+public interface SynthesisMetricsMBean {
+	/** Returns the number of circuits synthesized */
+	long getSyntheses();
+
+	/** Returns the syntheses per second since this attribute was last read */
+	double getSynthesesPerSecond();
+
+	/** Returns the number of syntheses that failed with a UserInputException */
+	long getFailures();
+
+	/** Returns the number of gates in all circuits synthesized */
+	long getGatesEmitted();
+
+	/** Returns the number of passes made over the rows of a table */
+	long getTablePasses();
+
+	/** Returns the number of control lines compared when choosing the control lines of gates */
+	long getControlCandidatesEvaluated();
+
+	/** Returns the bytes allocated on the heap by the threads running syntheses, or -1 if unknown */
+	long getAllocatedBytes();
+
+	/** Returns the mean bytes allocated on the heap for each synthesis, or -1 if unknown */
+	long getAllocatedBytesPerSynthesis();
+
+	/** Returns a summary of the latency histogram of every line count and algorithm used */
+	String[] getLatencyHistograms();
+
+	/** Returns the latency histogram for a line count and algorithm
+	 * @param lines The number of inputs of the functions
+	 * @param algorithm The name of the algorithm
+	 * @return The number of syntheses in each bucket; bucket b holds latencies under 2^b microseconds
+	 */
+	long[] latencyBuckets(int lines, String algorithm);
+
+	/** Sets every count back to zero */
+	void reset();
+}
@@ -0,0 +1,400 @@
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Synthesizes circuits for many specification files with a pipeline of concurrent stages.
+ *	Each file passes through a parse stage, which reads the specification, a synthesis stage, an
+ *	optional verify stage, which runs every row of the truth table through the circuit, and a write
+ *	stage, which writes the circuit as a .real or .tfc file. Every stage has its own threads and a
+ *	bounded queue in front of it, so the disk is read and written while other files are being
+ *	synthesized and a stage that falls behind holds up the stages before it instead of letting
+ *	their work pile up in memory.
+ *
+ *	Every stage counts the files it has handled, the time its threads spent working and the depth
+ *	of its queue; the report shows how busy each stage is, which is the stage to give more threads.
+ *
+ * @author ian (ianH92)
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+public class SynthesisPipeline {
+	// The item that follows the last file through the queues
+	private static final Item END = new Item(null);
+
+	private final int algorithm;
+	private final int format;
+	private final File outputDirectory;
+	private final Stage[] stages;
+	private final AtomicInteger failures = new AtomicInteger();
+	private final List<String> errors = new ArrayList<>();
+	private LookaheadSynthesis lookahead = null;
+	private LineRelabeling relabeling = null;
+
+	/** A specification file on its way through the pipeline
+	 */
+	private static class Item {
+		final File source;
+		PermutationModel model;
+		GateList gates;
+		String error;
+
+		Item(File source) {
+			this.source = source;
+		}
+	}
+
+	/** The work done by a stage on each item
+	 */
+	private interface Step {
+		void apply(Item item) throws Exception;
+	}
+
+	/** A step of the pipeline with its own threads and the queue that feeds them
+	 */
+	private class Stage {
+		final String name;
+		final Step step;
+		final BlockingQueue<Item> queue;
+		final Thread[] threads;
+		final AtomicInteger running;
+		final AtomicLong handled = new AtomicLong();
+		final AtomicLong busyNanos = new AtomicLong();
+		volatile int maxDepth = 0;
+		Stage next;
+
+		Stage(String name, int threads, int queueCapacity, Step step) {
+			this.name = name;
+			this.step = step;
+			this.queue = new ArrayBlockingQueue<>(queueCapacity);
+			this.threads = new Thread[threads];
+			this.running = new AtomicInteger(threads);
+			for(int i = 0; i < threads; i++) {
+				this.threads[i] = new Thread(this::run, "pipeline-" + name + "-" + i);
+				this.threads[i].setDaemon(true);
+			}
+		}
+
+		void put(Item item) throws InterruptedException {
+			this.queue.put(item);
+			int depth = this.queue.size();
+			if(depth > this.maxDepth) {
+				this.maxDepth = depth;
+			}
+		}
+
+		void run() {
+			try {
+				while(true) {
+					Item item = this.queue.take();
+					if(item == END) {
+						// Leave the end for the other threads; the last one to stop passes it on
+						if(this.running.decrementAndGet() > 0) {
+							this.queue.put(END);
+						} else if(this.next != null) {
+							this.next.put(END);
+						}
+						return;
+					}
+
+					if(item.error == null) {
+						long start = System.nanoTime();
+						try {
+							this.step.apply(item);
+						} catch(UserInputException e) {
+							SynthesisMetrics.countFailure();
+							item.error = e.getMessage();
+						} catch(Exception | OutOfMemoryError e) {
+							item.error = "Error: " + e;
+						}
+						this.busyNanos.addAndGet(System.nanoTime() - start);
+						this.handled.incrementAndGet();
+					}
+
+					if(item.error != null) {
+						fail(item);
+					} else if(this.next != null) {
+						this.next.put(item);
+					}
+				}
+			} catch(InterruptedException e) {
+				// The pipeline was abandoned
+			}
+		}
+	}
+
+	/** Creates a pipeline
+	 * @param algorithm The flag of the algorithm from TransformationAlgorithms
+	 * @param format CircuitWriter.REAL_FORMAT or CircuitWriter.TFC_FORMAT
+	 * @param outputDirectory The directory the circuits are written to
+	 * @param threads The number of threads of the parse, synthesize, verify and write stages; a
+	 *	verify stage with no threads is left out
+	 * @param queueCapacity The number of files that can wait in front of each stage
+	 */
+	public SynthesisPipeline(int algorithm, int format, File outputDirectory, int[] threads, int queueCapacity) {
+		this.algorithm = algorithm;
+		this.format = format;
+		this.outputDirectory = outputDirectory;
+
+		List<Stage> list = new ArrayList<>();
+		list.add(new Stage("parse", threads[0], queueCapacity, item -> {
+			item.model = SpecificationReader.read(item.source.getPath());
+		}));
+		list.add(new Stage("synthesize", threads[1], queueCapacity, item -> {
+			int chosen = AlgorithmSelector.resolve(FunctionSource.of(item.model), this.algorithm);
+			item.gates = SynthesisMetrics.measure(item.model.lines(), chosen, () -> {
+				GateList direct = TransformationAlgorithms.synthesizeWithoutTable(FunctionSource.of(item.model), chosen);
+				if(direct != null) {
+					return direct;
+				}
+				// Reject a function whose table and gates cannot fit in the heap left before starting on it
+				MemoryPlanner.heapOnly().plan(item.model.lines(), chosen, false, false);
+				HeapPermutationTable table = new HeapPermutationTable(item.model.lines());
+				table.load(item.model);
+				if(this.relabeling != null) {
+					return this.relabeling.synthesize(table, chosen);
+				} else if(this.lookahead != null && chosen == TransformationAlgorithms.BIDIRECTIONAL_ALGORITHM) {
+					return this.lookahead.synthesize(table);
+				}
+				return TransformationAlgorithms.synthesize(table, chosen);
+			});
+		}));
+		if(threads[2] > 0) {
+			list.add(new Stage("verify", threads[2], queueCapacity, item -> {
+				verify(item.gates, item.model);
+			}));
+		}
+		list.add(new Stage("write", threads[3], queueCapacity, item -> {
+			CircuitWriter.write(outputFile(item.source).getPath(), item.gates);
+			// The truth table is no longer needed once the circuit is written
+			item.model = null;
+		}));
+
+		this.stages = list.toArray(new Stage[list.size()]);
+		for(int i = 0; i + 1 < this.stages.length; i++) {
+			this.stages[i].next = this.stages[i + 1];
+		}
+	}
+
+	/** Makes the bidirectional algorithm look ahead a number of rows when choosing transformations
+	 * @param depth The number of rows to look ahead, or 0 for the plain bidirectional algorithm
+	 */
+	public void setLookahead(int depth) {
+		this.lookahead = (depth > 0) ? new LookaheadSynthesis(depth, ForkJoinPool.commonPool()) : null;
+	}
+
+	/** Makes the synthesis stage try a number of relabelings of the lines of each function
+	 *	When set, the relabeling search is used instead of the lookahead.
+	 *
+	 * @param trials The largest number of relabelings to try, or 0 to use the lines as given
+	 */
+	public void setRelabeling(int trials) {
+		this.relabeling = (trials > 0) ? new LineRelabeling(trials, ForkJoinPool.commonPool()) : null;
+	}
+
+	/** Runs the pipeline over a number of specification files
+	 *	The method returns once every file has been written or has failed.
+	 *
+	 * @param files The specification files
+	 * @param reportMillis How often to print the state of the stages, or 0 to print nothing while running
+	 * @return The number of files that failed
+	 */
+	public int run(List<File> files, long reportMillis) throws InterruptedException {
+		for(Stage stage : this.stages) {
+			for(Thread thread : stage.threads) {
+				thread.start();
+			}
+		}
+
+		Stage last = this.stages[this.stages.length - 1];
+		Thread feeder = new Thread(() -> {
+			try {
+				for(File file : files) {
+					this.stages[0].put(new Item(file));
+				}
+				this.stages[0].put(END);
+			} catch(InterruptedException e) {
+				// The pipeline was abandoned
+			}
+		}, "pipeline-feeder");
+		feeder.setDaemon(true);
+		feeder.start();
+
+		long start = System.nanoTime();
+		for(Thread thread : last.threads) {
+			while(thread.isAlive()) {
+				thread.join((reportMillis > 0) ? reportMillis : 0);
+				if(reportMillis > 0 && thread.isAlive()) {
+					System.err.println(report(System.nanoTime() - start));
+				}
+			}
+		}
+		System.err.println(report(System.nanoTime() - start));
+		return this.failures.get();
+	}
+
+	/** Describes how far every stage has got
+	 * @param elapsedNanos The time since the pipeline started
+	 */
+	public String report(long elapsedNanos) {
+		double seconds = Math.max(elapsedNanos, 1) / 1e9;
+		StringBuilder report = new StringBuilder();
+		report.append(String.format("%.1fs, %d failed", seconds, this.failures.get()));
+		for(Stage stage : this.stages) {
+			long handled = stage.handled.get();
+			double busy = stage.busyNanos.get() / (1e9 * seconds * stage.threads.length);
+			report.append(String.format("%n  %-10s %2d threads  %8d files  %9.1f files/s  %3.0f%% busy  queue %d (max %d)",
+										stage.name, stage.threads.length, handled, handled / seconds,
+										100 * busy, stage.queue.size(), stage.maxDepth));
+		}
+		return report.toString();
+	}
+
+	/** Returns the errors of the files that failed, each prefixed with the name of the file
+	 */
+	public List<String> errors() {
+		synchronized(this.errors) {
+			return new ArrayList<>(this.errors);
+		}
+	}
+
+	/** Records a file that failed
+	 */
+	private void fail(Item item) {
+		this.failures.incrementAndGet();
+		synchronized(this.errors) {
+			this.errors.add(item.source.getPath() + ": " + item.error);
+		}
+	}
+
+	/** Finds the name of the circuit file written for a specification file
+	 * @param source The specification file
+	 */
+	private File outputFile(File source) {
+		String name = source.getName();
+		int dot = name.lastIndexOf('.');
+		if(dot > 0) {
+			name = name.substring(0, dot);
+		}
+		return new File(this.outputDirectory, name + ((this.format == CircuitWriter.TFC_FORMAT) ? ".tfc" : ".real"));
+	}
+
+	/** Checks that a circuit realizes the function of a truth table
+	 *	The identity function is run through the circuit a layer at a time, each layer in one pass
+	 *	over a table, and the result compared with the model.
+	 *
+	 * @param gates The gates of the circuit
+	 * @param model The model of the truth table
+	 */
+	static void verify(GateList gates, PermutationModel model) throws UserInputException {
+		PermutationTable table = new HeapPermutationTable(model.lines());
+		table.load(FunctionSource.identity(model.lines()));
+		new GateLayers(gates, false).applyTo(table);
+		for(int i = 0; i < model.rows(); i++) {
+			if(table.forward(i) != model.getOutput(i)) {
+				throw new UserInputException("Error: Circuit does not realize the function at row " + i + ".");
+			}
+		}
+	}
+
+	/** Runs the pipeline from the command line
+	 *	Usage: java SynthesisPipeline [options] outputDirectory (file | directory)...
+	 *	Options: -algorithm output|input|bidirectional|cycle|auto, -format real|tfc, -parse N,
+	 *	-synthesize N, -verify N (0 to skip verification), -write N, -queue N, -report milliseconds,
+	 *	-lookahead k (rows the bidirectional algorithm looks ahead), -relabel N (relabelings of the
+	 *	lines tried).
+	 *
+	 * @param args The options, the output directory and the specification files or directories
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		int algorithm = TransformationAlgorithms.OUTPUT_ALGORITHM;
+		int format = CircuitWriter.REAL_FORMAT;
+		int processors = Runtime.getRuntime().availableProcessors();
+		int[] threads = {1, processors, Math.max(processors / 4, 1), 1};
+		int queueCapacity = 64;
+		long reportMillis = 1000;
+		int lookahead = 0;
+		int relabel = 0;
+
+		int i = 0;
+		try {
+			for(; i < args.length && args[i].startsWith("-"); i += 2) {
+				String value = args[i + 1];
+				switch(args[i]) {
+					case "-algorithm":
+						algorithm = TransformationAlgorithms.algorithmNamed(value);
+						break;
+					case "-format":
+						format = CircuitWriter.formatOf("." + value);
+						break;
+					case "-parse":
+						threads[0] = Integer.parseInt(value);
+						break;
+					case "-synthesize":
+						threads[1] = Integer.parseInt(value);
+						break;
+					case "-verify":
+						threads[2] = Integer.parseInt(value);
+						break;
+					case "-write":
+						threads[3] = Integer.parseInt(value);
+						break;
+					case "-queue":
+						queueCapacity = Integer.parseInt(value);
+						break;
+					case "-report":
+						reportMillis = Long.parseLong(value);
+						break;
+					case "-lookahead":
+						lookahead = Integer.parseInt(value);
+						break;
+					case "-relabel":
+						relabel = Integer.parseInt(value);
+						break;
+					default:
+						throw new IllegalArgumentException("Unknown option " + args[i]);
+				}
+			}
+			if(i >= args.length - 1 || threads[0] < 1 || threads[1] < 1 || threads[2] < 0 || threads[3] < 1) {
+				throw new IllegalArgumentException("Expected an output directory and specification files");
+			}
+		} catch(UserInputException | RuntimeException e) {
+			System.err.println(e.getMessage());
+			System.err.println("Usage: java SynthesisPipeline [options] outputDirectory (file | directory)...");
+			System.exit(2);
+		}
+
+		File outputDirectory = new File(args[i]);
+		outputDirectory.mkdirs();
+		List<File> files = new ArrayList<>();
+		for(i++; i < args.length; i++) {
+			File file = new File(args[i]);
+			File[] contents = file.listFiles();
+			if(contents == null) {
+				files.add(file);
+			} else {
+				Arrays.sort(contents);
+				for(File content : contents) {
+					if(content.isFile()) {
+						files.add(content);
+					}
+				}
+			}
+		}
+
+		SynthesisPipeline pipeline = new SynthesisPipeline(algorithm, format, outputDirectory, threads, queueCapacity);
+		pipeline.setLookahead(lookahead);
+		pipeline.setRelabeling(relabel);
+		SynthesisMetrics.register();
+		int failed = pipeline.run(files, reportMillis);
+		for(String error : pipeline.errors()) {
+			System.err.println(error);
+		}
+		System.exit((failed == 0) ? 0 : 1);
+	}
+}
@@ -0,0 +1,393 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/** A long running server that synthesizes circuits for other programs on the same machine.
+ *	The server listens on a port of the loopback address and accepts any number of connections. A
+ *	connection carries a stream of requests and a stream of responses, each made of the frames
+ *	below, with every number written big-endian:
+ *
+ *	Request:  int id, byte format, byte algorithm, int length, then length bytes of specification.
+ *	          TEXT_FORMAT specifications are the text of a specification file; BINARY_FORMAT
+ *	          specifications are an int holding the number of inputs followed by the output side of
+ *	          every row as an int. A specification longer than MAX_REQUEST_BYTES is skipped and
+ *	          answered with an ERROR response, and the connection carries on.
+ *	Response: int id, byte status. An OK response then holds long queueNanos, long synthesisNanos,
+ *	          int batchSize, int lines, int gateCount, and the control lines and target of every
+ *	          gate as two ints. An ERROR response then holds the message as modified UTF-8.
+ *
+ *	Requests are put on a bounded queue and served by a fixed number of worker threads, so a
+ *	request can be answered out of order; the id ties each response to its request. The queue is
+ *	bounded both in requests and in the bytes of their specifications, which may together take at
+ *	most a quarter of the heap. When either bound is reached the connection stops reading until a
+ *	worker frees room, which pushes back on the client through the socket instead of letting
+ *	requests pile up in memory; the body of a request is only read once its bytes are allowed. A
+ *	worker that takes a small request also takes the small requests queued behind it, up to the
+ *	batch size, runs them together and writes all of their responses to each connection with a
+ *	single flush.
+ *
+ * @author ian (ianH92)
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+public class SynthesisServer implements Closeable {
+	/** The default port the server listens on */
+	public static final int DEFAULT_PORT = 7345;
+	/** The flag for a specification in the text format of specification files */
+	public static final byte TEXT_FORMAT = 0;
+	/** The flag for a specification given as the output side of every row */
+	public static final byte BINARY_FORMAT = 1;
+	/** The status of a response holding a circuit */
+	public static final byte OK = 0;
+	/** The status of a response holding an error message */
+	public static final byte ERROR = 1;
+
+	// Requests with a specification no longer than this are batched; this covers functions of up to
+	// 8 inputs as text, about 4 KB, and of up to 10 inputs in the binary format
+	private static final int SMALL_REQUEST_BYTES = 8 << 10;
+	/** The largest specification accepted, enough for a 24 input function in the binary format */
+	public static final int MAX_REQUEST_BYTES = 4 + (4 << 24);
+	/** The most inputs a function sent in the binary format may have */
+	public static final int MAX_BINARY_LINES = 24;
+
+	private final ServerSocket serverSocket;
+	private final BlockingQueue<Job> queue;
+	// One permit for each byte of specification a request read from a connection may hold
+	private final Semaphore queuedBytes;
+	private final int maxBatch;
+	private final Thread[] workers;
+	private final Thread acceptor;
+	private volatile boolean closed = false;
+
+	/** Starts a server on the loopback address
+	 * @param port The port to listen on, or 0 for any free port
+	 * @param workers The number of worker threads
+	 * @param queueCapacity The number of requests that can wait for a worker
+	 * @param maxBatch The largest number of small requests a worker takes at once
+	 */
+	public SynthesisServer(int port, int workers, int queueCapacity, int maxBatch) throws IOException {
+		this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+		this.queue = new ArrayBlockingQueue<>(queueCapacity);
+		long heapQuarter = Runtime.getRuntime().maxMemory() / 4;
+		this.queuedBytes = new Semaphore((int) Math.min(Math.max(heapQuarter, MAX_REQUEST_BYTES), Integer.MAX_VALUE));
+		this.maxBatch = Math.max(maxBatch, 1);
+
+		this.workers = new Thread[workers];
+		for(int i = 0; i < workers; i++) {
+			this.workers[i] = new Thread(this::work, "synthesis-worker-" + i);
+			this.workers[i].setDaemon(true);
+			this.workers[i].start();
+		}
+		this.acceptor = new Thread(this::accept, "synthesis-acceptor");
+		this.acceptor.setDaemon(true);
+		this.acceptor.start();
+	}
+
+	/** Starts a server and runs until the program is stopped
+	 * @param args Optionally the port, the number of workers, the queue capacity and the batch size
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int port = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+		int workers = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		int queueCapacity = (args.length > 2) ? Integer.parseInt(args[2]) : 1024;
+		int maxBatch = (args.length > 3) ? Integer.parseInt(args[3]) : 32;
+
+		SynthesisServer server = new SynthesisServer(port, workers, queueCapacity, maxBatch);
+		SynthesisMetrics.register();
+		System.out.println("Synthesis server listening on localhost:" + server.port() + " with " +
+							workers + " workers.");
+		server.acceptor.join();
+	}
+
+	/** Returns the port the server is listening on
+	 */
+	public int port() {
+		return this.serverSocket.getLocalPort();
+	}
+
+	/** Stops accepting connections and stops the workers
+	 *	Open connections are closed as soon as they next read a request.
+	 */
+	@Override
+	public void close() throws IOException {
+		this.closed = true;
+		this.serverSocket.close();
+		for(Thread worker : this.workers) {
+			worker.interrupt();
+		}
+	}
+
+	/** Accepts connections and starts a reader thread for each one
+	 */
+	private void accept() {
+		while(!this.closed) {
+			try {
+				Socket socket = this.serverSocket.accept();
+				socket.setTcpNoDelay(true);
+				Connection connection = new Connection(socket);
+				Thread reader = new Thread(connection::read, "synthesis-connection-" + socket.getPort());
+				reader.setDaemon(true);
+				reader.start();
+			} catch(IOException e) {
+				// The server socket was closed, or the connection failed before it was set up
+			}
+		}
+	}
+
+	/** Takes batches of jobs off the queue and answers them until the server is closed
+	 */
+	private void work() {
+		List<Job> batch = new ArrayList<>(this.maxBatch);
+		Map<Connection, List<Job>> byConnection = new IdentityHashMap<>();
+		try {
+			while(!this.closed) {
+				Job first = this.queue.take();
+				batch.add(first);
+				if(first.isSmall()) {
+					// Take the small jobs waiting behind the first one; a large job ends the batch
+					Job next;
+					while(batch.size() < this.maxBatch && (next = this.queue.peek()) != null && next.isSmall()) {
+						next = this.queue.poll();
+						if(next == null) {
+							break;
+						}
+						batch.add(next);
+					}
+				}
+
+				for(Job job : batch) {
+					job.run(batch.size());
+					List<Job> jobs = byConnection.get(job.connection);
+					if(jobs == null) {
+						jobs = new ArrayList<>();
+						byConnection.put(job.connection, jobs);
+					}
+					jobs.add(job);
+				}
+				for(Map.Entry<Connection, List<Job>> entry : byConnection.entrySet()) {
+					entry.getKey().respond(entry.getValue());
+				}
+				for(Job job : batch) {
+					this.queuedBytes.release(job.specification.length);
+				}
+				batch.clear();
+				byConnection.clear();
+			}
+		} catch(InterruptedException e) {
+			// The server was closed
+		}
+	}
+
+	/** Synthesizes the circuit for a specification
+	 * @param format TEXT_FORMAT or BINARY_FORMAT
+	 * @param algorithm The flag of the algorithm from TransformationAlgorithms
+	 * @param specification The bytes of the specification
+	 * @return The gates of the circuit
+	 */
+	static GateList synthesize(byte format, int algorithm, byte[] specification) throws UserInputException {
+		PermutationModel model;
+		try {
+			if(format == TEXT_FORMAT) {
+				model = new SpecificationReader(new ByteArrayInputStream(specification)).read();
+			} else if(format == BINARY_FORMAT) {
+				model = readBinary(specification);
+			} else {
+				throw new UserInputException("Error: Unknown specification format " + format + ".");
+			}
+		} catch(IOException e) {
+			throw new UserInputException("Specification could not be read: " + e.getMessage());
+		}
+
+		FunctionSource function = FunctionSource.of(model);
+		int chosen = AlgorithmSelector.resolve(function, algorithm);
+		return SynthesisMetrics.measure(model.lines(), chosen,
+										() -> TransformationAlgorithms.synthesize(function, chosen));
+	}
+
+	/** Reads a specification in the binary format into a model
+	 * @param specification The bytes of the specification
+	 */
+	private static PermutationModel readBinary(byte[] specification) throws UserInputException, IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(specification));
+		int lines = in.readInt();
+		if(lines < 1 || lines > MAX_BINARY_LINES || specification.length != 4 + (4 << lines)) {
+			throw new UserInputException("Error: Binary specification does not hold a whole truth table.");
+		}
+		PermutationModel model = new PermutationModel(lines);
+		for(int i = 0; i < model.rows(); i++) {
+			int output = in.readInt();
+			if(output < 0 || output >= model.rows()) {
+				throw new UserInputException("Error: Binary specification has an output side of " + output +
+											" in row " + i + ", outside the truth table.");
+			}
+			model.setOutput(i, output);
+		}
+		return model;
+	}
+
+	/** A request waiting to be served, which holds its response once it has run
+	 */
+	private static class Job {
+		final Connection connection;
+		final int id;
+		final byte format;
+		final byte algorithm;
+		final byte[] specification;
+		final long enqueued = System.nanoTime();
+
+		long queueNanos;
+		long synthesisNanos;
+		int batchSize;
+		GateList gates;
+		String error;
+
+		Job(Connection connection, int id, byte format, byte algorithm, byte[] specification) {
+			this.connection = connection;
+			this.id = id;
+			this.format = format;
+			this.algorithm = algorithm;
+			this.specification = specification;
+		}
+
+		boolean isSmall() {
+			return this.specification.length <= SMALL_REQUEST_BYTES;
+		}
+
+		/** Synthesizes the circuit, keeping the gates or the error for the response
+		 * @param batchSize The number of jobs run in the same batch
+		 */
+		void run(int batchSize) {
+			long start = System.nanoTime();
+			this.queueNanos = start - this.enqueued;
+			this.batchSize = batchSize;
+			try {
+				this.gates = synthesize(this.format, this.algorithm, this.specification);
+			} catch(UserInputException e) {
+				SynthesisMetrics.countFailure();
+				this.error = e.getMessage();
+			} catch(RuntimeException | OutOfMemoryError e) {
+				this.error = "Error: Synthesis failed: " + e;
+			}
+			this.synthesisNanos = System.nanoTime() - start;
+		}
+	}
+
+	/** A connection to a client, read by its own thread and written by the workers
+	 */
+	private class Connection {
+		private final Socket socket;
+		private final DataOutputStream out;
+
+		Connection(Socket socket) throws IOException {
+			this.socket = socket;
+			this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 1 << 16));
+		}
+
+		/** Reads requests and queues them until the client closes the connection
+		 */
+		void read() {
+			try(Socket s = this.socket) {
+				DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream(), 1 << 16));
+				while(!closed) {
+					int id;
+					try {
+						id = in.readInt();
+					} catch(EOFException e) {
+						return;
+					}
+					byte format = in.readByte();
+					byte algorithm = in.readByte();
+					int length = in.readInt();
+					if(length < 0) {
+						// The stream cannot be followed past a bad length, so the connection ends here
+						reject(id, format, algorithm, "Error: Request has a negative length.");
+						return;
+					}
+					if(length > MAX_REQUEST_BYTES) {
+						// Skip the body so the next request on the connection can still be read
+						for(long left = length; left > 0; ) {
+							long skipped = in.skip(left);
+							if(skipped <= 0) {
+								in.readByte();
+								skipped = 1;
+							}
+							left -= skipped;
+						}
+						reject(id, format, algorithm, "Error: Request of " + length + " bytes is too large; at most " +
+								MAX_REQUEST_BYTES + " bytes are accepted.");
+						continue;
+					}
+					// Both block while the queue is full, which stops this connection from being read
+					queuedBytes.acquire(length);
+					byte[] specification = new byte[length];
+					try {
+						in.readFully(specification);
+						queue.put(new Job(this, id, format, algorithm, specification));
+					} catch(IOException | InterruptedException e) {
+						queuedBytes.release(length);
+						throw e;
+					}
+				}
+			} catch(IOException | InterruptedException e) {
+				// The client went away or the server was closed
+			}
+		}
+
+		/** Answers a request that is not queued with an error
+		 */
+		private void reject(int id, byte format, byte algorithm, String error) {
+			Job rejected = new Job(this, id, format, algorithm, new byte[0]);
+			rejected.error = error;
+			respond(Collections.singletonList(rejected));
+		}
+
+		/** Writes the responses to a number of jobs and flushes them together
+		 * @param jobs The jobs that have run
+		 */
+		synchronized void respond(List<Job> jobs) {
+			try {
+				for(Job job : jobs) {
+					this.out.writeInt(job.id);
+					if(job.error != null) {
+						this.out.writeByte(ERROR);
+						this.out.writeUTF(job.error);
+						continue;
+					}
+					this.out.writeByte(OK);
+					this.out.writeLong(job.queueNanos);
+					this.out.writeLong(job.synthesisNanos);
+					this.out.writeInt(job.batchSize);
+					this.out.writeInt(job.gates.lines());
+					this.out.writeInt(job.gates.size());
+					for(int i = 0; i < job.gates.size(); i++) {
+						this.out.writeInt(job.gates.controlLines(i));
+						this.out.writeInt(job.gates.target(i));
+					}
+				}
+				this.out.flush();
+			} catch(IOException e) {
+				// The client has gone; closing the socket also ends its reader thread
+				try {
+					this.socket.close();
+				} catch(IOException ignored) {
+				}
+			}
+		}
+	}
+}
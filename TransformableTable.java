@@ -0,0 +1,42 @@
+/** The rows of a truth table as the transformation steps read and change them.
+ *	A step of the output or input algorithm reads the two sides of a row and adds gates to one
+ *	side of the table, and needs nothing else of it. PermutationTable keeps the whole table; the
+ *	branches of LookaheadSynthesis only keep the gates they add around a table they share.
+ *
+ * @author ian (ianH92)
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+public interface TransformableTable {
+	/** Returns the number of inputs to the Boolean function
+	 */
+	int lines();
+
+	/** Returns the number of rows in the table
+	 */
+	default int rows() {
+		return 1 << lines();
+	}
+
+	/** Returns the output side of the row whose input side is x
+	 * @param x The input side of the row
+	 */
+	int forward(int x);
+
+	/** Returns the input side of the row whose output side is y
+	 * @param y The output side of the row
+	 */
+	int inverse(int y);
+
+	/** Transforms the output side of the table with a gate
+	 * @param target Represents the bit(s) to be flipped with 1s, 0s in non-target positions.
+	 * @param controlLines Represents the control lines with 1 bits.
+	 */
+	void transformOutputs(int target, int controlLines);
+
+	/** Transforms the input side of the table with a gate
+	 * @param target Represents the bit(s) to be flipped with 1s, 0s in non-target positions.
+	 * @param controlLines Represents the control lines with 1 bits.
+	 */
+	void transformInputs(int target, int controlLines);
+}
@@ -1,3 +1,5 @@
+import java.io.UncheckedIOException;
+
 /** A class holding the transformation algorithms and their helper methods
  *	The class holds three algorithms which will synthesize a reversible circuit for a reversible
  *	Boolean function using Toffoli gates. The three algorithms are the output transformation
@@ -6,215 +8,143 @@
  *	Miller, D. Michael, Dmitri Maslov, and Gerhard W. Dueck. "A transformation based algorithm for
  *		reversible logic synthesis." Design Automation Conference, 2003. Proceedings. IEEE, 2003.
  *
+ *	A fourth algorithm, the cycle algorithm, breaks the permutation into cycles and builds each
+ *	cycle from transpositions of two rows. It never transforms the table, so its work grows with
+ *	the number of rows the function moves rather than with the size of the table, which suits large
+ *	functions that are close to the identity; its circuits are larger than those of the other
+ *	algorithms when many rows move.
+ *
+ *	Before any algorithm runs, functions that are affine over GF(2) are recognized and synthesized
+ *	directly with CNOT and NOT gates by LinearSynthesis, which is far cheaper than processing every
+ *	row of a large table and is kept for small tables only when it is smaller, and functions made
+ *	of independent functions on disjoint sets of lines are split into those parts by
+ *	SubfunctionDecomposition and the parts synthesized separately. The AUTO_ALGORITHM flag has
+ *	AlgorithmSelector pick one of the three transformation algorithms from features of the table
+ *	read in a single pass.
+ *
  * The algorithms are all designed to take a double int array containing the truth table of the
- * reversible Boolean function and return an array containing the gates of the circuit.
+ * reversible Boolean function and return an array containing the gates of the circuit. Internally
+ * the algorithms work on a PermutationTable and collect the gates in a GateList; these forms can
+ * also be passed in directly, which lets a table stored outside of the Java heap be synthesized.
  *
  * @author ian (ianH92)
  * @version 2.0
  * @since June 21st, 2017
  */
 public class TransformationAlgorithms {
-	
-	/** The birdirectional transformation algorithm
-	 *	Method applies the birdirectional algorithm as described in the paper above to transformTable
-	 *	a given truth table to the identity and return an array representing the circuit that
-	 *	realizes the reversible Boolean function specified in the truth table.
-	 
+	/** The flag for the output transformation algorithm */
+	public static final int OUTPUT_ALGORITHM = 0;
+	/** The flag for the input transformation algorithm */
+	public static final int INPUT_ALGORITHM = 1;
+	/** The flag for the bidirectional transformation algorithm */
+	public static final int BIDIRECTIONAL_ALGORITHM = 2;
+	/** The flag for the cycle algorithm */
+	public static final int CYCLE_ALGORITHM = 3;
+	/** The number of algorithms; the flags run from 0 to one less than this */
+	public static final int ALGORITHM_COUNT = 4;
+	/** The flag that picks one of the transformation algorithms from the table, with AlgorithmSelector */
+	public static final int AUTO_ALGORITHM = 4;
+
+	// The most lines for which an affine function is also synthesized by the algorithm, keeping the
+	// smaller circuit
+	private static final int LINEAR_COMPARE_LINES = 16;
+
+	// The names of the algorithms, in the order of their flags, and then auto
+	private static final String[] ALGORITHM_NAMES = {"output", "input", "bidirectional", "cycle", "auto"};
+
+	/** Synthesizes a circuit with the algorithm given by a flag
 	 * @param userInput The array representation of the truth table for the reversible function.
+	 * @param algorithm One of the algorithm flags.
 	 * @return The array representation of the gates that realize the Boolean function.
 	 */
-	public static int[][] bidirectionalAlgorithm(int[][] userInput) throws UserInputException {
-		try {
-			int rows = userInput.length;
-			int columns = userInput[0].length;
-			int maxNumGates = ((columns - 1) * ((int)Math.pow(2.0, columns))) + 1;
-			int[][] outputGates = new int[maxNumGates][columns];
-			int[][] inputGates = new int[maxNumGates][columns];
-			int numberOfInputGates = 0;
-			int numberOfOutputGates = 0;
-			int[][] table = userInputToTable(userInput);
-			
-			for(int i = 0; i < rows; i++) {
-				int input = table[findIndexForInputAlgorithm(table, i)][0];
-				int h1 = hammingDistance(i, table[i][1], columns);
-				int h2 = hammingDistance(i, input, columns);
-				
-				/* Decide whether to use an input transformation or an output transformation based on 
-				 * the Hamming distances of the two possible steps. If HammingDistance(input, Expansion)
-				 * is smaller that HammingDistance(input, index(input)) then use the output 
-				 * transformation, else use the input transformation.
-				 */
-				if(h1 <= h2) {
-					int index = table[i][0];
-					int expansion = table[i][1];
-					int target;
-					
-					if(i == 0) {
-						// First step: Flip all the bits in f+(0) that are 1 to zero
-						index = 0;
-						expansion = table[index][1];
-						target = table[index][1];
-						if(expansion != index) {
-							transformTable(target, 0, table, 1);
-							addGate(outputGates, numberOfOutputGates, columns, 0, target);
-							numberOfOutputGates++;
-						}
-					} else {
-						index = table[i][0];
-						expansion = table[i][1];
-							
-						if(index == expansion) {
-							// If the row index equals the expansion, nothing needs to be done
-						} else {
-							// p represents all the 0 bits that must be flipped to 1 in the expansion
-							int p = ((index ^ expansion) & index);
-							// q represents all the 1 bits that must be flipped to 0 in the expansion
-							int q = ((index ^ expansion) & expansion);
-								
-							// Process the targets in p
-							for(int j = 0; j < columns; j++) {
-								index = table[i][0];
-								expansion = table[i][1];
-								target = (1 << j);
-								
-								if((p & target) != 0) {
-									int[] validControls = validControlLines(target, expansion, index);
-									int control = bestControlLine(validControls, target, table, 1, columns);
-									transformTable(target, control, table, 1);
-									addGate(outputGates, numberOfOutputGates, columns, control, target);
-									numberOfOutputGates++;
-								}
-							}
-							
-							// Process the targets in q
-							for(int j = 0; j < columns; j++) {
-								index = table[i][0];
-								expansion = table[i][1];
-								target = (1 << j);
-								
-								if((q & target) != 0) {
-									int[] validControls = validControlLines(target, expansion, index);
-									int control = bestControlLine(validControls, target, table, 1, columns);
-									transformTable(target, control, table, 1);
-									addGate(outputGates, numberOfOutputGates, columns, control, target);
-									numberOfOutputGates++;
-								}
-							}
-						}
-					} 
-				} else {
-					// Find the location of the expansion that matches the current index i
-					int index = findIndexForInputAlgorithm(table, i);
-					input = table[index][0];
-					
-					if(input == table[index][1]) {
-						// If the input equals the expansion, nothing needs to be done
-					} else {
-						// p represents all the 0 bits that must be flipped to 1 in the expansion
-						int p = ((i ^ input) & i);
-						// q represents all the 1 bits that must be flipped to 0 in the expansion
-						int q = ((i ^ input) & input);
-						
-						int target = 0;
-						// Process the targets in p
-						for(int j = 0; j < columns; j++) {
-							input = table[index][0];
-							target = (1 << j);
-							
-							if((p & target) != 0) {
-								int[] validControls = validControlLines(target, input, i);
-								int control = bestControlLine(validControls, target, table, 0, columns);
-								transformTable(target, control, table, 0);
-								addGate(inputGates, numberOfInputGates, columns, control, target);
-								numberOfInputGates++;
-							}
-						}
-						
-						// Process the targets in q
-						for(int j = 0; j < columns; j++) {
-							input = table[index][0];
-							target = (1 << j);
-							
-							if((q & target) != 0) {
-								int[] validControls = validControlLines(target, input, i);
-								int control = bestControlLine(validControls, target, table, 0, columns);
-								transformTable(target, control, table, 0);
-								addGate(inputGates, numberOfInputGates, columns, control, target);
-								numberOfInputGates++;
-							}
-						}
-						
-						table = sortTable(table);
-					}	
-				}
-			}
-			
-			int[][] newGates = reduceAndMergeGates(numberOfInputGates, numberOfOutputGates, inputGates, outputGates, columns);
-			return newGates;
-		} catch(ArrayIndexOutOfBoundsException e) {
-			throw new UserInputException("Error: Entered function is not reversible.");
-		}
+	public static int[][] synthesize(int[][] userInput, int algorithm) throws UserInputException {
+		return synthesize(userInputToTable(userInput), algorithm).toArray();
 	}
-	
-	/** Method which sorts the table for the bidirectional algorithm.
-	 *	The method assumes a double int array with each array having a length of two. The array
-	 *	is sorted based on the value of the 0th index of each array.
+
+	/** Synthesizes a circuit for a function computed row by row with the algorithm given by a flag
+	 *	The working table is filled straight from the source, without a truth table in between, and
+	 *	only once the function is known to need one.
 	 *
-	 * @param table The table to be sorted.
-	 * @return The sorted table.
+	 * @param source The reversible function.
+	 * @param algorithm One of the algorithm flags.
+	 * @return The gates that realize the Boolean function.
 	 */
-	private static int[][] sortTable(int[][] table) {
-		int rows = table.length;
-		int[][] newTable = new int[rows][2];
-		
-		for(int i = 0; i < rows; i++) {
-			for(int j = 0; j < rows; j++) {
-				if(table[j][0] == i) {
-					newTable[i][0] = table[j][0];
-					newTable[i][1] = table[j][1];
-				}
-			}
+	public static GateList synthesize(FunctionSource source, int algorithm) throws UserInputException {
+		algorithm = AlgorithmSelector.resolve(source, algorithm);
+		GateList direct = synthesizeWithoutTable(source, algorithm);
+		if(direct != null) {
+			return direct;
 		}
-		return newTable;
+		MemoryPlanner.heapOnly().plan(source.lines(), algorithm, false, false);
+		PermutationTable table = new HeapPermutationTable(source.lines());
+		table.load(source);
+		return transform(table, algorithm);
 	}
-	
-	/** Method merges output generated gates and input generated gates for bidirectional alg.
-	 *	The input gates are added to the front in forward order and the output gates are then addded 
-	 *	in reverse order.
+
+	/** Synthesizes a function without a table of the whole function, if it can be
+	 *	The shortcuts need no such table, and neither does the cycle algorithm, which only reads the
+	 *	output side of each row. Callers that plan the memory of a table call this first, so these
+	 *	functions are never rejected for the size of a table they do not need.
 	 *
-	 * @param numberOfGatesInput The number of input gates that were generated.
-	 * @param numberOfGatesOutput The number of output gates that were generated.
-	 * @param inputGates The array containing the input gates.
-	 * @param outputGates The array containing the output gates.
-	 * @param numberOfInputs The number of inputs the Boolean function has.
-	 * @return The array representation of the circuit.
+	 * @param function The reversible function.
+	 * @param algorithm One of the algorithm flags other than AUTO_ALGORITHM.
+	 * @return The gates of the circuit, or null if the algorithm needs a table
 	 */
-	private static int[][] reduceAndMergeGates(int numberOfGatesInput, int numberOfGatesOutput, 
-	int[][] inputGates, int[][] outputGates, int numberOfInputs) {
-		
-		int[][] newGates = new int[numberOfGatesInput + numberOfGatesOutput][numberOfInputs];
-		int len = newGates.length;
-		
-		int i;
-		for(i = 0; i < numberOfGatesInput; i++) {
-			// Add the input gates to the front of the circuit
-			for(int j = 0; j < numberOfInputs; j++) {
-				newGates[i][j] = inputGates[i][j];
-			}
+	static GateList synthesizeWithoutTable(FunctionSource function, int algorithm) throws UserInputException {
+		if(algorithm < OUTPUT_ALGORITHM || algorithm > CYCLE_ALGORITHM) {
+			throw new UserInputException("Error: Unknown algorithm " + algorithm + ".");
+		}
+		GateList shortcut = shortcut(function, algorithm);
+		if(shortcut != null || algorithm != CYCLE_ALGORITHM) {
+			return shortcut;
 		}
-		
-		int outputIndex = (numberOfGatesOutput - 1);
-		for(i = i; i < len; i++) {
-			// Add the output gates in reverse order to the circuit
-			for(int j = 0; j < numberOfInputs; j++) {
-				newGates[i][j] = outputGates[outputIndex][j];
+		return cycleSynthesis(function);
+	}
+
+	/** Returns the name of an algorithm from its flag
+	 * @param algorithm One of the algorithm flags.
+	 * @return One of output, input, bidirectional, cycle or auto.
+	 */
+	public static String algorithmName(int algorithm) {
+		return ALGORITHM_NAMES[algorithm];
+	}
+
+	/** Finds the flag of an algorithm from its name
+	 * @param name One of output, input, bidirectional, cycle or auto.
+	 * @return The flag of the algorithm.
+	 */
+	public static int algorithmNamed(String name) throws UserInputException {
+		for(int i = 0; i < ALGORITHM_NAMES.length; i++) {
+			if(ALGORITHM_NAMES[i].equalsIgnoreCase(name)) {
+				return i;
 			}
-			outputIndex--;
 		}
-		
-		return newGates;
+		throw new UserInputException("Error: Unknown algorithm " + name + ".");
 	}
-	
+
+	/** The cycle algorithm
+	 *	The method breaks the reversible function in the truth table into cycles and returns an array
+	 *	representing a circuit that swaps the rows of each cycle into place two at a time.
+	 *
+	 * @param userInput The array representation of the truth table for the reversible function.
+	 * @return The array representation of the gates that realize the Boolean function.
+	 */
+	public static int[][] cycleAlgorithm(int[][] userInput) throws UserInputException {
+		return synthesize(userInputToTable(userInput), CYCLE_ALGORITHM).toArray();
+	}
+
+	/** The birdirectional transformation algorithm
+	 *	Method applies the birdirectional algorithm as described in the paper above to transformTable
+	 *	a given truth table to the identity and return an array representing the circuit that
+	 *	realizes the reversible Boolean function specified in the truth table.
+
+	 * @param userInput The array representation of the truth table for the reversible function.
+	 * @return The array representation of the gates that realize the Boolean function.
+	 */
+	public static int[][] bidirectionalAlgorithm(int[][] userInput) throws UserInputException {
+		return synthesize(userInputToTable(userInput), BIDIRECTIONAL_ALGORITHM).toArray();
+	}
+
 	/** The input transformation algorithm; performs an input based transformation on truth table
 	 *	The method takes an array representation of the truth table and performs an input based
 	 *	transformation on the truth table, transforming it to the identity. The method returns the
@@ -224,67 +154,9 @@ public class TransformationAlgorithms {
 	 * @return The array representation of the generated circuit.
 	 */
 	public static int[][] inputAlgorithm(int[][] userInput) throws UserInputException {
-		try {
-			int rows = userInput.length;
-			int columns = userInput[0].length;
-			int maxNumGates = ((columns - 1) * ((int)Math.pow(2.0, columns))) + 1;
-			int[][] gates = new int[maxNumGates][columns];
-			int numberOfGates = 0;
-			int[][] table = userInputToTable(userInput);
-			
-			for(int i = 0; i < rows; i++) {
-				int index = findIndexForInputAlgorithm(table, i);
-				int input = table[index][0];
-				
-				if(input == table[index][1]) {
-					// If the input equals the expansion, nothing needs to be done
-				} else {
-					// p represents all the 0 bits that must be flipped to 1 in the expansion
-					int p = ((i ^ input) & i);
-					// q represents all the 1 bits that must be flipped to 0 in the expansion
-					int q = ((i ^ input) & input);
-					
-					int target = 0;
-					// Process the targets in p
-					for(int j = 0; j < columns; j++) {
-						input = table[index][0];
-						target = (1 << j);
-						
-						if((p & target) != 0) {
-							int[] validControls = validControlLines(target, input, i);
-							int control = bestControlLine(validControls, target, table, 0, columns);
-							transformTable(target, control, table, 0);
-							addGate(gates, numberOfGates, columns, control, target);
-							numberOfGates++;
-						}
-					}
-					
-					// Process the targets in q
-					for(int j = 0; j < columns; j++) {
-						input = table[index][0];
-						target = (1 << j);
-						
-						if((q & target) != 0) {
-							int[] validControls = validControlLines(target, input, i);
-							int control = bestControlLine(validControls, target, table, 0, columns);
-							transformTable(target, control, table, 0);
-							addGate(gates, numberOfGates, columns, control, target);
-							numberOfGates++;
-						}
-					}
-				}
-			}
-			
-			// Process the gates
-			int[][] newGates = reduceGates(gates, numberOfGates, columns);
-			
-			// Create the circuit object
-			return newGates;
-		} catch(ArrayIndexOutOfBoundsException e) {
-			throw new UserInputException("Error: Entered function is not reversible.");
-		}
+		return synthesize(userInputToTable(userInput), INPUT_ALGORITHM).toArray();
 	}
-	
+
 	/** The output transformation algorithm; performs an output based transformation on truth table
 	 *	The method takes an array representation of the truth table and performs an output based
 	 *	transformation on the truth table, transforming it to the identity. The method returns the
@@ -294,180 +166,330 @@ public class TransformationAlgorithms {
 	 * @return The array representation of the generated circuit.
 	 */
 	public static int[][] outputAlgorithm(int[][] userInput) throws UserInputException {
+		return synthesize(userInputToTable(userInput), OUTPUT_ALGORITHM).toArray();
+	}
+
+	/** Runs one of the algorithms on a table.
+	 *	The output gates are found last-first, so the circuit is the input gates in the order they
+	 *	were found followed by the output gates in reverse order. The transformation algorithms leave
+	 *	the table holding the identity; the cycle algorithm, and the synthesis of affine functions
+	 *	and of functions split into parts, leave it as it was.
+	 *
+	 * @param table The truth table of the reversible function.
+	 * @param algorithm One of the algorithm flags, or AUTO_ALGORITHM to pick one from the table.
+	 * @return The gates of the circuit that realizes the Boolean function.
+	 */
+	public static GateList synthesize(PermutationTable table, int algorithm) throws UserInputException {
+		algorithm = AlgorithmSelector.resolve(FunctionSource.of(table.lines(), table::forward), algorithm);
+		if(algorithm < OUTPUT_ALGORITHM || algorithm > CYCLE_ALGORITHM) {
+			throw new UserInputException("Error: Unknown algorithm " + algorithm + ".");
+		}
+		GateList shortcut = shortcut(table, algorithm);
+		if(shortcut != null) {
+			return shortcut;
+		}
+		return transform(table, algorithm);
+	}
+
+	/** Runs one of the algorithms on a table without looking for a shortcut
+	 * @param table The truth table of the reversible function.
+	 * @param algorithm One of the algorithm flags other than AUTO_ALGORITHM.
+	 * @return The gates of the circuit that realizes the Boolean function.
+	 */
+	private static GateList transform(PermutationTable table, int algorithm) throws UserInputException {
 		try {
-			int rows = userInput.length;
-			int columns = userInput[0].length;
-			int maxIndex = (columns - 1);
-			int maxNumGates = ((columns - 1) * ((int)Math.pow(2.0, columns))) + 1;
-			int[][] gates = new int[maxNumGates][columns];
-			int numberOfGates = 0;
-			
-			int[][] table = userInputToTable(userInput);
-			
-			// First step: Flip all the bits in f+(0) that are 1 to zero
-			int index = 0;
-			int expansion = table[index][1];
-			int target = table[index][1];
-			if(expansion != index) {
-				transformTable(target, 0, table, 1);
-				addGate(gates, numberOfGates, columns, 0, target);
-				numberOfGates++;
+			if(algorithm == CYCLE_ALGORITHM) {
+				return cycleSynthesis(FunctionSource.of(table.lines(), table::forward));
 			}
-			
-			for(int i = 1; i < rows; i++) {
-				index = table[i][0];
-				expansion = table[i][1];
-				
-				if(index == expansion) {
-					// If the row index equals the expansion, nothing needs to be done
-				} else {
-					// p represents all the 0 bits that must be flipped to 1 in the expansion
-					int p = ((index ^ expansion) & index);
-					// q represents all the 1 bits that must be flipped to 0 in the expansion
-					int q = ((index ^ expansion) & expansion);
-					
-					
-					// Process the targets in p
-					for(int j = 0; j < columns; j++) {
-						index = table[i][0];
-						expansion = table[i][1];
-						target = (1 << j);
-						
-						if((p & target) != 0) {
-							int[] validControls = validControlLines(target, expansion, index);
-							int control = bestControlLine(validControls, target, table, 1, columns);
-							transformTable(target, control, table, 1);
-							addGate(gates, numberOfGates, columns, control, target);
-							numberOfGates++;
-						}
-					}
-					
-					// Process the targets in q
-					for(int j = 0; j < columns; j++) {
-						index = table[i][0];
-						expansion = table[i][1];
-						target = (1 << j);
-						if((q & target) != 0) {
-							int[] validControls = validControlLines(target, expansion, index);
-							int control = bestControlLine(validControls, target, table, 1, columns);
-							transformTable(target, control, table, 1);
-							addGate(gates, numberOfGates, columns, control, target);
-							numberOfGates++;
-						}
-					}
+
+			int rows = table.rows();
+			int columns = table.lines();
+			GateList inputGates = new GateList(columns);
+			GateList outputGates = new GateList(columns);
+			try {
+				for(int i = 0; i < rows; i++) {
+					synthesizeRow(table, algorithm, inputGates, outputGates, i);
 				}
+			} catch(ArrayIndexOutOfBoundsException e) {
+				throw new UserInputException("Error: Entered function is not reversible.");
 			}
-			
-			// Process the gates
-			int[][] newGates = reverseAndReduceGates(gates, numberOfGates, columns);
-			
-			// Create the circuit object
-			return newGates;
-		} catch(ArrayIndexOutOfBoundsException e) {
-			throw new UserInputException("Error: Entered function is not reversible.");
+
+			inputGates.appendReversed(outputGates);
+			return inputGates;
+		} catch(IllegalStateException e) {
+			// The circuit outgrew its list
+			throw new UserInputException(e.getMessage());
+		} catch(UncheckedIOException e) {
+			// A spilled list could not grow its file
+			throw new UserInputException(e.getMessage() + ": " + e.getCause().getMessage());
 		}
 	}
-	
-	/** Finds the index of the expansion that matched the input side for the input algorithm.
-	 *	The method searches the truth table for the index of the expansion that matches the input
-	 *	side and returns it; the input algorithm uses this to find the input side index it needs to
-	 *	transform.
+
+	/** Synthesizes a function without running an algorithm on its rows, if it has a shortcut
+	 *	Affine functions are synthesized directly by LinearSynthesis, and functions made of
+	 *	independent parts are split by SubfunctionDecomposition and each part synthesized with the
+	 *	algorithm. Every synthesis that works row by row calls this before processing any row, so
+	 *	they all find the same circuit for a function.
+	 *
+	 *	The circuit LinearSynthesis finds is often larger than the one the algorithm finds, since
+	 *	the algorithm may use Toffoli gates. Up to LINEAR_COMPARE_LINES lines the algorithm is also
+	 *	run, on a table of its own, and the smaller circuit kept; an affine function needs few gates,
+	 *	so this takes milliseconds. Above that, walking the table costs far more than the gates saved
+	 *	and the direct circuit is taken.
 	 *
-	 * @param table The array representation of the truth table.
-	 * @param index The input side value that needs to be matched to an expansion.
+	 * @param function The reversible function.
+	 * @param algorithm One of the algorithm flags other than AUTO_ALGORITHM.
+	 * @return The gates of the circuit, or null if the function has no shortcut
 	 */
-	private static int findIndexForInputAlgorithm(int[][] table, int index) throws UserInputException {
-		try {
-			int rows = table.length;
-			for(int i = 0; i < rows; i++) {
-				if(table[i][1] == index) {
-					return i;
-				}
+	static GateList shortcut(FunctionSource function, int algorithm) throws UserInputException {
+		GateList linear = LinearSynthesis.synthesize(function);
+		if(linear != null) {
+			if(function.lines() > LINEAR_COMPARE_LINES) {
+				return linear;
 			}
-		} catch(ArrayIndexOutOfBoundsException e) {
-			throw new UserInputException("Error: Entered Function not reversible.");
+			PermutationTable table = new HeapPermutationTable(function.lines());
+			table.load(function);
+			GateList transformed = transform(table, algorithm);
+			return (transformed.size() < linear.size()) ? transformed : linear;
 		}
-		// Should never reach here, assuming valid input.
-		return -1;
+		return SubfunctionDecomposition.synthesize(function, algorithm);
 	}
-	
-	/** Reduces length and reverses gates generated; used by output transformation algorithm.
-	 *	The method takes an array of gates and removes any unused gates, while simultaneously
-	 *	reversing the gates as per the specification of the output transformation algorithm.
+
+	/** Synthesizes a function without running an algorithm on its rows, if it has a shortcut
+	 *	The table is left as it was.
 	 *
-	 * @param oldGates The array representation of the gates generated by the output algorithm.
-	 * @param numberOfGates The number of gates in oldGates.
-	 * @param numberOfLines The number of lines in the circuit.
+	 * @param table The truth table of the reversible function.
+	 * @param algorithm One of the algorithm flags other than AUTO_ALGORITHM.
+	 * @return The gates of the circuit, or null if the function has no shortcut
 	 */
-	private static int[][] reverseAndReduceGates(int[][] oldGates, int numberOfGates, int numberOfLines) {
-		int[][] newGates = new int[numberOfGates][numberOfLines];
-		int oldGateIndex = (numberOfGates - 1);
-		for(int i = 0; i < numberOfGates; i++) {
-			for(int j = 0; j < numberOfLines; j++) {
-				newGates[i][j] = oldGates[oldGateIndex][j];
+	static GateList shortcut(PermutationTable table, int algorithm) throws UserInputException {
+		return shortcut(FunctionSource.of(table.lines(), table::forward), algorithm);
+	}
+
+	/** Synthesizes a circuit by breaking the function into cycles of rows
+	 *	Each cycle c0 -> c1 -> ... -> ck of the function, where the output side of row c(j) is
+	 *	c(j+1), is the transpositions (c0 c1), (c0 c2), ... (c0 ck) applied in that order. Rows the
+	 *	function maps to themselves add nothing to the circuit. Only the output side of each row is
+	 *	read, so the function needs no table; a function that is not reversible has a row no cycle
+	 *	returns to, and is caught when its path reaches a row already visited.
+	 *
+	 * @param function The reversible function.
+	 * @return The gates of the circuit that realizes the Boolean function.
+	 */
+	static GateList cycleSynthesis(FunctionSource function) throws UserInputException {
+		int rows = function.rows();
+		GateList gates = new GateList(function.lines());
+		// Rows already swapped into place as part of a cycle
+		java.util.BitSet visited = new java.util.BitSet();
+
+		for(int start = 0; start < rows; start++) {
+			if(function.output(start) == start || visited.get(start)) {
+				continue;
+			}
+			visited.set(start);
+			for(int row = function.output(start); row != start; row = function.output(row)) {
+				if(row < 0 || row >= rows || visited.get(row)) {
+					throw new UserInputException("Error: Entered function is not reversible.");
+				}
+				visited.set(row);
+				addTransposition(gates, start, row, function.lines());
 			}
-			oldGateIndex --;
 		}
-		return newGates;
+		return gates;
 	}
-	
-	/** Reduces the length of an array representation of the gates; used by the input algorithm.
-	 *	Method takes an array of gates generated by the input transformation algorithm and reduces
-	 *	the length of the array.
+
+	/** Adds the gates that swap two rows and leave every other row where it is
+	 *	Let t be the lowest bit where a and b differ. Gates controlled by line t flip the other bits
+	 *	where they differ in whichever of the two has bit t set, so the two then differ only in bit t.
+	 *	A gate targeting t, controlled by every other line, swaps them; lines where the rows hold 0
+	 *	are inverted around it so that it only acts on the two rows. Finally the first gates are
+	 *	undone.
 	 *
-	 * @param oldGates The array representation of the gates generated by the input algorithm.
-	 * @param numberOfGates The number of gates in oldGates.
-	 * @param numberOfLines The number of lines in the circuit.
+	 * @param gates The list the gates are added to.
+	 * @param a One of the rows.
+	 * @param b The other row.
+	 * @param columns The number of lines in the circuit.
 	 */
-	private static int[][] reduceGates(int[][] oldGates, int numberOfGates, int numberOfLines) {
-		int[][] newGates = new int[numberOfGates][numberOfLines];
-		for(int i = 0; i < numberOfGates; i++) {
-			for(int j = 0; j < numberOfLines; j++) {
-				newGates[i][j] = oldGates[i][j];
+	private static void addTransposition(GateList gates, int a, int b, int columns) {
+		int difference = a ^ b;
+		int target = Integer.lowestOneBit(difference);
+		// The row with bit t clear is the one left unchanged by the gates controlled by line t
+		int row = ((a & target) == 0) ? a : b;
+		int others = difference & ~target;
+		int controls = ((1 << columns) - 1) & ~target;
+		int zeros = controls & ~row;
+
+		for(int bit = others; bit != 0; bit &= (bit - 1)) {
+			gates.add(target, Integer.lowestOneBit(bit));
+		}
+		if(zeros != 0) {
+			gates.add(0, zeros);
+		}
+		gates.add(controls, target);
+		if(zeros != 0) {
+			gates.add(0, zeros);
+		}
+		for(int bit = others; bit != 0; bit &= (bit - 1)) {
+			gates.add(target, Integer.lowestOneBit(bit));
+		}
+	}
+
+	/** Performs the step of an algorithm that maps row i of the table to the identity.
+	 *	Rows must be processed in order starting from 0; after row i is processed every row up to
+	 *	and including i maps to itself and is never changed again.
+	 *
+	 * @param table The truth table being transformed.
+	 * @param algorithm One of OUTPUT_ALGORITHM, INPUT_ALGORITHM or BIDIRECTIONAL_ALGORITHM.
+	 * @param inputGates The gates found by input transformations, in the order they were found.
+	 * @param outputGates The gates found by output transformations, in the order they were found.
+	 * @param i The row to process.
+	 */
+	static void synthesizeRow(PermutationTable table, int algorithm, GateList inputGates,
+	GateList outputGates, int i) throws UserInputException {
+		if(algorithm == OUTPUT_ALGORITHM) {
+			outputTransformation(table, outputGates, i);
+		} else if(algorithm == INPUT_ALGORITHM) {
+			inputTransformation(table, inputGates, i);
+		} else {
+			int columns = table.lines();
+			int h1 = hammingDistance(i, table.forward(i), columns);
+			int h2 = hammingDistance(i, table.inverse(i), columns);
+
+			/* Decide whether to use an input transformation or an output transformation based on
+			 * the Hamming distances of the two possible steps. If HammingDistance(input, Expansion)
+			 * is smaller that HammingDistance(input, index(input)) then use the output
+			 * transformation, else use the input transformation.
+			 */
+			if(h1 <= h2) {
+				outputTransformation(table, outputGates, i);
+			} else {
+				inputTransformation(table, inputGates, i);
 			}
 		}
-		return newGates;
 	}
-	
-	/** Takes userInput representation of truth table and transforms it to algorithm version
-	 * 	The method transforms the userInput form of the truth table to one that can be used by
-	 *	the three transformation algorithms.
+
+	/** Maps row i of the table to the identity by transforming the output side of the table.
+	 *	The number I is the row index and the number J is the expansion of I; the gates that map J
+	 *	to I are added to gates and applied to the output side of the table.
 	 *
-	 * @param userInput The array representation of the truth table.
-	 * @return The array representation of the truth table.
+	 * @param table The truth table being transformed.
+	 * @param gates The list the gates found are added to.
+	 * @param i The row to process.
 	 */
-	private static int[][] userInputToTable(int[][] userInput) {
-		int rows = userInput.length;
-		int columns = 0;
-		
-		// If passed an invalid table, return null
-		if(userInput[0] != null) {
-			columns = userInput[0].length;
+	static void outputTransformation(TransformableTable table, GateList gates, int i) throws UserInputException {
+		int columns = table.lines();
+		int index = i;
+		int expansion = table.forward(index);
+		int target;
+
+		if(i == 0) {
+			// First step: Flip all the bits in f+(0) that are 1 to zero
+			target = expansion;
+			if(expansion != index) {
+				table.transformOutputs(target, 0);
+				gates.add(0, target);
+			}
+		} else if(index == expansion) {
+			// If the row index equals the expansion, nothing needs to be done
 		} else {
-			return null;
+			// p represents all the 0 bits that must be flipped to 1 in the expansion
+			int p = ((index ^ expansion) & index);
+			// q represents all the 1 bits that must be flipped to 0 in the expansion
+			int q = ((index ^ expansion) & expansion);
+
+			// Process the targets in p
+			for(int j = 0; j < columns; j++) {
+				expansion = table.forward(index);
+				target = (1 << j);
+
+				if((p & target) != 0) {
+					int control = bestControlLine(target, expansion, index);
+					table.transformOutputs(target, control);
+					gates.add(control, target);
+				}
+			}
+
+			// Process the targets in q
+			for(int j = 0; j < columns; j++) {
+				expansion = table.forward(index);
+				target = (1 << j);
+
+				if((q & target) != 0) {
+					int control = bestControlLine(target, expansion, index);
+					table.transformOutputs(target, control);
+					gates.add(control, target);
+				}
+			}
 		}
-		
-		int[][] vals = new int[rows][2];
-		
-		int maxIndex = columns - 1;
-		int sum;
-		for(int i = 0; i < rows; i++) {
-			sum = 0;
+	}
+
+	/** Maps row i of the table to the identity by transforming the input side of the table.
+	 *	The number I is the row index and the number J is the input side of the row whose expansion
+	 *	equals I; the gates that map J to I are added to gates and applied to the input side of the
+	 *	table.
+	 *
+	 * @param table The truth table being transformed.
+	 * @param gates The list the gates found are added to.
+	 * @param i The row to process.
+	 */
+	static void inputTransformation(TransformableTable table, GateList gates, int i) throws UserInputException {
+		int columns = table.lines();
+		// Find the input side of the row whose expansion matches the current index i
+		int input = table.inverse(i);
+
+		if(input == i) {
+			// If the input equals the expansion, nothing needs to be done
+		} else {
+			// p represents all the 0 bits that must be flipped to 1 in the expansion
+			int p = ((i ^ input) & i);
+			// q represents all the 1 bits that must be flipped to 0 in the expansion
+			int q = ((i ^ input) & input);
+
+			int target = 0;
+			// Process the targets in p
 			for(int j = 0; j < columns; j++) {
-				if(userInput[i][j] == 1) {
-					// Convert the user input to a number for easy manipulation.
-					sum += (int) Math.pow(2, (double) (maxIndex - j));
+				input = table.inverse(i);
+				target = (1 << j);
+
+				if((p & target) != 0) {
+					int control = bestControlLine(target, input, i);
+					table.transformInputs(target, control);
+					gates.add(control, target);
+				}
+			}
+
+			// Process the targets in q
+			for(int j = 0; j < columns; j++) {
+				input = table.inverse(i);
+				target = (1 << j);
+
+				if((q & target) != 0) {
+					int control = bestControlLine(target, input, i);
+					table.transformInputs(target, control);
+					gates.add(control, target);
 				}
 			}
-			// The first index is the int representation of the input side
-			vals[i][0] = i;
-			// The second index is the int representation of the output side
-			vals[i][1] = sum;
 		}
-		
-		return vals;
 	}
-	
+
+	/** Takes userInput representation of truth table and transforms it to algorithm version
+	 * 	The method transforms the userInput form of the truth table to one that can be used by
+	 *	the three transformation algorithms.
+	 *
+	 * @param userInput The array representation of the truth table.
+	 * @return The table form of the truth table.
+	 */
+	static PermutationTable userInputToTable(int[][] userInput) throws UserInputException {
+		// If passed an invalid table, reject it
+		if(userInput == null || userInput.length == 0 || userInput[0] == null || userInput[0].length > 30) {
+			throw new UserInputException("Error: Entered function is not reversible.");
+		}
+
+		PermutationTable table = new HeapPermutationTable(userInput[0].length);
+		table.load(userInput);
+		return table;
+	}
+
 	/** Calculates the Hamming distance between two numbers in Binary form.
 	 *	The method calcualtes the Hamming distance between two binary numbers; the Hamming distance
 	 *	is the number of positions by which the two binary numbers differ.
@@ -489,187 +511,53 @@ public class TransformationAlgorithms {
 		return hammingDist;
 	}
 	
-	/** Calculates the complexity of given array representation of truth table.
+	/** Calculates the complexity of given truth table.
 	 *	The method calculates the Hamming Distance for every input-output pair in the table and sums
-	 *	these values. This number represents the complexity of the table. This method is used in the
-	 *	transformation algorithms to decide which subset of possible control lines to use; the
-	 *	control lines set with the lowest complexity are the controls which bring the truth table
-	 *	closest to the identity, and which will result in the lowest number of gates.
+	 *	these values. This number represents the complexity of the table; the closer the table is to
+	 *	the identity the lower its complexity.
 	 *
-	 * @param table The array representation of the truth table.
-	 * @param numberOfInputs The number of inputs to the Boolean function.
+	 * @param table The truth table.
 	 * @return The complexity of the table.
 	 */
-	private static int tableComplexity(int [][] table, int numberOfInputs) {
-		int complexity = 0;
-		int rows = table.length;
+	static long tableComplexity(PermutationTable table) {
+		long complexity = 0;
+		int rows = table.rows();
+		int numberOfInputs = table.lines();
 		for(int i = 0; i < rows; i++) {
-			complexity += hammingDistance(table[i][0], table[i][1], numberOfInputs);
+			complexity += hammingDistance(i, table.forward(i), numberOfInputs);
 		}
 		return complexity;
 	}
-	
-	/** Computes the set of valid control lines for a transformation.
-	 *	The method takes a number that needs to be transformed, a number to transform that number to,
-	 *	and a number that represents the target bit to flip. From these values the method generates
-	 *	all possible valid control lines for the given target.
+
+	/** Chooses the control lines with the fewest controls for a transformation.
+	 *	The candidates are the numbers from numberToMapTo up to numberToMapFrom that have no 1 bit
+	 *	on the target and no 1 bit where numberToMapFrom has a 0 bit, which are the subsets of the
+	 *	1 bits of numberToMapFrom without the target. Every candidate but the largest has fewer
+	 *	controls than the largest, and the chosen one is the smallest candidate, so the subsets are
+	 *	walked in decreasing order by (s - 1) & mask until one falls below numberToMapTo; no array
+	 *	of candidates is built, which would take 2^n ints for each gate of a large table.
 	 *
 	 * @param target Represents the bit(s) to be flipped with 1s, 0s in non-target positions.
-	 * @param numberToMapfrom The number that needs to be transformed.
+	 * @param numberToMapFrom The number that needs to be transformed.
 	 * @param numberToMapTo The number to transform to.
-	 * @return An array holding all valid controls for the transformation.
-	 */
-	private static int[] validControlLines(int target, int numberToMapfrom, int numberToMapTo) {
-		int[] controlLines = new int[numberToMapfrom];
-		int numberOfControlsAdded = 0;
-		int arrayIndex = 0;
-		
-		for(int i = numberToMapfrom; i >= numberToMapTo; i--) {
-			if((i & target) != 0) {
-				/* Not a valid subset of controls, the control lines cannot include a 1 bit where
-				 * there is a target.
-				 */
-			} else {
-				if((numberToMapfrom & i) != i) {
-					/* Not a valid subset of controls, the control lines cannot include a 1 bit
-					 * where the numberToMapFrom does not have a 1 bit.
-					 */
-				} else {
-					controlLines[arrayIndex++] = i;
-					numberOfControlsAdded++;
-				}
-			}
-		}
-		
-		controlLines = reduceArray(controlLines, numberOfControlsAdded);		
-		return controlLines;
-	}
-	
-	/** Reduces the length of array by removing usused indices.
-	 *	The method, given an array and a number of elements in the array, will generate a new array
-	 *	of length numberOfValues which contains the elements in the array and no unused space. The
-	 *	method returns null if the number of elements is higher more than can be contained in the
-	 *	original array.
-	 *
-	 * @param array The array to be reduced.
-	 * @param numberOfValues The number of values in the array to be reduced.
-	 * @return The new array containing the old values and no extra space.
-	 */
-	private static int[] reduceArray(int[] array, int numberOfValues) {
-		if(numberOfValues > array.length) {
-			return null;
-		}
-		int[] newArray = new int[numberOfValues];
-		for(int i = 0; i < numberOfValues; i++) {
-			newArray[i] = array[i];
-		}
-		return newArray;
-	}
-	
-	/** Transforms the table by applying a transform to all elements on a side that match.
-	 *	The method takes an array representation of a truth table with each array having a length
-	 *	of two and transforms one side of that truth table. Each element on a side is transfomed by
-	 *	the target (if it matches the control lines) by flipping the bits in the element where
-	 *	target is 1. The element matches if it has 1 bits where controlLines has 1 bits. The
-	 *	variable tableColumn represents which side of the table to transform, input or output. 0 = 
-	 *	input and 1 = output.
-	 *
-	 * @param target Represents the bit(s) to be flipped with 1s, 0s in non-target positions.
-	 * @param controlLines Represents the control lines with 1 bits.
-	 * @param table The array representation of the truth table to be transformed.
-	 * @param tableColumn The side of the table to be transfomed, 0 = the input side, 1 = the output
-	 */
-	private static void transformTable(int target, int controlLines, int[][] table, int tableColumn) {
-		int rows = table.length;
-		for(int i = 0; i < rows; i++) {
-			int val = table[i][tableColumn];
-			if((val & controlLines) == controlLines) {
-				table[i][tableColumn] = (val ^ target);
-			}
-		}
-	}
-	
-	/** Method that determines control lines with the least complexity for a set of control lines.
-	 *	The method applys each possible group of control lines for an array of possible control
-	 *	lines and calculates the complexity each group of control lines results in; the method then
-	 *	returns the control lines that result in the lowest complexity.
-	 *
-	 * @param controlLines The array of possible control lines.
-	 * @param target Represents the bit(s) to be flipped with 1s, 0s in non-target positions.'
-	 * @param table The array representation of the truth table to be transformed.
-	 * @param tableColumn The side of the table to be transfomed, 0 = the input side, 1 = the output
-	 * @param numberOfInputs The number of inputs to the Boolean function.
-	 * @return The int rep. of the control lines with the lowest resulting complexity.
+	 * @return The int rep. of the chosen control lines.
 	 */
-	private static int bestControlLine(int[] controlLines, int target, int[][] table, int tableColumn, int numberOfInputs) throws UserInputException {
-		int bestControlLine = 0;
-		try {
-			int rows = controlLines.length;
-			int minComplexity = Integer.MAX_VALUE;
-			bestControlLine = controlLines[0];
-			int currLow = numberOfOnes(controlLines[0],  numberOfInputs);
-			
-			for(int i = 0; i < rows; i++) {
-				if(currLow > numberOfOnes(controlLines[i], numberOfInputs)) {
-					bestControlLine = controlLines[i];
-				}
-			}
-		} catch(ArrayIndexOutOfBoundsException e) {
+	private static int bestControlLine(int target, int numberToMapFrom, int numberToMapTo) throws UserInputException {
+		int mask = numberToMapFrom & ~target;
+		if(mask < numberToMapTo) {
 			throw new UserInputException("Error: Entered Function is not reversible.");
 		}
-		
-		return bestControlLine;
-	}
-	
-	/** Determines the number of ones in number.
-	 *
-	 * @param a The number.
-	 * @param numberOfInputs The number of positions in the binary numbers.
-	 * @return The number of ones.
-	 */
-	private static int numberOfOnes(int a, int numberOfInputs) {
-		int numberOfOnes = 0;
-		int bitMask = 0;
-		for(int i = (numberOfInputs - 1); i >= 0; i--) {
-			bitMask = (1 << i);
-			if((a & bitMask) != 0) {
-				numberOfOnes++;
+		int bestControlLine = mask;
+		int candidates = 1;
+		for(int subset = mask; subset != 0; ) {
+			subset = (subset - 1) & mask;
+			if(subset < numberToMapTo) {
+				break;
 			}
+			bestControlLine = subset;
+			candidates++;
 		}
-		return numberOfOnes;
-	}
-	
-	/** Creates a deep copy of a double int array.
-	 * @param array The array to be copied.
-	 * @return The deep copy of the array.
-	 */
-	private static int[][] copyArray(int[][] array) {
-		int rows = array.length;
-		int columns = array[0].length;
-		int[][] arrayCopy = new int[rows][columns];
-		
-		for(int i = 0; i < rows; i++) {
-			for(int j = 0; j < columns; j++) {
-				arrayCopy[i][j] = array[i][j];
-			}
-		}
-		return arrayCopy;
+		SynthesisMetrics.countCandidates(candidates);
+		return bestControlLine;
 	}
-	
-	/** Helper method that adds a representation of a a gate to an array.
-	 * @param gateArray The array of gates to add the gate to.
-	 * @param row The row to add the gate to.
-	 * @param numberOfColumns The number of columns in the gate array (and # inputs to function).
-	 *
-	 */
-	private static void addGate(int[][] gateArray, int row, int numberOfColumns, int controlLines, int target) {
-		for(int i = 0; i < numberOfColumns; i++) {
-			if((controlLines & (1 << i)) != 0) {
-				gateArray[row][i] = 1;
-			}
-			if((target & (1 << i)) != 0) {
-				gateArray[row][i] = 2;
-			}
-		}
-	} 
 }
\ No newline at end of file
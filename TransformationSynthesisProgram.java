@@ -16,15 +16,11 @@ import javafx.scene.layout.RowConstraints;
 import javafx.scene.text.Text;
 import javafx.stage.Stage;
 import javafx.geometry.Insets;
-import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
 import javafx.stage.Modality;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.shape.Line;
 import javafx.scene.shape.Circle;
 import javafx.scene.paint.Paint;
-import javafx.scene.paint.Color;
-import javafx.scene.Group;
 import javafx.scene.layout.Pane;
 import javafx.scene.control.MenuBar;
 import javafx.scene.control.Menu;
@@ -33,11 +29,9 @@ import javafx.scene.control.ToolBar;
 import javafx.scene.control.ToggleGroup;
 import javafx.scene.control.RadioButton;
 import javafx.geometry.Pos;
-import java.util.Scanner;
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.util.NoSuchElementException;
-import java.util.InputMismatchException;
+import javafx.concurrent.Task;
+import javafx.animation.PauseTransition;
+import javafx.util.Duration;
 
 /** A class which creates a UI for entering a reversible Boolean function and generating a circuit.
  *	The class allows the user to graphically enter a reversible Boolean function in the form of a
@@ -56,11 +50,19 @@ public class TransformationSynthesisProgram extends Application {
 	// This is the current number of function inputs
 	private int inputs = 3;
 	
-	// Variables that hold the truth tables
-	private TextField[] userInput;
-	private GridPane truthTable;
-	private Canvas t;
-	private Group r;
+	// Variables that hold the truth table and the circuit display
+	private TruthTableEditor truthTable;
+	private CircuitView circuitView;
+	
+	// The circuit currently displayed, kept so that it can be exported
+	private GateList circuit = null;
+	
+	// Keeps the last synthesis so that regenerating after a small edit is quick
+	private final IncrementalSynthesizer synthesizer = new IncrementalSynthesizer();
+	
+	// Synthesizes the truth table with every algorithm in the background once editing pauses
+	private final SpeculativeSynthesizer speculation = new SpeculativeSynthesizer();
+	private final PauseTransition editPause = new PauseTransition(Duration.millis(500));
 	
 	// The labels used for inputs and outputs
 	private String[] labels = {"a", "b", "c", "d", "e",
@@ -86,31 +88,34 @@ public class TransformationSynthesisProgram extends Application {
 		final double WIDTH = 800.0;
 		final double HEIGHT = 600.0;
 		final double INSET = 10.0;
-		final double TTABLEWIDTH = (WIDTH / 4.0);
-		final double TTABLEHEIGHT = (HEIGHT / 2.0);
 		
 		// Set the title of the program
 		primaryStage.setTitle("Transformation Based Synthesis Program");
 		
 		// Create truthTable
-		userInput = userInputFieldsSimple(inputs);
-		truthTable = truthTableSimple(TTABLEWIDTH, TTABLEHEIGHT, inputs, userInput);
+		truthTable = new TruthTableEditor(this.labels, new PermutationModel(inputs));
+		truthTable.setMinHeight(350.0);
+		truthTable.setMinWidth(250.0);
 		
-		// Create the truth table scroll pane and put the complex truth table in it	
-		ScrollPane sL = new ScrollPane();
-		sL.setContent(truthTable);
-		sL.setFitToHeight(true);
-		sL.setMinHeight(350.0);
-		sL.setMinWidth(250.0);
+		// Stop speculating on the old table at once, and start on the new one when editing pauses
+		this.editPause.setOnFinished(e -> {
+			try {
+				this.speculation.start(truthTable.toModel().copy());
+			} catch(UserInputException err) {
+				// The table is not complete yet
+			}
+		});
+		truthTable.setOnEdit(() -> {
+			this.speculation.cancel();
+			this.editPause.playFromStart();
+		});
 		
 		// Create initial circuit display
-		this.t = CircuitDisplay(500, 200, null);
-		this.r = new Group();
-		this.r.getChildren().add(t);
+		this.circuitView = new CircuitView(this.labels);
 		
 		// Create the circuit display ScollPane and add the initial ciruit display to it
 		ScrollPane sB = new ScrollPane();
-		sB.setContent(r);
+		sB.setContent(circuitView);
 		sB.setFitToHeight(true);
 		sB.setFitToWidth(true);
 		
@@ -132,29 +137,20 @@ public class TransformationSynthesisProgram extends Application {
 			
 			fileButton.setOnAction(eV -> {
 				String name = fileNme.getText();
-				try {
-					String[][] specification = readSpecificationFileToString(name);
-					int rows = specification.length;
-					int columns = specification[0].length;
-					inputs = columns;
-					
-					// Create the simple truthTable
-					userInput = userInputFieldsSimple(inputs);
-					truthTable = truthTableSimple(TTABLEWIDTH, TTABLEHEIGHT, inputs, userInput);
-					
-					for(int i = 0; i < rows; i++) {
-						String tmp = "";
-						for(int j = 0; j < columns; j++) {
-							tmp += specification[i][j];
-						}
-						userInput[i].setText(tmp);
-					}
-					
-					sL.setContent(truthTable);
+				fileButton.setDisable(true);
+				
+				// Read the file in the background and hand the model to the truth table when done
+				Task<PermutationModel> read = readSpecificationInBackground(name);
+				read.setOnSucceeded(done -> {
+					PermutationModel specification = read.getValue();
+					inputs = specification.lines();
+					truthTable.setModel(specification);
 					filePrompt.close();
-				} catch(UserInputException err) {
-					errorDisplay(err);
-				}
+				});
+				read.setOnFailed(failed -> {
+					fileButton.setDisable(false);
+					errorDisplay((Exception) read.getException());
+				});
 			});
 			
 			fileName.getChildren().addAll(f, fileNme, fileButton);
@@ -175,22 +171,41 @@ public class TransformationSynthesisProgram extends Application {
 			
 			fileButton.setOnAction(eV -> {
 				String name = fileNme.getText();
+				fileButton.setDisable(true);
+				
+				Task<GateList> synthesis = synthesizeSpecificationInBackground(name, this.algorithmFlag);
+				synthesis.setOnSucceeded(done -> {
+					this.circuit = synthesis.getValue();
+					this.circuitView.setGates(this.circuit, this.circuit.lines());
+					filePrompt.close();
+				});
+				synthesis.setOnFailed(failed -> {
+					fileButton.setDisable(false);
+					errorDisplay((Exception) synthesis.getException());
+				});
+			});
+			
+			fileName.getChildren().addAll(f, fileNme, fileButton);
+			filePrompt.setScene(new Scene(fileName, 400, 400));
+			filePrompt.show();
+		});
+		//
+		MenuItem loadCircuit = new MenuItem("Open Circuit File");
+		loadCircuit.setOnAction(e -> {
+			// Create the prompt stage for the file
+			Stage filePrompt = new Stage();
+			filePrompt.initModality(Modality.WINDOW_MODAL);
+			VBox fileName = new VBox(10);
+			fileName.setAlignment(Pos.CENTER);
+			Label f = new Label("Enter full file name including extension (.real or .tfc).");
+			TextField fileNme = new TextField("<file_name>.real");
+			Button fileButton = new Button("Load circuit from File.");
+			
+			fileButton.setOnAction(eV -> {
 				try {
-					int[][] input = readSpecificationFile(name);
-					
-					if(this.algorithmFlag == 0) {
-						input = TransformationAlgorithms.outputAlgorithm(input);
-					} else if(this.algorithmFlag == 1) {
-						input = TransformationAlgorithms.inputAlgorithm(input);
-					} else {
-						input = TransformationAlgorithms.bidirectionalAlgorithm(input);
-					}
-					
-					this.t = null;
-					this.r.getChildren().clear();
-					this.t = CircuitDisplay(WIDTH, HEIGHT, input);
-					this.r.getChildren().add(t);
-					sB.setContent(r);
+					GateList gates = CircuitReader.read(fileNme.getText());
+					this.circuit = gates;
+					this.circuitView.setGates(gates, gates.lines());
 					filePrompt.close();
 				} catch(UserInputException err) {
 					errorDisplay(err);
@@ -201,10 +216,52 @@ public class TransformationSynthesisProgram extends Application {
 			filePrompt.setScene(new Scene(fileName, 400, 400));
 			filePrompt.show();
 		});
-		file.getItems().addAll(load1, load2);
+		//
+		MenuItem exportCircuit = new MenuItem("Export Circuit");
+		exportCircuit.setOnAction(e -> {
+			if(this.circuit == null) {
+				errorDisplay(new UserInputException("There is no circuit to export; generate a circuit first."));
+				return;
+			}
+			
+			// Create the prompt stage for the file
+			Stage filePrompt = new Stage();
+			filePrompt.initModality(Modality.WINDOW_MODAL);
+			VBox fileName = new VBox(10);
+			fileName.setAlignment(Pos.CENTER);
+			Label f = new Label("Enter full file name including extension (.real or .tfc).");
+			TextField fileNme = new TextField("<file_name>.real");
+			Button fileButton = new Button("Write circuit to File.");
+			
+			fileButton.setOnAction(eV -> {
+				try {
+					CircuitWriter.write(fileNme.getText(), this.circuit);
+					filePrompt.close();
+				} catch(UserInputException err) {
+					errorDisplay(err);
+				}
+			});
+			
+			fileName.getChildren().addAll(f, fileNme, fileButton);
+			filePrompt.setScene(new Scene(fileName, 400, 400));
+			filePrompt.show();
+		});
+		file.getItems().addAll(load1, load2, loadCircuit, exportCircuit);
+		
+		// Create the view menu for zooming the circuit display
+		final Menu view = new Menu("View");
+		MenuItem zoomIn = new MenuItem("Zoom In");
+		zoomIn.setOnAction(e -> {
+			this.circuitView.zoomIn();
+		});
+		MenuItem zoomOut = new MenuItem("Zoom Out");
+		zoomOut.setOnAction(e -> {
+			this.circuitView.zoomOut();
+		});
+		view.getItems().addAll(zoomIn, zoomOut);
 		
 		final Menu help = new Menu("Help"); 
-		mainMenu.getMenus().addAll(file, help);
+		mainMenu.getMenus().addAll(file, view, help);
 		
 		// Create the toolbar
 		ToolBar topBar = new ToolBar();
@@ -223,9 +280,7 @@ public class TransformationSynthesisProgram extends Application {
 					"range of [1, 26] for # of function arguments"));
 				} else {
 					inputs = tmp2;
-					userInput = userInputFieldsSimple(inputs);
-					truthTable = truthTableSimple(TTABLEWIDTH, TTABLEHEIGHT, inputs, userInput);
-					sL.setContent(truthTable);
+					truthTable.setModel(new PermutationModel(inputs));
 				}
 			} catch(NumberFormatException err) {
 				errorDisplay(new UserInputException("Value entered for # of function arguments " +
@@ -237,22 +292,15 @@ public class TransformationSynthesisProgram extends Application {
 		Button generate = new Button("Generate Circuit");
 		generate.setOnAction(e -> {
 			try {
-				int[][] input = null;
-				input = processUserInputSimple(userInput);
-				
-				if(this.algorithmFlag == 0) {
-					input = TransformationAlgorithms.outputAlgorithm(input);
-				} else if(this.algorithmFlag == 1) {
-					input = TransformationAlgorithms.inputAlgorithm(input);
-				} else {
-					input = TransformationAlgorithms.bidirectionalAlgorithm(input);
+				// Use the circuit synthesized in the background if it is ready; otherwise only the
+				// rows changed since the last circuit was generated are synthesized again
+				PermutationModel model = truthTable.toModel();
+				int algorithm = AlgorithmSelector.resolve(FunctionSource.of(model), this.algorithmFlag);
+				this.circuit = this.speculation.result(algorithm);
+				if(this.circuit == null) {
+					this.circuit = this.synthesizer.synthesize(model, algorithm);
 				}
-				
-				this.t = null;
-				this.r.getChildren().clear();
-				this.t = CircuitDisplay(WIDTH, HEIGHT, input);
-				this.r.getChildren().add(t);
-				sB.setContent(r);
+				this.circuitView.setGates(this.circuit, model.lines());
 			} catch(UserInputException err) {
 				errorDisplay(err);
 			}
@@ -260,7 +308,7 @@ public class TransformationSynthesisProgram extends Application {
 		// Create the clear all inputs button
 		Button clearInput = new Button("Clear all Inputs");
 		clearInput.setOnAction(e -> {
-				clearUserInputFieldsSimple(userInput);
+				truthTable.clear();
 			}
 		);
 		// Create the toggles for the algorithm options
@@ -277,11 +325,22 @@ public class TransformationSynthesisProgram extends Application {
 		biAlg.setOnAction(e -> {
 			this.algorithmFlag = 2;
 		});
+		RadioButton cycleAlg = new RadioButton("Cycle Algorithm");
+		cycleAlg.setOnAction(e -> {
+			this.algorithmFlag = 3;
+		});
+		RadioButton autoAlg = new RadioButton("Auto");
+		autoAlg.setOnAction(e -> {
+			this.algorithmFlag = TransformationAlgorithms.AUTO_ALGORITHM;
+		});
 		outAlg.setSelected(true);
 		outAlg.setToggleGroup(g);
 		inAlg.setToggleGroup(g);
 		biAlg.setToggleGroup(g);
-		topBar.getItems().addAll(exp, functionInputs, tTableGen, s, generate, outAlg, inAlg, biAlg, clearInput);
+		cycleAlg.setToggleGroup(g);
+		autoAlg.setToggleGroup(g);
+		topBar.getItems().addAll(exp, functionInputs, tTableGen, s, generate, outAlg, inAlg, biAlg, cycleAlg,
+								autoAlg, clearInput);
 		
 		// Create the layout for the stage
 		GridPane mainLayout = new GridPane();
@@ -300,275 +359,13 @@ public class TransformationSynthesisProgram extends Application {
 		mainLayout.getRowConstraints().addAll(r1, r2, r3);
 		mainLayout.add(mainMenu, 0, 0, 2, 1);
 		mainLayout.add(topBar, 0, 1, 2, 1);
-		mainLayout.add(sL, 0, 2);
+		mainLayout.add(truthTable, 0, 2);
 		mainLayout.add(sB, 1, 2);//, 1, 2);
 		
 		primaryStage.setScene(new Scene(mainLayout, WIDTH, HEIGHT));
 		primaryStage.show();
 	}
 	
-	/** Creates a grahpical display of a circuit
-	 * @param width The width the default display will have
-	 * @param height The height the default circuit will have
-	 * @param gates The array representation of the gates to be displayed
-	 * @return The Canvas that displays the circuit
-	 */
-	private Canvas CircuitDisplay(double width, double height, int[][] gates) {
-		double gateSeparation = 50;
-		double verticalPadding = 30.0;
-		double horizontalPadding = 50.0;
-		double lineSeparation = 30.0;
-		double lineLength;
-		int numberOfGates;
-		int numberOfInputs;
-		
-		if(gates == null) {
-			numberOfGates = 0;
-			numberOfInputs = 3;
-			lineLength = width - (verticalPadding * 3);
-		} else {
-			numberOfGates = gates.length;
-			numberOfInputs = gates[0].length;
-			lineLength = (numberOfGates + 1) * gateSeparation;
-			width = (lineLength + 100.0);
-			height = (numberOfInputs * lineSeparation) + 50.0;
-		}
-		
-		Canvas circuitDisplay = new Canvas(width, height);
-		GraphicsContext g = circuitDisplay.getGraphicsContext2D();
-		
-		double hLeftPos = horizontalPadding;
-		double vLeftPos = verticalPadding;
-		
-		for(int i = 0; i < numberOfInputs; i++) {
-			g.strokeLine(hLeftPos, vLeftPos, hLeftPos + lineLength, vLeftPos);
-			g.setLineWidth(0.75);
-			g.strokeText(this.labels[i % this.labels.length], hLeftPos - 15.0, vLeftPos);
-			g.strokeText(this.labels[i % this.labels.length] + "\u2070", hLeftPos + lineLength + 15.0, vLeftPos);
-			g.setLineWidth(1.0);
-			vLeftPos += lineSeparation;
-		}
-		
-		hLeftPos = horizontalPadding + gateSeparation;
-		vLeftPos = verticalPadding;
-		for(int i = 0; i < numberOfGates; i++) {
-			for(int j = 0; j < numberOfInputs; j++) {
-				if(gates[i][j] == 2) {
-					createTarget(g, hLeftPos, vLeftPos);
-				} else if(gates[i][j] == 1) {
-					createControl(g, hLeftPos, vLeftPos);
-				} else {
-					// Skip
-				}
-				
-				vLeftPos += lineSeparation;
-			}
-			vLeftPos = verticalPadding;
-			hLeftPos += gateSeparation;
-		}
-		
-		hLeftPos = horizontalPadding + gateSeparation;
-		vLeftPos = verticalPadding;
-		for(int i = 0; i < numberOfGates; i++) {
-			boolean rowOfTargets = false;
-			boolean rowOfTargets2 = false;
-			int start = 0;
-			int end = 0;
-			int j;
-			for(j = 0; j < numberOfInputs; j++) {
-				if(gates[i][j] > 0) {
-					start = j;
-					
-					if(gates[i][j] == 2) {
-						rowOfTargets = true;
-					}
-					
-					break;
-				}
-			}
-
-			for(int k = j; k < numberOfInputs; k++) {
-				if(gates[i][k] > 0) {
-					end = k;
-					if(gates[i][k] == 2) {
-						rowOfTargets2 = true;
-					} else {
-						rowOfTargets2 = false;
-					}
-				}
-			}
-			
-			// Draw the line
-			if(start < end && (rowOfTargets == false || rowOfTargets2 == false)) {
-				g.strokeLine(hLeftPos, (vLeftPos + (lineSeparation * start)), 
-							hLeftPos, (vLeftPos + (lineSeparation * end)));
-			}
-			vLeftPos = verticalPadding;
-			hLeftPos += gateSeparation;
-		}
-		return circuitDisplay;
-	}
-	
-	/** Draws a target symbol at the location specified
-	 * @param g The GraphicsContext to draw with
-	 * @param xCenter The x-coordinate to draw at
-	 * @param yCenter Thy y-coordinate to draw at
-	 */
-	private void createTarget(GraphicsContext g, double xCenter, double yCenter) {
-		double offset = 10.0;
-		double x = xCenter - offset;
-		double y = yCenter - offset;
-		double width = 2 * offset;
-		g.fillOval(x, y, width, width);
-		
-		g.setFill(Color.WHITE);
-		offset = 8;
-		x = xCenter - offset;
-		y = yCenter - offset;
-		width = 2 * offset;
-		g.fillOval(x, y, width, width);
-		
-		g.setFill(Color.BLACK);
-		g.strokeLine(xCenter - offset, yCenter, xCenter + offset, yCenter);
-		g.strokeLine(xCenter, yCenter - offset, xCenter, yCenter + offset);
-	}
-
-	/** Draws a control symbol at the location specified
-	 * @param g The GraphicsContext to draw with
-	 * @param xCenter The x-coordinate to draw at
-	 * @param yCenter Thy y-coordinate to draw at
-	 */
-	private void createControl(GraphicsContext g, double xCenter, double yCenter) {
-		double offset = 5.0;
-		double x = xCenter - offset;
-		double y = yCenter - offset;
-		double width = 2 * offset;
-		g.fillOval(x, y, width, width);
-	}
-	
-	/** Creates a truth table like collection of TextFields
-	 * @param width The width of the GridPane
-	 * @param height The height of the GridPane
-	 * @param inputs The number of inputs to the function
-	 * @param userInput The TextFields to use
-	 */
-	private GridPane truthTableSimple(double width, double height, int inputs, TextField[] userInput) {
-		int inset = 10;
-		int rows = (int) Math.pow(2, inputs);
-		
-		// Create the GridPane that will hold the TruthTable
-		GridPane truthTable = new GridPane();
-		truthTable.setHgap(2);
-		truthTable.setVgap(2);
-		truthTable.setPadding(new Insets(inset, inset, inset, inset));
-		
-		// Add instructions
-		truthTable.add(new Text("Input Function Truth Table:"), 0, 0, 20, 1);
-		
-		String tmp = "";
-		String tmp2 = "  ";
-		for(int i = 0; i < inputs; i++) {
-			tmp += this.labels[(inputs - 1 - i) % this.labels.length];
-			tmp2 +=  this.labels[(inputs - 1 - i) % this.labels.length] + "\u2070";
-		}
-		truthTable.add(new Text(tmp), 0, 1);
-		truthTable.add(new Text(tmp2), 1, 1);
-		
-		// Add the Textfields
-		for(int i = 0; i < rows; i++) {
-			truthTable.add(new Text(paddedBinaryRep(i, inputs)), 0, (i + 2));
-			// Set the prefered width of the table
-			userInput[i] = new TextField();
-			userInput[i].setPrefWidth(80);
-			truthTable.add(userInput[i], 1, (i + 2));
-		}
-		return truthTable;
-	}
-	
-	/** Creates a collection of TextFields
-	 * @param inputs The number of inputs to the Boolean function
-	 */
-	private TextField[] userInputFieldsSimple(int inputs) {
-		int rows = (int) Math.pow(2, inputs);
-		// Create an array to hold the TextFields
-		TextField[] userInput = new TextField[rows];
-		return userInput;
-	}
-	
-	/** Pads the binary rep of a number with an appropriate number of zeros
-	 */
-	private String paddedBinaryRep(int i, int inputs) {
-		String num = Integer.toBinaryString(i);
-		int len = num.length();
-		int padding = this.inputs - len;
-		if(padding > 0) {
-			String tmp = "";
-			for(i = 0; i < padding; i++) {
-				tmp += '0';
-			}
-			tmp += num;
-			return tmp;
-		} else {
-			return num;
-		}
-	}
-	
-	/** Processes user input contained in the TextFields
-	 * @param The TextFields containing user input
-	 * @return The int[][] representation of the user input
-	 */
-	private int[][] processUserInputSimple(TextField[] userInput) throws UserInputException{
-		int rows = userInput.length;
-		int columns = expOfTwo(rows);
-		int[][] input = new int[rows][columns];
-		char tmp;
-		String tmp2;
-		
-		for(int i = 0; i < rows; i++) {
-			tmp2 = userInput[i].getText();
-			
-			for(int j = 0; j < columns; j++) {
-				
-				if(tmp2.length() != columns) {
-					throw new UserInputException("Excessive or Insufficient input in row " + i + ".");
-				}
-				
-				tmp = tmp2.charAt(j);
-				if(tmp == '1' || tmp == '0') {
-					input[i][j] = Character.getNumericValue(tmp);
-				} else {
-					throw new UserInputException("Invalid character in row " + i + ", at column " + j + ".");
-				}
-			}
-		}
-		
-		return input;
-	}
-	
-
-	/** Calculates the exponent of two it would take for a power, small helper method
-	 */
-	private static int expOfTwo(int Pow) {
-		int exp = 0;
-		while(Pow >= 2) {
-			Pow /= 2;
-			exp++;
-		}
-		return exp;
-	}
-	
-	/** Clears the user input in a collection of TextFields
-	 * @param userInput The array of TextFields to be cleared
-	 */
-	private void clearUserInputFieldsSimple(TextField[] userInput) {
-		int rows = userInput.length;
-		int columns = expOfTwo(rows);
-		// Traverse the rows
-		for(int i = 0; i < rows; i++) {
-			userInput[i].clear();
-		}
-	}
-	
 	/** Creates a graphical display for a passed error
 	 * @param err The error to be displayed
 	 */
@@ -589,99 +386,39 @@ public class TransformationSynthesisProgram extends Application {
 		errorMessage.show();
 	}
 	
-	/** Reads a file into a double array of ints
-	 * @param fileName The name of the file to be read
+	/** Starts reading a specification file into a model on a background thread
+	 * @param fileName The name of the file to be read including extensions
+	 * @return The task reading the file; its value is the model once it succeeds
 	 */
-	private static int[][] readSpecificationFile(String fileName) throws UserInputException {
-		int numberOfInputs = 0;
-		
-		try {
-			Scanner s = new Scanner(new File(fileName));
-			
-			// Read in the number of inputs for the specification
-			if(s.hasNextInt()) {
-				numberOfInputs = s.nextInt();
-				if(numberOfInputs < 1) {
-					throw new UserInputException("FIle contains an input value to low, must be greater than 0.");
-				}
+	private static Task<PermutationModel> readSpecificationInBackground(String fileName) {
+		Task<PermutationModel> read = new Task<PermutationModel>() {
+			@Override
+			protected PermutationModel call() throws UserInputException {
+				return SpecificationReader.read(fileName);
 			}
-			
-			int rows = (int) Math.pow(2, numberOfInputs);
-			int[][] fileInput = new int[rows][numberOfInputs];
-			int added = 0;
-			int expectedAdded = (rows * numberOfInputs);
-			
-			for(int i = 0; i < rows; i++) {
-				for(int j = 0; j < numberOfInputs; j++) {
-					int tmp = s.nextInt();
-					if(tmp == 0 || tmp == 1) {
-						added++;
-						fileInput[i][j] = tmp;
-					} else {
-						throw new UserInputException("File contains a value that is not a 1 or a 0.");
-					}
-				}
-			}
-			
-			if(added != expectedAdded) {
-				throw new UserInputException("File contains an insufficient number of values.");
-			}
-			return fileInput;
-			
-		} catch(FileNotFoundException e) {
-			throw new UserInputException("File name entered was not found in directory.");
-		} catch(InputMismatchException e) {
-			throw new UserInputException("File contains a value that is not an integer.");
-		} catch (NoSuchElementException e) {
-			throw new UserInputException("File contains an insufficient number of values.");
-		}
+		};
+		Thread reader = new Thread(read, "specification-reader");
+		reader.setDaemon(true);
+		reader.start();
+		return read;
 	}
-	 
-	/** Reads a file into a double string array
+
+	/** Starts reading a specification file and synthesizing its circuit on a background thread
 	 * @param fileName The name of the file to be read including extensions
-	 */ 
-	private static String[][] readSpecificationFileToString(String fileName) throws UserInputException {
-		int numberOfInputs = 0;
-		
-		try {
-			Scanner s = new Scanner(new File(fileName));
-			
-			// Read in the number of inputs for the specification
-			if(s.hasNextInt()) {
-				numberOfInputs = s.nextInt();
-				if(numberOfInputs < 1) {
-					throw new UserInputException("FIle contains an input value to low, must be greater than 0.");
-				}
-			}
-			
-			int rows = (int) Math.pow(2, numberOfInputs);
-			String[][] fileInput = new String[rows][numberOfInputs];
-			int added = 0;
-			int expectedAdded = (rows * numberOfInputs);
-			
-			for(int i = 0; i < rows; i++) {
-				for(int j = 0; j < numberOfInputs; j++) {
-					int tmp = s.nextInt();
-					if(tmp == 0 || tmp == 1) {
-						added++;
-						fileInput[i][j] = Integer.toString(tmp);
-					} else {
-						throw new UserInputException("File contains a value that is not a 1 or a 0.");
-					}
-				}
-			}
-			
-			if(added != expectedAdded) {
-				throw new UserInputException("File contains an insufficient number of values.");
+	 * @param algorithm One of the algorithm flags.
+	 * @return The task synthesizing the circuit; its value is the circuit once it succeeds
+	 */
+	private static Task<GateList> synthesizeSpecificationInBackground(String fileName, int algorithm) {
+		Task<GateList> synthesis = new Task<GateList>() {
+			@Override
+			protected GateList call() throws UserInputException {
+				PermutationModel specification = SpecificationReader.read(fileName);
+				return TransformationAlgorithms.synthesize(FunctionSource.of(specification), algorithm);
 			}
-			return fileInput;
-			
-		} catch(FileNotFoundException e) {
-			throw new UserInputException("File name entered was not found in directory.");
-		} catch(InputMismatchException e) {
-			throw new UserInputException("File contains a value that is not an integer.");
-		} catch (NoSuchElementException e) {
-			throw new UserInputException("File contains an insufficient number of values.");
-		}
+		};
+		Thread synthesizer = new Thread(synthesis, "specification-synthesizer");
+		synthesizer.setDaemon(true);
+		synthesizer.start();
+		return synthesis;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,197 @@
+import javafx.collections.ObservableListBase;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Text;
+import javafx.geometry.Insets;
+import java.util.TreeMap;
+
+/** An editor for the truth table of a reversible Boolean function.
+ *	The editor shows one row for each row of the truth table but only creates cells for the rows
+ *	that are visible; the cells are reused as the table is scrolled. The rows are held in a packed
+ *	PermutationModel, so a truth table with millions of rows costs one int per row rather than a
+ *	TextField per row. Text that cannot be packed yet, such as a row that is only partly typed, is
+ *	kept separately until it is completed.
+ *
+ * @author ian (ianH92)
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+public class TruthTableEditor extends VBox {
+	private static final double CELL_HEIGHT = 28.0;
+
+	private final String[] labels;
+	private final Text header = new Text();
+	private final ListView<Integer> rowList = new ListView<>();
+	private PermutationModel model;
+
+	// Rows whose text does not yet form a valid row, keyed by row
+	private final TreeMap<Integer, String> invalidRows = new TreeMap<>();
+	// Called whenever the truth table changes
+	private Runnable onEdit = null;
+
+	/** Creates an editor for an empty truth table
+	 * @param labels The labels used for the inputs of the function
+	 * @param model The model to edit
+	 */
+	public TruthTableEditor(String[] labels, PermutationModel model) {
+		super(2);
+		this.labels = labels;
+		setPadding(new Insets(10, 10, 10, 10));
+
+		this.rowList.setFixedCellSize(CELL_HEIGHT);
+		this.rowList.setCellFactory(list -> new RowCell());
+		VBox.setVgrow(this.rowList, Priority.ALWAYS);
+
+		getChildren().addAll(new Text("Input Function Truth Table:"), this.header, this.rowList);
+		setModel(model);
+	}
+
+	/** Replaces the model being edited
+	 * @param model The new model to edit
+	 */
+	public void setModel(PermutationModel model) {
+		this.model = model;
+		this.invalidRows.clear();
+
+		int inputs = model.lines();
+		StringBuilder tmp = new StringBuilder();
+		StringBuilder tmp2 = new StringBuilder("  ");
+		for(int i = 0; i < inputs; i++) {
+			tmp.append(this.labels[(inputs - 1 - i) % this.labels.length]);
+			tmp2.append(this.labels[(inputs - 1 - i) % this.labels.length]).append('\u2070');
+		}
+		this.header.setText(tmp + "    " + tmp2);
+
+		this.rowList.setItems(new RowIndices(model.rows()));
+		edited();
+	}
+
+	/** Sets the action run whenever a row is edited or the truth table is replaced or cleared
+	 * @param onEdit The action, or null for none
+	 */
+	public void setOnEdit(Runnable onEdit) {
+		this.onEdit = onEdit;
+	}
+
+	/** Returns the model being edited
+	 */
+	public PermutationModel getModel() {
+		return this.model;
+	}
+
+	/** Clears every row of the truth table
+	 */
+	public void clear() {
+		this.model.clear();
+		this.invalidRows.clear();
+		this.rowList.refresh();
+		edited();
+	}
+
+	/** Processes the truth table into the int[][] representation used by the algorithms
+	 * @return The int[][] representation of the user input
+	 */
+	public int[][] toUserInput() throws UserInputException {
+		return toModel().toUserInput();
+	}
+
+	/** Checks that every row of the truth table has been entered correctly
+	 * @return The model of the truth table
+	 */
+	public PermutationModel toModel() throws UserInputException {
+		if(!this.invalidRows.isEmpty()) {
+			// Report the first row that could not be packed with the reason it was rejected
+			Integer row = this.invalidRows.firstKey();
+			this.model.parseRow(this.invalidRows.get(row), row);
+		}
+		this.model.validate();
+		return this.model;
+	}
+
+	/** Records the text entered for a row, packing it into the model if it forms a valid row
+	 * @param row The row edited
+	 * @param text The text now in the row
+	 */
+	private void edit(int row, String text) {
+		if(text.isEmpty()) {
+			this.invalidRows.remove(row);
+			this.model.setOutput(row, PermutationModel.UNSET);
+		} else {
+			try {
+				this.model.setOutput(row, this.model.parseRow(text, row));
+				this.invalidRows.remove(row);
+			} catch(UserInputException e) {
+				this.model.setOutput(row, PermutationModel.UNSET);
+				this.invalidRows.put(row, text);
+			}
+		}
+		edited();
+	}
+
+	/** Runs the edit action, if there is one
+	 */
+	private void edited() {
+		if(this.onEdit != null) {
+			this.onEdit.run();
+		}
+	}
+
+	/** A list of row indices that holds no elements of its own
+	 */
+	private static class RowIndices extends ObservableListBase<Integer> {
+		private final int rows;
+
+		RowIndices(int rows) {
+			this.rows = rows;
+		}
+
+		@Override
+		public Integer get(int index) {
+			return index;
+		}
+
+		@Override
+		public int size() {
+			return this.rows;
+		}
+	}
+
+	/** A cell showing the input side of a row and a TextField for its output side
+	 */
+	private class RowCell extends ListCell<Integer> {
+		private final Text input = new Text();
+		private final TextField output = new TextField();
+		private final HBox box = new HBox(8, this.input, this.output);
+		private boolean updating = false;
+
+		RowCell() {
+			this.output.setPrefWidth(80);
+			this.output.textProperty().addListener((o, oldText, newText) -> {
+				Integer row = getItem();
+				if(!this.updating && row != null) {
+					edit(row, newText);
+				}
+			});
+		}
+
+		@Override
+		protected void updateItem(Integer row, boolean empty) {
+			super.updateItem(row, empty);
+			if(empty || row == null) {
+				setGraphic(null);
+				return;
+			}
+
+			this.updating = true;
+			this.input.setText(PermutationModel.binaryString(row, model.lines()));
+			String invalid = invalidRows.get(row);
+			this.output.setText((invalid != null) ? invalid : model.getText(row));
+			this.updating = false;
+			setGraphic(this.box);
+		}
+	}
+}